@@ -0,0 +1,140 @@
+package mg.orange.workflow.benchmarks;
+
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.model.process.ProcessDTO;
+import mg.orange.workflow.model.process.ProcessType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixtures locales des benchmarks : BPMN de l'application, BPMN synthétiques et catalogues de processus
+ */
+public final class Fixtures {
+
+    /**
+     * Fixture désignant un BPMN synthétique de 10 000 nœuds
+     */
+    public static final String SYNTHETIC_10K = "synthetic-10k";
+
+    private static final String[] NAME_WORDS = {
+            "hiring", "approval", "onboarding", "invoice", "leave", "expense", "contract", "purchase",
+            "offer", "review", "payment", "order", "travel", "claim", "audit", "request"
+    };
+
+    private Fixtures() {
+    }
+
+    /**
+     * Contenu d'un BPMN de l'application ({@code hiring.bpmn}, {@code approval.bpmn}) ou de {@link #SYNTHETIC_10K}
+     */
+    public static byte[] bpmn(String fixture) {
+        if (SYNTHETIC_10K.equals(fixture)) {
+            return syntheticProcess(10_000, 0).getBytes(StandardCharsets.UTF_8);
+        }
+        try (InputStream input = Fixtures.class.getClassLoader().getResourceAsStream(fixture)) {
+            if (input == null) {
+                throw new IllegalArgumentException("Fixture BPMN introuvable: " + fixture);
+            }
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Processus linéaire de {@code nodeCount} nœuds (tâches utilisateur et gateways) avec son diagramme.
+     * Une {@code variant} non nulle renomme une tâche sur 50, en supprime une sur 500 et décale le diagramme,
+     * ce qui donne une nouvelle version réaliste pour les comparaisons.
+     */
+    public static String syntheticProcess(int nodeCount, int variant) {
+        StringBuilder xml = new StringBuilder(nodeCount * 700);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<bpmn2:definitions xmlns:bpmn2=\"http://www.omg.org/spec/BPMN/20100524/MODEL\"")
+                .append(" xmlns:bpmndi=\"http://www.omg.org/spec/BPMN/20100524/DI\"")
+                .append(" xmlns:dc=\"http://www.omg.org/spec/DD/20100524/DC\"")
+                .append(" xmlns:di=\"http://www.omg.org/spec/DD/20100524/DI\"")
+                .append(" xmlns:drools=\"http://www.jboss.org/drools\" id=\"synthetic\">\n")
+                .append("  <bpmn2:process id=\"synthetic\" name=\"Synthetic\" drools:version=\"1.0\"")
+                .append(" drools:packageName=\"org.kie.kogito.bench\" isExecutable=\"true\">\n");
+
+        List<String> ids = new ArrayList<>(nodeCount);
+        ids.add("start");
+        xml.append("    <bpmn2:startEvent id=\"start\" name=\"Start\"/>\n");
+        for (int i = 1; i < nodeCount - 1; i++) {
+            if (variant != 0 && i % 500 == 0) {
+                continue;
+            }
+            String id = "node_" + i;
+            ids.add(id);
+            if (i % 10 == 0) {
+                xml.append("    <bpmn2:exclusiveGateway id=\"").append(id).append("\" name=\"Gateway ").append(i).append("\"/>\n");
+                continue;
+            }
+            String name = (variant != 0 && i % 50 == 0 ? "Renamed task " : "Task ") + i;
+            xml.append("    <bpmn2:userTask id=\"").append(id).append("\" name=\"").append(name).append("\">\n")
+                    .append("      <bpmn2:ioSpecification>\n")
+                    .append("        <bpmn2:dataInput id=\"").append(id).append("_TaskNameInputX\" name=\"TaskName\"/>\n")
+                    .append("        <bpmn2:dataInput id=\"").append(id).append("_GroupIdInputX\" name=\"GroupId\"/>\n")
+                    .append("      </bpmn2:ioSpecification>\n")
+                    .append("      <bpmn2:dataInputAssociation>\n")
+                    .append("        <bpmn2:targetRef>").append(id).append("_TaskNameInputX</bpmn2:targetRef>\n")
+                    .append("        <bpmn2:assignment><bpmn2:from xsi:type=\"bpmn2:tFormalExpression\"")
+                    .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">Task").append(i)
+                    .append("</bpmn2:from><bpmn2:to xsi:type=\"bpmn2:tFormalExpression\"")
+                    .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">").append(id)
+                    .append("_TaskNameInputX</bpmn2:to></bpmn2:assignment>\n")
+                    .append("      </bpmn2:dataInputAssociation>\n")
+                    .append("    </bpmn2:userTask>\n");
+        }
+        ids.add("end");
+        xml.append("    <bpmn2:endEvent id=\"end\" name=\"End\"/>\n");
+        for (int i = 0; i < ids.size() - 1; i++) {
+            xml.append("    <bpmn2:sequenceFlow id=\"flow_").append(i).append("\" sourceRef=\"").append(ids.get(i))
+                    .append("\" targetRef=\"").append(ids.get(i + 1)).append("\"/>\n");
+        }
+        xml.append("  </bpmn2:process>\n");
+
+        double offset = variant != 0 ? 12.5 : 0;
+        xml.append("  <bpmndi:BPMNDiagram><bpmndi:BPMNPlane bpmnElement=\"synthetic\">\n");
+        for (int i = 0; i < ids.size(); i++) {
+            xml.append("    <bpmndi:BPMNShape id=\"shape_").append(ids.get(i)).append("\" bpmnElement=\"").append(ids.get(i))
+                    .append("\"><dc:Bounds x=\"").append(i % 100 * 150 + offset).append("\" y=\"").append(i / 100 * 120)
+                    .append("\" width=\"100\" height=\"80\"/></bpmndi:BPMNShape>\n");
+        }
+        for (int i = 0; i < ids.size() - 1; i++) {
+            xml.append("    <bpmndi:BPMNEdge id=\"edge_").append(i).append("\" bpmnElement=\"flow_").append(i).append("\">")
+                    .append("<di:waypoint x=\"").append(i % 100 * 150 + 100).append("\" y=\"").append(i / 100 * 120 + 40).append("\"/>")
+                    .append("<di:waypoint x=\"").append((i + 1) % 100 * 150).append("\" y=\"").append((i + 1) / 100 * 120 + 40).append("\"/>")
+                    .append("</bpmndi:BPMNEdge>\n");
+        }
+        xml.append("  </bpmndi:BPMNPlane></bpmndi:BPMNDiagram>\n")
+                .append("</bpmn2:definitions>\n");
+        return xml.toString();
+    }
+
+    /**
+     * Catalogue de {@code count} processus aux noms, versions, types et statuts variés (graine fixe)
+     */
+    public static List<ProcessDTO> processes(int count) {
+        Random random = new Random(42);
+        DeploymentStatus[] statuses = DeploymentStatus.values();
+        ProcessType[] types = ProcessType.values();
+        List<ProcessDTO> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " "
+                    + NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " " + i;
+            ProcessDTO process = new ProcessDTO("process_" + i, name,
+                    (1 + random.nextInt(5)) + "." + random.nextInt(10) + "." + random.nextInt(10));
+            process.setType(types[random.nextInt(types.length)]);
+            process.setDeploymentStatus(statuses[random.nextInt(statuses.length)]);
+            processes.add(process);
+        }
+        return processes;
+    }
+}
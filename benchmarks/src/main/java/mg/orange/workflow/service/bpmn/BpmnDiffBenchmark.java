@@ -0,0 +1,79 @@
+package mg.orange.workflow.service.bpmn;
+
+import mg.orange.workflow.benchmarks.Fixtures;
+import mg.orange.workflow.model.bpmn.BpmnDiffResult;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparaison de versions : diff structurel ({@link BpmnDiffEngine}, sans mémorisation)
+ * et delta XML de stockage ({@link XmlDelta})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BpmnDiffBenchmark {
+
+    @Param({"1000", "10000"})
+    int nodes;
+
+    private BpmnDiffEngine diffEngine;
+    private BpmnParseResult fromModel;
+    private BpmnParseResult toModel;
+    private List<String> fromTokens;
+    private List<String> toTokens;
+    private XmlDelta delta;
+
+    @Setup
+    public void setUp() throws IOException {
+        BpmnStreamingParser parser = new BpmnStreamingParser();
+        parser.maxSizeBytes = Long.MAX_VALUE;
+        diffEngine = new BpmnDiffEngine();
+        diffEngine.cacheMaxSize = 1;
+        diffEngine.init();
+
+        String from = Fixtures.syntheticProcess(nodes, 0);
+        String to = Fixtures.syntheticProcess(nodes, 1);
+        fromModel = parser.parse(from);
+        toModel = parser.parse(to);
+        // Sans empreinte, le diff n'est pas mémorisé : chaque appel mesure la comparaison complète
+        fromModel.setContentHash(null);
+        toModel.setContentHash(null);
+
+        fromTokens = XmlDelta.tokenize(from);
+        toTokens = XmlDelta.tokenize(to);
+        delta = XmlDelta.diff(fromTokens, toTokens);
+    }
+
+    @Benchmark
+    public BpmnDiffResult structuralDiff() {
+        return diffEngine.diff(fromModel, toModel);
+    }
+
+    @Benchmark
+    public XmlDelta xmlDelta() {
+        return XmlDelta.diff(fromTokens, toTokens);
+    }
+
+    @Benchmark
+    public List<String> xmlDeltaApply() {
+        return delta.apply(fromTokens);
+    }
+}
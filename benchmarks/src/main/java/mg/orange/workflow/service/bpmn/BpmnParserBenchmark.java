@@ -0,0 +1,55 @@
+package mg.orange.workflow.service.bpmn;
+
+import mg.orange.workflow.benchmarks.Fixtures;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse en une passe (validation, nœuds, diagramme, empreinte) des BPMN de l'application
+ * et d'un processus synthétique de 10 000 nœuds
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BpmnParserBenchmark {
+
+    @Param({"hiring.bpmn", "approval.bpmn", Fixtures.SYNTHETIC_10K})
+    String fixture;
+
+    private BpmnStreamingParser parser;
+    private byte[] content;
+
+    @Setup
+    public void setUp() {
+        parser = new BpmnStreamingParser();
+        parser.maxSizeBytes = Long.MAX_VALUE;
+        content = Fixtures.bpmn(fixture);
+    }
+
+    @Benchmark
+    public BpmnParseResult parse() throws IOException {
+        return parser.parse(new ByteArrayInputStream(content));
+    }
+
+    @Benchmark
+    public BpmnParseResult parseWithoutRules() throws IOException {
+        return parser.parse(new ByteArrayInputStream(content), null, result -> { });
+    }
+}
@@ -0,0 +1,70 @@
+package mg.orange.workflow.service.bpmn;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mg.orange.workflow.benchmarks.Fixtures;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction du {@link DiagramInfoDTO} et sérialisation de la réponse de {@code /{processId}/diagram}
+ * (forme objet Jackson, tableau JSON compact et binaire)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiagramSerializationBenchmark {
+
+    @Param({"hiring.bpmn", "approval.bpmn", Fixtures.SYNTHETIC_10K})
+    String fixture;
+
+    private BpmnStreamingParser parser;
+    private ObjectMapper objectMapper;
+    private byte[] content;
+    private DiagramInfoDTO diagram;
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = new BpmnStreamingParser();
+        parser.maxSizeBytes = Long.MAX_VALUE;
+        objectMapper = new ObjectMapper();
+        content = Fixtures.bpmn(fixture);
+        diagram = parser.parse(new ByteArrayInputStream(content)).getDiagram();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(diagram);
+    }
+
+    @Benchmark
+    public byte[] serializePackedJson() throws IOException {
+        return objectMapper.writeValueAsBytes(DiagramCodec.toCompact(diagram));
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return DiagramCodec.toBinary(DiagramCodec.toCompact(diagram));
+    }
+
+    @Benchmark
+    public byte[] extractAndSerialize() throws IOException {
+        return objectMapper.writeValueAsBytes(parser.parse(new ByteArrayInputStream(content)).getDiagram());
+    }
+}
@@ -0,0 +1,80 @@
+package mg.orange.workflow.service.process;
+
+import mg.orange.workflow.benchmarks.Fixtures;
+import mg.orange.workflow.model.process.ProcessDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtrage, tri et pagination de {@code listProcesses} sur 10 000 et 100 000 définitions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessCatalogBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    int definitions;
+
+    private List<ProcessDTO> processes;
+    private ProcessCatalogIndex index;
+    private String deepCursor;
+
+    @Setup
+    public void setUp() {
+        processes = Fixtures.processes(definitions);
+        index = new ProcessCatalogIndex();
+        index.replaceAll(processes);
+        ProcessCatalogIndex.Page middle = index.find(null, "name", "asc", null, definitions / 2, PAGE_SIZE, false);
+        deepCursor = middle.getNext();
+    }
+
+    @Benchmark
+    public ProcessCatalogIndex.Page firstPageByName() {
+        return index.find(null, "name", "asc", null, 0, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public ProcessCatalogIndex.Page filterByName() {
+        return index.find("approv", "name", "asc", null, 0, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public ProcessCatalogIndex.Page filterSortedByStatusDesc() {
+        return index.find("hiring", "status", "desc", null, 0, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public ProcessCatalogIndex.Page deepPageByOffset() {
+        return index.find(null, "version", "desc", null, definitions / 2, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public ProcessCatalogIndex.Page deepPageByCursor() {
+        return index.find(null, "name", "asc", deepCursor, 0, PAGE_SIZE, false);
+    }
+
+    @Benchmark
+    public int rebuildIndex() {
+        ProcessCatalogIndex rebuilt = new ProcessCatalogIndex();
+        rebuilt.replaceAll(processes);
+        return rebuilt.size();
+    }
+}
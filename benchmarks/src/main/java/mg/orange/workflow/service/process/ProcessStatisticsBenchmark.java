@@ -0,0 +1,84 @@
+package mg.orange.workflow.service.process;
+
+import mg.orange.workflow.benchmarks.Fixtures;
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.model.process.ProcessDTO;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.model.process.ProcessStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Agrégation de {@link ProcessStatistics} : reconstruction complète, application d'un événement
+ * et lecture de l'instantané (avec et sans modification intermédiaire)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessStatisticsBenchmark {
+
+    @Param({"10000", "100000"})
+    int definitions;
+
+    private List<ProcessDTO> processes;
+    private Map<String, Integer> taskCounts;
+    private ProcessStatisticsAggregator aggregator;
+    private ProcessLifecycleEvent deployed;
+    private ProcessLifecycleEvent undeployed;
+
+    @Setup
+    public void setUp() {
+        processes = Fixtures.processes(definitions);
+        taskCounts = processes.stream().collect(Collectors.toMap(ProcessDTO::getId, p -> p.getId().length() % 7));
+        aggregator = new ProcessStatisticsAggregator();
+        aggregator.rebuild(processes, taskCounts);
+        deployed = ProcessLifecycleEvent.statusChanged(ProcessLifecycleEvent.Type.DEPLOYED, "process_0",
+                DeploymentStatus.VALIDE, DeploymentStatus.DEPLOYE);
+        undeployed = ProcessLifecycleEvent.statusChanged(ProcessLifecycleEvent.Type.UNDEPLOYED, "process_0",
+                DeploymentStatus.DEPLOYE, DeploymentStatus.VALIDE);
+    }
+
+    @Benchmark
+    public ProcessStatistics rebuildAndSnapshot() {
+        ProcessStatisticsAggregator rebuilt = new ProcessStatisticsAggregator();
+        rebuilt.rebuild(processes, taskCounts);
+        return rebuilt.getSnapshot();
+    }
+
+    @Benchmark
+    public ProcessStatistics cachedSnapshot() {
+        return aggregator.getSnapshot();
+    }
+
+    @Benchmark
+    public ProcessStatistics recordAndSnapshot() {
+        aggregator.record(deployed);
+        aggregator.record(undeployed);
+        return aggregator.getSnapshot();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordConcurrently() {
+        aggregator.record(deployed);
+        aggregator.record(undeployed);
+    }
+}
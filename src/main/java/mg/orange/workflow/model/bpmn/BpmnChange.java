@@ -0,0 +1,46 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changement structurel détecté entre deux versions d'un BPMN
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BpmnChange {
+
+    /**
+     * Nature de l'élément modifié
+     */
+    public enum ElementType {
+        PROCESS, NODE, SEQUENCE_FLOW, DATA_INPUT, SHAPE, EDGE
+    }
+
+    /**
+     * Nature du changement
+     */
+    public enum Kind {
+        ADDED, REMOVED, MODIFIED, ID_CHANGED
+    }
+
+    private ElementType elementType;
+    private Kind kind;
+
+    /**
+     * Identifiant de l'élément (dans la version cible, ou dans la version source s'il a été supprimé)
+     */
+    private String elementId;
+
+    /**
+     * Description lisible du changement
+     */
+    private String description;
+
+    /**
+     * Impact du changement sur la version sémantique
+     */
+    private VersionChangeType impact;
+}
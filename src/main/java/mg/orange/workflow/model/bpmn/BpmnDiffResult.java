@@ -0,0 +1,50 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Résultat de la comparaison structurelle de deux BPMN
+ */
+@Data
+@NoArgsConstructor
+public class BpmnDiffResult {
+
+    private String fromVersion;
+    private String toVersion;
+    private String fromContentHash;
+    private String toContentHash;
+
+    /**
+     * Liste typée des changements détectés
+     */
+    private List<BpmnChange> changes = new ArrayList<>();
+
+    /**
+     * Type de changement de version déduit de la liste des changements
+     */
+    private VersionChangeType changeType;
+
+    /**
+     * Nombre de changements par nature d'élément
+     */
+    public Map<BpmnChange.ElementType, Long> getChangeCounts() {
+        Map<BpmnChange.ElementType, Long> counts = new EnumMap<>(BpmnChange.ElementType.class);
+        for (BpmnChange change : changes) {
+            counts.merge(change.getElementType(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Indique si les deux versions sont structurellement identiques
+     */
+    public boolean isIdentical() {
+        return changes.isEmpty();
+    }
+}
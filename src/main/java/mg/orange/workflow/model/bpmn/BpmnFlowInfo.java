@@ -0,0 +1,19 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flux de séquence (sequenceFlow) entre deux nœuds BPMN
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BpmnFlowInfo {
+
+    private String id;
+    private String name;
+    private String sourceRef;
+    private String targetRef;
+}
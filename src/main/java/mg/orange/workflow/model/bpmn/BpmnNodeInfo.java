@@ -0,0 +1,78 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nœud BPMN (activité, événement, gateway) extrait lors de l'analyse d'un fichier BPMN
+ */
+@Data
+@NoArgsConstructor
+public class BpmnNodeInfo {
+
+    /**
+     * Identifiant BPMN du nœud
+     */
+    private String id;
+
+    /**
+     * Nom du nœud (attribut name)
+     */
+    private String name;
+
+    /**
+     * Type BPMN du nœud (nom local de l'élément : userTask, scriptTask, exclusiveGateway...)
+     */
+    private String type;
+
+    /**
+     * Nom de tâche humaine (entrée TaskName), uniquement pour les userTask
+     */
+    private String taskName;
+
+    /**
+     * Nœud auquel est rattaché un événement de bordure
+     */
+    private String attachedToRef;
+
+    /**
+     * Groupes assignés (entrée GroupId)
+     */
+    private List<String> groups = new ArrayList<>();
+
+    /**
+     * Acteurs assignés (entrée ActorId ou potentialOwner)
+     */
+    private List<String> actors = new ArrayList<>();
+
+    /**
+     * Noms des entrées de données déclarées dans l'ioSpecification
+     */
+    private List<String> dataInputs = new ArrayList<>();
+
+    /**
+     * Identifiants des flux entrants
+     */
+    private List<String> incoming = new ArrayList<>();
+
+    /**
+     * Identifiants des flux sortants
+     */
+    private List<String> outgoing = new ArrayList<>();
+
+    public BpmnNodeInfo(String id, String name, String type) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Indique si le nœud est une tâche (activité)
+     */
+    public boolean isTask() {
+        return type != null && (type.endsWith("Task") || "task".equals(type));
+    }
+}
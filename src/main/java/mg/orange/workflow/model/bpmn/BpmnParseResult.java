@@ -0,0 +1,98 @@
+package mg.orange.workflow.model.bpmn;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Résultat de l'analyse en une seule passe d'un fichier BPMN :
+ * validation, nœuds/tâches, flux, diagramme et empreinte du contenu
+ */
+@Data
+@NoArgsConstructor
+public class BpmnParseResult {
+
+    /**
+     * Identifiant du processus (attribut id de bpmn2:process)
+     */
+    private String processId;
+
+    /**
+     * Nom du processus
+     */
+    private String processName;
+
+    /**
+     * Version déclarée dans le BPMN (drools:version)
+     */
+    private String processVersion;
+
+    /**
+     * Package déclaré dans le BPMN (drools:packageName)
+     */
+    private String packageName;
+
+    /**
+     * Empreinte SHA-256 (hexadécimal) du contenu brut du fichier
+     */
+    private String contentHash;
+
+    /**
+     * Taille du contenu lu (en octets)
+     */
+    private long sizeBytes;
+
+    /**
+     * Erreurs bloquantes de validation
+     */
+    private List<String> errors = new ArrayList<>();
+
+    /**
+     * Avertissements non bloquants
+     */
+    private List<String> warnings = new ArrayList<>();
+
+    /**
+     * Nœuds du processus dans l'ordre du document
+     */
+    private List<BpmnNodeInfo> nodes = new ArrayList<>();
+
+    /**
+     * Flux de séquence du processus
+     */
+    private List<BpmnFlowInfo> flows = new ArrayList<>();
+
+    /**
+     * Informations de layout du diagramme
+     */
+    private DiagramInfoDTO diagram;
+
+    /**
+     * Identifiants de tous les éléments du modèle (nœuds, flux, couloirs, participants, annotations...),
+     * hors éléments du diagramme BPMNDI
+     */
+    @JsonIgnore
+    private Set<String> elementIds = new HashSet<>();
+
+    /**
+     * Indique si le BPMN est valide (aucune erreur bloquante)
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Retourne uniquement les nœuds de type tâche
+     */
+    @JsonIgnore
+    public List<BpmnNodeInfo> getTasks() {
+        return nodes.stream().filter(BpmnNodeInfo::isTask).collect(Collectors.toList());
+    }
+}
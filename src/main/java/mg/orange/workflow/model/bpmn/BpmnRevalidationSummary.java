@@ -0,0 +1,36 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan de la revalidation de tous les fichiers BPMN connus
+ */
+@Data
+@NoArgsConstructor
+public class BpmnRevalidationSummary {
+
+    private int total;
+    private int valid;
+    private int invalid;
+
+    /**
+     * Fichiers dont le résultat a été repris du cache (contenu inchangé)
+     */
+    private int cached;
+
+    /**
+     * Nombre de processus dont le statut VALIDE/INVALIDE a changé
+     */
+    private int statusChanges;
+
+    /**
+     * Durée totale (en millisecondes)
+     */
+    private long durationMs;
+
+    private List<BpmnValidationReport> reports = new ArrayList<>();
+}
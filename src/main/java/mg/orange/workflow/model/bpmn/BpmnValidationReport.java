@@ -0,0 +1,41 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat de validation d'un fichier BPMN
+ */
+@Data
+@NoArgsConstructor
+public class BpmnValidationReport {
+
+    /**
+     * Nom du fichier validé (null pour un contenu transmis directement)
+     */
+    private String fileName;
+
+    private String processId;
+
+    /**
+     * Empreinte SHA-256 du contenu validé
+     */
+    private String contentHash;
+
+    private boolean valid;
+    private List<String> errors = new ArrayList<>();
+    private List<String> warnings = new ArrayList<>();
+
+    /**
+     * Indique si le résultat provient du cache (contenu inchangé depuis la dernière validation)
+     */
+    private boolean cached;
+
+    /**
+     * Durée de la validation (en millisecondes)
+     */
+    private long durationMs;
+}
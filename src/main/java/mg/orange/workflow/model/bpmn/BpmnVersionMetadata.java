@@ -0,0 +1,54 @@
+package mg.orange.workflow.model.bpmn;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métadonnées d'une version BPMN (sans le contenu XML), utilisées pour l'historique des versions
+ */
+@Data
+@NoArgsConstructor
+public class BpmnVersionMetadata {
+
+    private String processId;
+
+    /**
+     * Version sémantique (format X.Y.Z)
+     */
+    private String versionSemver;
+
+    private VersionChangeType changeType;
+
+    private String createdBy;
+
+    private String changeComment;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Empreinte SHA-256 du contenu BPMN de la version
+     */
+    private String contentHash;
+
+    /**
+     * Taille du contenu BPMN reconstruit (en octets)
+     */
+    private long sizeBytes;
+
+    /**
+     * Taille occupée dans le stockage (instantané compressé ou delta)
+     */
+    private long storedBytes;
+
+    /**
+     * Indique si la version est stockée comme instantané complet (sinon comme delta)
+     */
+    private boolean snapshot;
+
+    /**
+     * Indique si la version est active
+     */
+    private boolean active;
+}
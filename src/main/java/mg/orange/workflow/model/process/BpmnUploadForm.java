@@ -20,6 +20,14 @@ public class BpmnUploadForm {
     @PartType(MediaType.TEXT_PLAIN)
     private Boolean overwrite;
 
+    @FormParam("createdBy")
+    @PartType(MediaType.TEXT_PLAIN)
+    private String createdBy;
+
+    @FormParam("changeComment")
+    @PartType(MediaType.TEXT_PLAIN)
+    private String changeComment;
+
     // Getters et setters
     public InputStream getFile() {
         return file;
@@ -44,4 +52,20 @@ public class BpmnUploadForm {
     public void setOverwrite(Boolean overwrite) {
         this.overwrite = overwrite;
     }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public String getChangeComment() {
+        return changeComment;
+    }
+
+    public void setChangeComment(String changeComment) {
+        this.changeComment = changeComment;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package mg.orange.workflow.model.process;
+
+/**
+ * Opération applicable en masse à une liste de processus
+ */
+public enum BulkOperation {
+    VALIDATE,
+    DEPLOY,
+    UNDEPLOY,
+    DELETE
+}
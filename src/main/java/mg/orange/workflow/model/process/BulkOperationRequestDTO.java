@@ -0,0 +1,58 @@
+package mg.orange.workflow.model.process;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * DTO pour l'exécution d'une opération sur plusieurs processus en un seul appel
+ */
+public class BulkOperationRequestDTO {
+
+    @NotEmpty(message = "Au moins un processus est requis")
+    private List<String> processIds;
+
+    @NotNull(message = "L'opération est requise")
+    private BulkOperation operation;
+
+    /**
+     * Nombre maximal d'opérations exécutées en parallèle (borné par la configuration)
+     */
+    @Min(value = 1, message = "La concurrence doit être au moins 1")
+    private Integer concurrency;
+
+    public BulkOperationRequestDTO() {
+    }
+
+    public BulkOperationRequestDTO(List<String> processIds, BulkOperation operation, Integer concurrency) {
+        this.processIds = processIds;
+        this.operation = operation;
+        this.concurrency = concurrency;
+    }
+
+    public List<String> getProcessIds() {
+        return processIds;
+    }
+
+    public void setProcessIds(List<String> processIds) {
+        this.processIds = processIds;
+    }
+
+    public BulkOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(BulkOperation operation) {
+        this.operation = operation;
+    }
+
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+}
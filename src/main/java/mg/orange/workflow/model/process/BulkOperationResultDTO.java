@@ -0,0 +1,30 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'une opération en masse pour un processus (une ligne NDJSON)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResultDTO {
+
+    private String processId;
+    private BulkOperation operation;
+    private boolean success;
+
+    /**
+     * Statut de déploiement résultant (validation uniquement)
+     */
+    private DeploymentStatus status;
+
+    private String message;
+
+    /**
+     * Durée de l'opération (en millisecondes)
+     */
+    private long durationMs;
+}
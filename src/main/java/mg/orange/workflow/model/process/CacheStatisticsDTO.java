@@ -0,0 +1,22 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Métriques d'un cache applicatif (succès, échecs, évictions)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatisticsDTO {
+
+    private String name;
+    private long size;
+    private long maxSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private double hitRate;
+}
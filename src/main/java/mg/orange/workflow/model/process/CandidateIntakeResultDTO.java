@@ -0,0 +1,26 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat du démarrage d'une instance hiring pour un candidat importé en masse (une ligne NDJSON)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateIntakeResultDTO {
+
+    /**
+     * Position du candidat dans le flux reçu (à partir de 0)
+     */
+    private long index;
+
+    /**
+     * Identifiant de l'instance démarrée (absent en cas d'échec)
+     */
+    private String processInstanceId;
+
+    private String error;
+}
@@ -0,0 +1,77 @@
+package mg.orange.workflow.model.process;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Représentation compacte (en colonnes) d'un {@link DiagramInfoDTO}.
+ * <p>
+ * Les identifiants d'éléments sont regroupés dans une table de chaînes et référencés par leur indice ;
+ * les coordonnées sont stockées dans des tableaux de {@code double} à plat. En JSON, l'objet est sérialisé
+ * sous forme de tableau positionnel (ordre de {@link JsonPropertyOrder}) :
+ * {@code [version, strings, shapeIds, shapeBounds, edgeIds, edgeSources, edgeTargets, waypointOffsets, waypoints]}.
+ */
+@Data
+@NoArgsConstructor
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"version", "strings", "shapeIds", "shapeBounds", "edgeIds", "edgeSources", "edgeTargets",
+        "waypointOffsets", "waypoints"})
+public class CompactDiagramDTO {
+
+    /**
+     * Type de contenu de la forme JSON compacte (tableau positionnel)
+     */
+    public static final String PACKED_JSON_TYPE = "application/vnd.bpmn-diagram.packed+json";
+
+    /**
+     * Type de contenu de la forme binaire (voir {@code DiagramCodec})
+     */
+    public static final String BINARY_TYPE = "application/vnd.bpmn-diagram";
+
+    public static final int CURRENT_VERSION = 1;
+
+    private int version = CURRENT_VERSION;
+
+    /**
+     * Table des chaînes : identifiants des formes, des connexions et de leurs extrémités
+     */
+    private String[] strings;
+
+    /**
+     * Indice dans {@link #strings} de l'élément de chaque forme
+     */
+    private int[] shapeIds;
+
+    /**
+     * Bornes des formes à plat : x, y, largeur, hauteur (4 valeurs par forme)
+     */
+    private double[] shapeBounds;
+
+    /**
+     * Indice dans {@link #strings} de l'élément de chaque connexion
+     */
+    private int[] edgeIds;
+
+    /**
+     * Indice de la source de chaque connexion (-1 si inconnue)
+     */
+    private int[] edgeSources;
+
+    /**
+     * Indice de la cible de chaque connexion (-1 si inconnue)
+     */
+    private int[] edgeTargets;
+
+    /**
+     * Début des points de passage de chaque connexion dans {@link #waypoints} (en nombre de points) ;
+     * contient une entrée de plus que le nombre de connexions
+     */
+    private int[] waypointOffsets;
+
+    /**
+     * Points de passage à plat : x, y (2 valeurs par point)
+     */
+    private double[] waypoints;
+}
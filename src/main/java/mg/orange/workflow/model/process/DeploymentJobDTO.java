@@ -0,0 +1,64 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * État d'un job de déploiement asynchrone
+ */
+@Data
+@NoArgsConstructor
+public class DeploymentJobDTO {
+
+    /**
+     * État global du job
+     */
+    public enum JobStatus {
+        PENDING, RUNNING, COMPLETED, PARTIALLY_FAILED, FAILED
+    }
+
+    /**
+     * État d'un processus dans le job
+     */
+    public enum ItemStatus {
+        PENDING, RUNNING, SUCCEEDED, FAILED,
+        /**
+         * Remplacé, encore en attente, par une opération inverse soumise ensuite sur le même processus
+         */
+        COALESCED
+    }
+
+    /**
+     * Résultat pour un processus du job
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String processId;
+        private ItemStatus status;
+        private String message;
+    }
+
+    private String jobId;
+    private DeploymentOperation operation;
+    private JobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int coalesced;
+    private List<Item> items;
+
+    /**
+     * Progression du job en pourcentage
+     */
+    public int getProgress() {
+        return total == 0 ? 100 : (succeeded + failed + coalesced) * 100 / total;
+    }
+}
@@ -0,0 +1,42 @@
+package mg.orange.workflow.model.process;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * DTO pour la soumission d'un job de déploiement asynchrone (un ou plusieurs processus)
+ */
+public class DeploymentJobRequestDTO {
+
+    @NotEmpty(message = "Au moins un processus est requis")
+    private List<String> processIds;
+
+    @NotNull(message = "L'opération est requise")
+    private DeploymentOperation operation;
+
+    public DeploymentJobRequestDTO() {
+    }
+
+    public DeploymentJobRequestDTO(List<String> processIds, DeploymentOperation operation) {
+        this.processIds = processIds;
+        this.operation = operation;
+    }
+
+    public List<String> getProcessIds() {
+        return processIds;
+    }
+
+    public void setProcessIds(List<String> processIds) {
+        this.processIds = processIds;
+    }
+
+    public DeploymentOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(DeploymentOperation operation) {
+        this.operation = operation;
+    }
+}
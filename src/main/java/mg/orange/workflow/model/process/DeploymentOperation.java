@@ -0,0 +1,26 @@
+package mg.orange.workflow.model.process;
+
+/**
+ * Opération de déploiement applicable à un processus BPMN
+ */
+public enum DeploymentOperation {
+    DEPLOY("Déploiement"),
+    UNDEPLOY("Retrait du déploiement");
+
+    private final String label;
+
+    DeploymentOperation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Opération inverse
+     */
+    public DeploymentOperation opposite() {
+        return this == DEPLOY ? UNDEPLOY : DEPLOY;
+    }
+}
@@ -0,0 +1,16 @@
+package mg.orange.workflow.model.process;
+
+/**
+ * Types de contenu des représentations de diagramme partagés par les ressources et les services
+ * (les formes compactes sont déclarées sur {@link CompactDiagramDTO})
+ */
+public final class DiagramMediaTypes {
+
+    /**
+     * SVG d'un processus ou d'une instance
+     */
+    public static final String SVG_TYPE = "image/svg+xml";
+
+    private DiagramMediaTypes() {
+    }
+}
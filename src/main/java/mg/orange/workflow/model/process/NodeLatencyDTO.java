@@ -0,0 +1,57 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Latences d'exécution par nœud des instances échantillonnées d'un processus (entrée → sortie du nœud)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeLatencyDTO {
+
+    private String processId;
+
+    /**
+     * Taux d'échantillonnage des instances appliqué (0 à 1)
+     */
+    private double sampleRate;
+
+    /**
+     * Début de la collecte (démarrage de l'application)
+     */
+    private LocalDateTime since;
+
+    /**
+     * Nœuds triés par temps cumulé décroissant
+     */
+    private List<NodeLatency> nodes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NodeLatency {
+        private String nodeId;
+        private String nodeName;
+        private String nodeType;
+
+        /**
+         * Nœud d'attente (tâche utilisateur, timer, événement) : la durée inclut l'attente hors moteur
+         */
+        private boolean waitState;
+
+        private long count;
+        private double totalMillis;
+        private double meanMillis;
+        private double minMillis;
+        private double p50Millis;
+        private double p90Millis;
+        private double p99Millis;
+        private double maxMillis;
+    }
+}
@@ -0,0 +1,71 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement du cycle de vie d'un processus poussé aux clients du flux d'événements (SSE).
+ * <p>
+ * Plusieurs changements d'un même processus survenus avant l'envoi sont fusionnés : le type, la version
+ * et le nouveau statut sont ceux du dernier changement, {@code previousStatus} celui d'avant le premier
+ * changement de statut.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessChangeEventDTO {
+
+    /**
+     * Nom de l'événement SSE des changements de processus
+     */
+    public static final String LIFECYCLE = "lifecycle";
+
+    /**
+     * Nom de l'événement SSE des variations de statistiques
+     */
+    public static final String STATISTICS = "statistics";
+
+    /**
+     * Nom de l'événement SSE demandant au client de recharger son état (changements perdus)
+     */
+    public static final String RESYNC = "resync";
+
+    private ProcessLifecycleEvent.Type type;
+    private String processId;
+    private String version;
+    private DeploymentStatus previousStatus;
+    private DeploymentStatus newStatus;
+    private LocalDateTime timestamp;
+
+    /**
+     * Nombre de changements fusionnés dans cet événement
+     */
+    private int coalesced;
+
+    public static ProcessChangeEventDTO of(ProcessLifecycleEvent event) {
+        return new ProcessChangeEventDTO(event.getType(), event.getProcessId(), event.getVersion(),
+                event.getPreviousStatus(), event.getNewStatus(), event.getTimestamp(), 1);
+    }
+
+    /**
+     * Fusionne un changement plus récent du même processus dans cet événement
+     */
+    public void merge(ProcessChangeEventDTO next) {
+        type = next.type;
+        if (next.version != null) {
+            version = next.version;
+        }
+        if (newStatus == null) {
+            // premier changement de statut de la série
+            previousStatus = next.previousStatus;
+        }
+        if (next.newStatus != null) {
+            newStatus = next.newStatus;
+        }
+        timestamp = next.timestamp;
+        coalesced += next.coalesced;
+    }
+}
@@ -0,0 +1,137 @@
+package mg.orange.workflow.model.process;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement CDI émis à chaque changement du cycle de vie d'un processus BPMN
+ * (upload, suppression, nouvelle version, activation, déploiement, validation).
+ * Les caches et agrégats dérivés du BPMN l'observent pour se mettre à jour.
+ */
+public class ProcessLifecycleEvent {
+
+    /**
+     * Nature du changement
+     */
+    public enum Type {
+        UPLOADED,
+        DELETED,
+        VERSION_CREATED,
+        VERSION_ACTIVATED,
+        VERSION_DEACTIVATED,
+        DEPLOYED,
+        DEPLOYMENT_FAILED,
+        UNDEPLOYED,
+        VALIDATED,
+        STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final String processId;
+    private final String version;
+    private final String contentHash;
+    private final DeploymentStatus previousStatus;
+    private final DeploymentStatus newStatus;
+    private final ProcessType processType;
+    private final Integer taskCount;
+    private final LocalDateTime timestamp;
+
+    public ProcessLifecycleEvent(Type type, String processId, String version, String contentHash,
+                                 DeploymentStatus previousStatus, DeploymentStatus newStatus) {
+        this(type, processId, version, contentHash, previousStatus, newStatus, null, null);
+    }
+
+    public ProcessLifecycleEvent(Type type, String processId, String version, String contentHash,
+                                 DeploymentStatus previousStatus, DeploymentStatus newStatus,
+                                 ProcessType processType, Integer taskCount) {
+        this.type = type;
+        this.processId = processId;
+        this.version = version;
+        this.contentHash = contentHash;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.processType = processType;
+        this.taskCount = taskCount;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    /**
+     * Événement sans changement de statut (upload, suppression, version)
+     */
+    public static ProcessLifecycleEvent of(Type type, String processId, String version, String contentHash) {
+        return new ProcessLifecycleEvent(type, processId, version, contentHash, null, null);
+    }
+
+    /**
+     * Upload d'un fichier BPMN : {@code previousStatus} est null pour un nouveau processus,
+     * ou le statut du processus remplacé en cas d'écrasement
+     */
+    public static ProcessLifecycleEvent uploaded(String processId, String version, String contentHash,
+                                                 ProcessType processType, int taskCount,
+                                                 DeploymentStatus previousStatus, DeploymentStatus newStatus) {
+        return new ProcessLifecycleEvent(Type.UPLOADED, processId, version, contentHash,
+                previousStatus, newStatus, processType, taskCount);
+    }
+
+    /**
+     * Suppression d'un processus ayant le statut {@code previousStatus}
+     */
+    public static ProcessLifecycleEvent deleted(String processId, ProcessType processType,
+                                                DeploymentStatus previousStatus) {
+        return new ProcessLifecycleEvent(Type.DELETED, processId, null, null,
+                previousStatus, null, processType, null);
+    }
+
+    /**
+     * Événement de transition de {@link DeploymentStatus}
+     */
+    public static ProcessLifecycleEvent statusChanged(Type type, String processId,
+                                                      DeploymentStatus previousStatus, DeploymentStatus newStatus) {
+        return new ProcessLifecycleEvent(type, processId, null, null, previousStatus, newStatus);
+    }
+
+    /**
+     * Indique si l'événement modifie le contenu BPMN courant du processus
+     */
+    public boolean changesContent() {
+        return type == Type.UPLOADED || type == Type.DELETED
+                || type == Type.VERSION_CREATED || type == Type.VERSION_ACTIVATED
+                || type == Type.VERSION_DEACTIVATED;
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public DeploymentStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public DeploymentStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public ProcessType getProcessType() {
+        return processType;
+    }
+
+    public Integer getTaskCount() {
+        return taskCount;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
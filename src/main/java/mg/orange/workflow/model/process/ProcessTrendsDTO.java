@@ -0,0 +1,63 @@
+package mg.orange.workflow.model.process;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tendances d'activité des instances de processus, lues dans les tables d'agrégats
+ * (jamais directement dans le journal d'audit)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessTrendsDTO {
+
+    /**
+     * Premier jour inclus
+     */
+    private LocalDate from;
+
+    /**
+     * Dernier jour inclus (jour courant, partiel)
+     */
+    private LocalDate to;
+
+    /**
+     * Processus filtré (null pour tous les processus)
+     */
+    private String processId;
+
+    /**
+     * Activité jour par jour, jours sans activité inclus
+     */
+    private List<DailyTrend> days;
+
+    /**
+     * Événements des 24 dernières heures par heure ("HH:mm"), comme {@link ProcessStatistics#getHourlyStats()}
+     */
+    private Map<String, Long> hourlyStats;
+
+    /**
+     * Instant jusqu'auquel le journal d'audit a été agrégé (null si aucun agrégat n'a encore été calculé)
+     */
+    private LocalDateTime rolledUpTo;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyTrend {
+        private LocalDate date;
+        private long total;
+
+        /**
+         * Nombre d'événements par type (ACTIVE, COMPLETED, ABORTED, ERROR, SLA_VIOLATION...)
+         */
+        private Map<String, Long> byEventType;
+    }
+}
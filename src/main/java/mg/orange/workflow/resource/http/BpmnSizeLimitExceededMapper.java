@@ -0,0 +1,25 @@
+package mg.orange.workflow.resource.http;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import mg.orange.workflow.service.bpmn.BpmnSizeLimitExceededException;
+
+import java.util.Map;
+
+/**
+ * Réponse 413 pour un BPMN qui dépasse {@code workflow.bpmn.max-size-bytes}, quel que soit l'endpoint
+ * (upload, nouvelle version, validation de fichier)
+ */
+@Provider
+public class BpmnSizeLimitExceededMapper implements ExceptionMapper<BpmnSizeLimitExceededException> {
+
+    @Override
+    public Response toResponse(BpmnSizeLimitExceededException exception) {
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", exception.getMessage(), "maxSizeBytes", exception.getMaxSizeBytes()))
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package mg.orange.workflow.resource.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Active les requêtes conditionnelles (ETag, Last-Modified, 304) sur un endpoint GET en lecture seule.
+ * <p>
+ * Les validateurs proviennent de la révision du processus désigné par le paramètre de chemin
+ * {@code processId}, ou de celle du catalogue si l'endpoint n'en a pas. Une requête dont les validateurs
+ * sont à jour reçoit un 304 sans que la méthode de la ressource soit appelée.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    /**
+     * Durée (en secondes) pendant laquelle le client peut réutiliser la réponse sans la revalider ;
+     * 0 impose une revalidation à chaque requête ({@code no-cache})
+     */
+    int maxAge() default 0;
+}
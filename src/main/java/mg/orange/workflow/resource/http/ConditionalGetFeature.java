@@ -0,0 +1,187 @@
+package mg.orange.workflow.resource.http;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import mg.orange.workflow.service.process.ProcessRevisionTracker;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Enregistre un filtre de requêtes conditionnelles sur chaque méthode annotée {@link ConditionalGet}
+ * (l'annotation peut être portée par l'interface de la ressource), et un filtre qui fait avancer la révision
+ * après chaque requête d'écriture réussie (POST, PUT, PATCH, DELETE) de ces mêmes ressources.
+ */
+@Provider
+public class ConditionalGetFeature implements DynamicFeature {
+
+    private static final String VALIDATORS_PROPERTY = ConditionalGetFeature.class.getName() + ".validators";
+
+    @Inject
+    ProcessRevisionTracker revisionTracker;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        ConditionalGet conditionalGet = findAnnotation(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod());
+        if (conditionalGet != null) {
+            context.register(new ConditionalGetFilter(revisionTracker, cacheControl(conditionalGet.maxAge())));
+        } else if (isWrite(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod())
+                && hasConditionalGet(resourceInfo.getResourceClass())) {
+            context.register(new RevisionFilter(revisionTracker));
+        }
+    }
+
+    /**
+     * Indique si la méthode de ressource (ou la méthode de l'interface qu'elle implémente) modifie l'état
+     */
+    static boolean isWrite(Class<?> resourceClass, Method method) {
+        for (Method candidate : contracts(resourceClass, method)) {
+            for (Annotation annotation : candidate.getAnnotations()) {
+                HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+                if (httpMethod != null) {
+                    return !HttpMethod.GET.equals(httpMethod.value()) && !HttpMethod.HEAD.equals(httpMethod.value())
+                            && !HttpMethod.OPTIONS.equals(httpMethod.value());
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasConditionalGet(Class<?> resourceClass) {
+        for (Class<?> type = resourceClass; type != null; type = type.getSuperclass()) {
+            if (Arrays.stream(type.getMethods()).anyMatch(m -> m.isAnnotationPresent(ConditionalGet.class))) {
+                return true;
+            }
+            for (Class<?> contract : type.getInterfaces()) {
+                if (Arrays.stream(contract.getMethods()).anyMatch(m -> m.isAnnotationPresent(ConditionalGet.class))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * La méthode elle-même puis les méthodes de même signature des interfaces de la ressource
+     */
+    private static List<Method> contracts(Class<?> resourceClass, Method method) {
+        List<Method> methods = new ArrayList<>();
+        methods.add(method);
+        for (Class<?> type = resourceClass; type != null; type = type.getSuperclass()) {
+            for (Class<?> contract : type.getInterfaces()) {
+                try {
+                    methods.add(contract.getMethod(method.getName(), method.getParameterTypes()));
+                } catch (NoSuchMethodException e) {
+                    // méthode propre à l'implémentation
+                }
+            }
+        }
+        return methods;
+    }
+
+    static ConditionalGet findAnnotation(Class<?> resourceClass, Method method) {
+        return contracts(resourceClass, method).stream()
+                .map(candidate -> candidate.getAnnotation(ConditionalGet.class))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static CacheControl cacheControl(int maxAge) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoTransform(false);
+        cacheControl.setPrivate(true);
+        if (maxAge > 0) {
+            cacheControl.setMaxAge(maxAge);
+        } else {
+            cacheControl.setNoCache(true);
+        }
+        return cacheControl;
+    }
+
+    /**
+     * Évalue If-None-Match / If-Modified-Since avant l'appel de la ressource et ajoute
+     * les validateurs et le Cache-Control aux réponses 200
+     */
+    static final class ConditionalGetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+        private final ProcessRevisionTracker revisionTracker;
+        private final CacheControl cacheControl;
+
+        ConditionalGetFilter(ProcessRevisionTracker revisionTracker, CacheControl cacheControl) {
+            this.revisionTracker = revisionTracker;
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request) {
+            String method = request.getMethod();
+            if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+                return;
+            }
+            String processId = request.getUriInfo().getPathParameters().getFirst("processId");
+            ProcessRevisionTracker.Revision revision = processId != null
+                    ? revisionTracker.current(processId)
+                    : revisionTracker.catalog();
+            EntityTag etag = new EntityTag(revision.getTag());
+            Date lastModified = Date.from(revision.getLastModified());
+            request.setProperty(VALIDATORS_PROPERTY, new Object[]{etag, lastModified});
+
+            Response.ResponseBuilder notModified = request.getRequest().evaluatePreconditions(lastModified, etag);
+            if (notModified != null) {
+                request.abortWith(notModified.tag(etag).lastModified(lastModified).cacheControl(cacheControl).build());
+            }
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            Object[] validators = (Object[]) request.getProperty(VALIDATORS_PROPERTY);
+            if (validators == null || response.getStatus() != Response.Status.OK.getStatusCode()
+                    || response.getHeaders().containsKey(HttpHeaders.ETAG)) {
+                return;
+            }
+            response.getHeaders().putSingle(HttpHeaders.ETAG, validators[0]);
+            response.getHeaders().putSingle(HttpHeaders.LAST_MODIFIED, validators[1]);
+            if (!response.getHeaders().containsKey(HttpHeaders.CACHE_CONTROL)) {
+                response.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, cacheControl);
+            }
+        }
+    }
+
+    /**
+     * Nouvelle révision du processus du chemin (ou du seul catalogue) après une écriture réussie. Filet de
+     * sécurité pour les écritures qui n'émettent pas de {@code ProcessLifecycleEvent} ; les autres ont déjà
+     * fait avancer la révision par l'observateur du tracker, une révision de plus ne fait qu'invalider les caches.
+     */
+    static final class RevisionFilter implements ContainerResponseFilter {
+        private final ProcessRevisionTracker revisionTracker;
+
+        RevisionFilter(ProcessRevisionTracker revisionTracker) {
+            this.revisionTracker = revisionTracker;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                return;
+            }
+            revisionTracker.changed(request.getUriInfo().getPathParameters().getFirst("processId"), null);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package mg.orange.workflow.resource.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import mg.orange.workflow.service.metrics.WorkflowMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la durée de chaque méthode de ressource : timer {@code workflow.endpoint} (endpoint, statut HTTP)
+ * avec histogramme de percentiles, et {@code workflow.endpoint.process} (endpoint, processId) pour les
+ * chemins portant un {@code processId}.
+ */
+@Provider
+public class EndpointMetricsFeature implements DynamicFeature {
+
+    static final String ENDPOINT_TIMER = "workflow.endpoint";
+    static final String ENDPOINT_PROCESS_TIMER = "workflow.endpoint.process";
+    private static final String START_PROPERTY = EndpointMetricsFeature.class.getName() + ".start";
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    WorkflowMetrics metrics;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        if (resourceInfo.getResourceMethod() == null) {
+            return;
+        }
+        String endpoint = resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName();
+        context.register(new EndpointMetricsFilter(registry, metrics, endpoint));
+    }
+
+    /**
+     * Relève l'instant d'entrée avant l'appel de la ressource et enregistre la durée sur la réponse
+     */
+    static final class EndpointMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+        private final MeterRegistry registry;
+        private final WorkflowMetrics metrics;
+        private final String endpoint;
+
+        EndpointMetricsFilter(MeterRegistry registry, WorkflowMetrics metrics, String endpoint) {
+            this.registry = registry;
+            this.metrics = metrics;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request) {
+            request.setProperty(START_PROPERTY, System.nanoTime());
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            Object start = request.getProperty(START_PROPERTY);
+            if (!(start instanceof Long)) {
+                return;
+            }
+            long elapsed = System.nanoTime() - (Long) start;
+            Timer.builder(ENDPOINT_TIMER)
+                    .description("Durée des endpoints REST")
+                    .tag("endpoint", endpoint)
+                    .tag("status", Integer.toString(response.getStatus()))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+
+            String processId = request.getUriInfo().getPathParameters().getFirst("processId");
+            if (processId != null) {
+                Timer.builder(ENDPOINT_PROCESS_TIMER)
+                        .tag("endpoint", endpoint)
+                        .tag("processId", metrics.processTag(processId))
+                        .register(registry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mg.orange.workflow.resource.http;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import mg.orange.workflow.service.process.EventStreamSaturatedException;
+
+import java.util.Map;
+
+/**
+ * Réponse 503 lorsque le flux SSE des processus a atteint son nombre maximal de clients ; le client peut
+ * réessayer plus tard ou revenir à l'interrogation périodique
+ */
+@Provider
+public class EventStreamSaturatedMapper implements ExceptionMapper<EventStreamSaturatedException> {
+
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    @Override
+    public Response toResponse(EventStreamSaturatedException exception) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", exception.getMessage(), "maxClients", exception.getMaxClients()))
+                .build();
+    }
+}
@@ -1,9 +1,22 @@
 package mg.orange.workflow.resource.process;
 
+import mg.orange.workflow.model.bpmn.BpmnRevalidationSummary;
 import mg.orange.workflow.model.process.BpmnUploadForm;
+import mg.orange.workflow.model.process.BulkOperationRequestDTO;
+import mg.orange.workflow.model.process.BulkOperationResultDTO;
+import mg.orange.workflow.model.process.CacheStatisticsDTO;
+import mg.orange.workflow.model.process.CandidateIntakeResultDTO;
+import mg.orange.workflow.model.process.CompactDiagramDTO;
 import mg.orange.workflow.model.process.CreateVersionRequestDTO;
+import mg.orange.workflow.model.process.DeploymentJobDTO;
+import mg.orange.workflow.model.process.DeploymentJobRequestDTO;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import mg.orange.workflow.model.process.DiagramMediaTypes;
+import mg.orange.workflow.model.process.NodeLatencyDTO;
 import mg.orange.workflow.model.process.ProcessDTO;
 import mg.orange.workflow.model.process.ProcessStatistics;
+import mg.orange.workflow.model.process.ProcessTrendsDTO;
+import mg.orange.workflow.resource.http.ConditionalGet;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -13,9 +26,15 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
 
+import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.io.InputStream;
 import java.util.List;
 
 @Path("/api/processes")
@@ -24,13 +43,16 @@ import java.util.List;
 @Tag(name = "Process Management", description = "Gestion des définitions de processus Kogito")
 public interface ProcessResource {
 
+    @ConditionalGet
     @GET
     @Operation(summary = "Liste des processus", 
-               description = "Récupère la liste de tous les processus disponibles avec possibilité de filtrage")
+               description = "Récupère la liste de tous les processus disponibles avec possibilité de filtrage. "
+                           + "La pagination par curseur ('cursor'/'next') a un coût constant quelle que soit la page")
     @APIResponses({
         @APIResponse(responseCode = "200",
                      description = "Liste des processus récupérée avec succès",
                      content = @Content(schema = @Schema(implementation = ProcessListResponse.class))),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
     Response listProcesses(
@@ -47,10 +69,17 @@ public interface ProcessResource {
             @QueryParam("sort") String sortField,
 
             @Parameter(description = "Direction du tri (asc ou desc, défault: asc)")
-            @QueryParam("direction") @DefaultValue("asc") String sortDirection
+            @QueryParam("direction") @DefaultValue("asc") String sortDirection,
+
+            @Parameter(description = "Curseur opaque renvoyé dans 'next' par la page précédente (pagination keyset, remplace 'page')")
+            @QueryParam("cursor") String cursor,
+
+            @Parameter(description = "Calculer totalElements/totalPages (défaut: true)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     );
 
 
+    @ConditionalGet
     @GET
     @Path("/count")
     @Operation(summary = "Nombre de processus",
@@ -73,12 +102,20 @@ public interface ProcessResource {
     @GET
     @Path("/statistics/trends")
     @Operation(summary = "Tendances des processus",
-               description = "Retourne les statistiques de tendance sur les 7 derniers jours")
+               description = "Retourne l'activité des instances jour par jour (7 derniers jours par défaut) et heure par heure "
+                           + "sur 24h. Les valeurs proviennent des agrégats horaires/journaliers mis à jour en tâche de fond "
+                           + "(voir 'rolledUpTo'), jamais d'un parcours du journal d'audit")
     @APIResponses({
-        @APIResponse(responseCode = "200", description = "Tendances récupérées avec succès"),
+        @APIResponse(responseCode = "200", description = "Tendances récupérées avec succès",
+                     content = @Content(schema = @Schema(implementation = ProcessTrendsDTO.class))),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
-    Response getProcessTrends();
+    Response getProcessTrends(
+            @Parameter(description = "Nombre de jours, jour courant inclus (défaut: 7, maximum: workflow.trends.max-days)")
+            @QueryParam("days") @DefaultValue("7") int days,
+
+            @Parameter(description = "Limiter les tendances à un processus (optionnel)")
+            @QueryParam("processId") String processId);
 
     @GET
     @Path("/statistics/performance")
@@ -100,17 +137,55 @@ public interface ProcessResource {
     })
     Response getSystemHealth();
 
+    @GET
+    @Path("/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Flux des changements de processus",
+               description = "Flux SSE remplaçant l'interrogation périodique des statistiques et de la liste : "
+                           + "événements 'lifecycle' (upload, version, activation, déploiement, statut), "
+                           + "'statistics' (champs modifiés, le premier événement contient toutes les statistiques) "
+                           + "et 'resync' (changements perdus, recharger l'état)")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Flux d'événements ouvert"),
+        @APIResponse(responseCode = "503", description = "Nombre maximal de clients atteint")
+    })
+    void streamProcessEvents(
+            @Parameter(description = "Ne suivre que ce processus (optionnel)")
+            @QueryParam("processId") String processId,
+            @Context SseEventSink eventSink,
+            @Context Sse sse);
+
+    @GET
+    @Path("/cache/statistics")
+    @Operation(summary = "Statistiques du cache des modèles BPMN",
+               description = "Retourne les succès, échecs et évictions du cache des modèles de processus analysés")
+    @APIResponse(responseCode = "200", description = "Statistiques du cache",
+                 content = @Content(schema = @Schema(implementation = CacheStatisticsDTO.class)))
+    Response getProcessCacheStatistics();
+
+    @GET
+    @Path("/cache/decisions/statistics")
+    @Operation(summary = "Statistiques du cache des évaluations DMN",
+               description = "Retourne les succès, échecs et évictions du cache des résultats de décision "
+                           + "des tâches de règles métier (ex: NewHiringOffer)")
+    @APIResponse(responseCode = "200", description = "Statistiques du cache",
+                 content = @Content(schema = @Schema(implementation = CacheStatisticsDTO.class)))
+    Response getDecisionCacheStatistics();
+
+    @ConditionalGet
     @GET
     @Path("/{processId}")
     @Operation(summary = "Détail complet d'un processus",
                description = "Récupère les détails complets d'un processus (métadonnées, XML, tâches, nœuds, diagramme)")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Détails du processus récupérés avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
     Response getProcessDetail(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
 
+    @ConditionalGet(maxAge = 30)
     @GET
     @Path("/{processId}/definition")
     @Produces(MediaType.APPLICATION_XML)
@@ -118,6 +193,7 @@ public interface ProcessResource {
                description = "Récupère le contenu XML brut du fichier BPMN")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "XML BPMN récupéré avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus ou fichier BPMN non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
@@ -125,43 +201,102 @@ public interface ProcessResource {
 
     @GET
     @Path("/{processId}/diagram")
+    @Produces({MediaType.APPLICATION_JSON, CompactDiagramDTO.PACKED_JSON_TYPE, CompactDiagramDTO.BINARY_TYPE})
     @Operation(summary = "Informations du diagramme",
-               description = "Récupère les informations de layout du diagramme BPMN (coordonnées, shapes, edges)")
+               description = "Récupère les informations de layout du diagramme BPMN (coordonnées, shapes, edges). "
+                           + "Selon l'en-tête Accept, le diagramme est renvoyé sous forme objet (défaut), "
+                           + "en tableau JSON compact (" + CompactDiagramDTO.PACKED_JSON_TYPE + ") "
+                           + "ou en binaire (" + CompactDiagramDTO.BINARY_TYPE + ")")
     @APIResponses({
-        @APIResponse(responseCode = "200", description = "Informations du diagramme récupérées avec succès"),
+        @APIResponse(responseCode = "200", description = "Informations du diagramme récupérées avec succès",
+                     content = {
+                         @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = DiagramInfoDTO.class)),
+                         @Content(mediaType = CompactDiagramDTO.PACKED_JSON_TYPE, schema = @Schema(implementation = CompactDiagramDTO.class)),
+                         @Content(mediaType = CompactDiagramDTO.BINARY_TYPE)
+                     }),
+        @APIResponse(responseCode = "304", description = "Diagramme inchangé (If-None-Match)"),
         @APIResponse(responseCode = "404", description = "Processus non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
-    Response getProcessDiagram(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
+    Response getProcessDiagram(@Parameter(description = "ID du processus") @PathParam("processId") String processId,
+                               @Context HttpHeaders headers);
+
+    @GET
+    @Path("/{processId}/svg")
+    @Produces(DiagramMediaTypes.SVG_TYPE)
+    @Operation(summary = "SVG du processus",
+               description = "Retourne le SVG de la version active du processus, avec un ETag fort et une variante gzip pré-calculée")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "SVG du processus"),
+        @APIResponse(responseCode = "304", description = "SVG inchangé (If-None-Match)"),
+        @APIResponse(responseCode = "404", description = "Processus ou SVG non trouvé")
+    })
+    Response getProcessSvg(@Parameter(description = "ID du processus") @PathParam("processId") String processId,
+                           @Context HttpHeaders headers);
+
+    @GET
+    @Path("/{processId}/instances/{processInstanceId}/svg")
+    @Produces(DiagramMediaTypes.SVG_TYPE)
+    @Operation(summary = "SVG d'une instance de processus",
+               description = "Retourne le SVG du processus avec les nœuds actifs et terminés de l'instance mis en évidence. "
+                           + "L'ETag change avec l'avancement de l'instance")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "SVG de l'instance"),
+        @APIResponse(responseCode = "304", description = "Avancement inchangé (If-None-Match)"),
+        @APIResponse(responseCode = "404", description = "Processus, instance ou SVG non trouvé")
+    })
+    Response getProcessInstanceSvg(@Parameter(description = "ID du processus") @PathParam("processId") String processId,
+                                   @Parameter(description = "ID de l'instance") @PathParam("processInstanceId") String processInstanceId,
+                                   @Context HttpHeaders headers);
 
+    @ConditionalGet(maxAge = 30)
     @GET
     @Path("/{processId}/tasks")
     @Operation(summary = "Liste des tâches du processus",
                description = "Récupère la liste de toutes les tâches du processus")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Liste des tâches récupérée avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
     Response getProcessTasks(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
 
+    @ConditionalGet(maxAge = 30)
     @GET
     @Path("/{processId}/nodes")
     @Operation(summary = "Liste des nœuds du processus",
                description = "Récupère la liste de tous les nœuds (activités, events, gateways) du processus")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Liste des nœuds récupérée avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
     Response getProcessNodes(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
 
+    @GET
+    @Path("/{processId}/nodes/latency")
+    @Operation(summary = "Latences d'exécution par nœud",
+               description = "Retourne, pour chaque nœud du processus, la distribution des durées entrée → sortie "
+                           + "(p50, p90, p99, max, temps cumulé) mesurée sur les instances échantillonnées "
+                           + "(workflow.profiler.sample-rate). Les nœuds d'attente incluent le temps passé hors moteur")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Latences récupérées avec succès",
+                     content = @Content(schema = @Schema(implementation = NodeLatencyDTO.class))),
+        @APIResponse(responseCode = "404", description = "Aucune instance échantillonnée pour ce processus"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Response getProcessNodeLatencies(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
+
+    @ConditionalGet(maxAge = 30)
     @GET
     @Path("/{processId}/tasks/{taskId}/assigned-groups")
     @Operation(summary = "Groupes assignés à une tâche",
                description = "Récupère la liste des groupes assignés à une tâche spécifique d'un processus")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Liste des groupes récupérée avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
@@ -180,11 +315,14 @@ public interface ProcessResource {
         @Schema(description = "Taille de la page")
         public int size;
 
-        @Schema(description = "Nombre total d'éléments")
-        public int totalElements;
+        @Schema(description = "Nombre total d'éléments (absent si includeTotal=false)")
+        public Integer totalElements;
 
-        @Schema(description = "Nombre total de pages")
-        public int totalPages;
+        @Schema(description = "Nombre total de pages (absent si includeTotal=false)")
+        public Integer totalPages;
+
+        @Schema(description = "Curseur opaque de la page suivante (absent sur la dernière page)")
+        public String next;
 
         @Schema(description = "Indique si c'est la première page")
         public boolean first;
@@ -198,6 +336,21 @@ public interface ProcessResource {
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     Response validateBpmnFile(@MultipartForm BpmnUploadForm uploadForm);
 
+    @POST
+    @Path("/revalidate")
+    @Operation(summary = "Revalider tous les fichiers BPMN",
+               description = "Valide en parallèle tous les fichiers BPMN connus (ex: après une montée de version de Kogito) "
+                           + "et met à jour les statuts VALIDE/INVALIDE en une seule écriture. Les fichiers inchangés "
+                           + "depuis leur dernière validation sont repris du cache sauf si force=true")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Bilan de la revalidation",
+                     content = @Content(schema = @Schema(implementation = BpmnRevalidationSummary.class))),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Response revalidateAllProcesses(
+            @Parameter(description = "Ignorer le cache des résultats de validation")
+            @QueryParam("force") @DefaultValue("false") boolean force);
+
     @POST
     @Path("/upload")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -205,6 +358,7 @@ public interface ProcessResource {
     @APIResponses({
         @APIResponse(responseCode = "201", description = "Fichier BPMN uploadé avec succès"),
         @APIResponse(responseCode = "400", description = "Fichier invalide"),
+        @APIResponse(responseCode = "413", description = "Fichier BPMN trop volumineux"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
     Response uploadBpmn(@MultipartForm BpmnUploadForm form);
@@ -216,6 +370,7 @@ public interface ProcessResource {
     @Operation(summary = "Supprimer un BPMN")
     Response deleteBpmn(@PathParam("filename") String filename);
 
+    @ConditionalGet
     @GET
     @Path("/files")
     @Operation(summary = "Liste des fichiers BPMN")
@@ -240,12 +395,32 @@ public interface ProcessResource {
 
             CreateVersionRequestDTO request);
 
+    @POST
+    @Path("/{processId}/versions/upload")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Operation(summary = "Créer une nouvelle version BPMN à partir d'un fichier",
+               description = "Variante multipart de la création de version : le fichier est analysé en flux sans être chargé en mémoire")
+    @APIResponses({
+        @APIResponse(responseCode = "201", description = "Nouvelle version créée avec succès"),
+        @APIResponse(responseCode = "400", description = "Requête invalide ou erreurs dans le BPMN"),
+        @APIResponse(responseCode = "404", description = "Processus non trouvé"),
+        @APIResponse(responseCode = "413", description = "Fichier BPMN trop volumineux"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Response createNewVersionFromFile(
+            @Parameter(description = "ID du processus à versionner", required = true)
+            @PathParam("processId") String processId,
+
+            @MultipartForm BpmnUploadForm form);
+
+    @ConditionalGet
     @GET
     @Path("/{processId}/versions")
     @Operation(summary = "Historique complet des versions d'un processus",
                description = "Récupère l'historique complet des versions d'un processus BPMN classé par date décroissante")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Historique des versions récupéré avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus non trouvé"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
@@ -259,12 +434,14 @@ public interface ProcessResource {
             @Parameter(description = "Taille de la page (défaut: 20)")
             @QueryParam("size") @DefaultValue("20") int size);
 
+    @ConditionalGet
     @GET
     @Path("/{processId}/versions/{versionSemver}")
     @Operation(summary = "Détails d'une version spécifique",
                description = "Récupère les détails complets d'une version spécifique d'un processus BPMN")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Détails de la version récupérés avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "404", description = "Processus ou version non trouvée"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
@@ -309,12 +486,14 @@ public interface ProcessResource {
             @Parameter(description = "Version sémantique à désactiver (format X.Y.Z)", required = true)
             @PathParam("versionSemver") String versionSemver);
 
+    @ConditionalGet(maxAge = 300)
     @GET
     @Path("/{processId}/versions/compare")
     @Operation(summary = "Comparer deux versions",
                description = "Génère un résumé des changements entre deux versions d'un processus BPMN")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "Comparaison générée avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
         @APIResponse(responseCode = "400", description = "Versions invalides"),
         @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
@@ -355,6 +534,67 @@ public interface ProcessResource {
     })
     Response undeployProcess(@Parameter(description = "ID du processus à retirer du déploiement", required = true) @PathParam("processId") String processId);
 
+    @POST
+    @Path("/bulk")
+    @Produces("application/x-ndjson")
+    @Operation(summary = "Opération en masse sur plusieurs processus",
+               description = "Valide, déploie, retire ou supprime une liste de processus en parallèle (concurrence bornée). "
+                           + "Les résultats sont renvoyés en NDJSON, une ligne par processus, au fil de l'exécution")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Flux NDJSON des résultats par processus",
+                     content = @Content(mediaType = "application/x-ndjson",
+                                        schema = @Schema(implementation = BulkOperationResultDTO.class))),
+        @APIResponse(responseCode = "400", description = "Requête invalide")
+    })
+    Response bulkOperation(@Valid BulkOperationRequestDTO request);
+
+    @POST
+    @Path("/hiring/candidates")
+    @Consumes({MediaType.APPLICATION_JSON, "application/x-ndjson"})
+    @Produces("application/x-ndjson")
+    @Operation(summary = "Import en masse de candidats",
+               description = "Démarre une instance hiring par CandidateData reçu en flux (tableau JSON ou NDJSON). "
+                           + "Les instances sont démarrées et insérées par lots transactionnels ; l'identifiant de "
+                           + "chaque instance (ou l'erreur de son lot) est renvoyé en NDJSON au fil de l'import")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Flux NDJSON des instances démarrées, une ligne par candidat",
+                     content = @Content(mediaType = "application/x-ndjson",
+                                        schema = @Schema(implementation = CandidateIntakeResultDTO.class))),
+        @APIResponse(responseCode = "400", description = "Taille de lot invalide"),
+        @APIResponse(responseCode = "503", description = "Processus hiring non déployé")
+    })
+    Response importCandidates(
+            @Parameter(description = "Candidats (tableau JSON ou un objet JSON par ligne)", required = true)
+            InputStream candidates,
+
+            @Parameter(description = "Nombre de candidats démarrés par transaction (défaut: workflow.intake.batch-size)")
+            @QueryParam("batchSize") Integer batchSize
+    );
+
+    @POST
+    @Path("/deployments")
+    @Operation(summary = "Déploiement asynchrone d'un ou plusieurs processus",
+               description = "Accepte une demande de déploiement ou de retrait groupée et retourne immédiatement un job à suivre. "
+                           + "Les demandes inverses encore en attente pour un même processus s'annulent")
+    @APIResponses({
+        @APIResponse(responseCode = "202", description = "Job de déploiement accepté",
+                     content = @Content(schema = @Schema(implementation = DeploymentJobDTO.class))),
+        @APIResponse(responseCode = "400", description = "Requête invalide"),
+        @APIResponse(responseCode = "503", description = "File de déploiement saturée")
+    })
+    Response submitDeploymentJob(@Valid DeploymentJobRequestDTO request);
+
+    @GET
+    @Path("/deployments/{jobId}")
+    @Operation(summary = "État d'un job de déploiement",
+               description = "Retourne la progression et le résultat par processus d'un job de déploiement asynchrone")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "État du job",
+                     content = @Content(schema = @Schema(implementation = DeploymentJobDTO.class))),
+        @APIResponse(responseCode = "404", description = "Job inconnu ou expiré")
+    })
+    Response getDeploymentJob(@Parameter(description = "ID du job", required = true) @PathParam("jobId") String jobId);
+
     @POST
     @Path("/{processId}/validate")
     @Operation(summary = "Valider et réparer un processus BPMN invalide",
@@ -0,0 +1,160 @@
+package mg.orange.workflow.resource.process;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import mg.orange.workflow.model.process.BulkOperationRequestDTO;
+import mg.orange.workflow.model.process.BulkOperationResultDTO;
+import mg.orange.workflow.model.process.CompactDiagramDTO;
+import mg.orange.workflow.model.process.ProcessStatistics;
+import mg.orange.workflow.resource.http.ConditionalGet;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.annotations.SseElementType;
+
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Variante non bloquante des endpoints les plus sollicités de {@link ProcessResource}.
+ * <p>
+ * Les méthodes rendent la main avec un {@link Uni} ou un {@link Multi}, l'analyse BPMN et les accès JDBC étant
+ * prévus sur les pools dédiés de {@code ProcessWorkExecutors}. Avec RESTEasy classique, la requête démarre
+ * toujours sur un thread worker, libéré au retour de la méthode (et non sur la boucle d'événements).
+ * Les réponses sont identiques à celles de {@link ProcessResource}.
+ */
+@Path("/api/reactive/processes")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Process Management (reactive)", description = "Gestion des définitions de processus, variante non bloquante")
+public interface ReactiveProcessResource {
+
+    @ConditionalGet
+    @GET
+    @Operation(summary = "Liste des processus",
+               description = "Équivalent non bloquant de GET /api/processes")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Liste des processus récupérée avec succès",
+                     content = @Content(schema = @Schema(implementation = ProcessResource.ProcessListResponse.class))),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Uni<Response> listProcesses(
+            @Parameter(description = "Filtre par nom de processus (recherche partielle)")
+            @QueryParam("name") String name,
+
+            @Parameter(description = "Numéro de page (défaut: 0)")
+            @QueryParam("page") @DefaultValue("0") int page,
+
+            @Parameter(description = "Taille de la page (défaut: 20)")
+            @QueryParam("size") @DefaultValue("20") int size,
+
+            @Parameter(description = "Champ de tri (id, name, version, type, status)")
+            @QueryParam("sort") String sortField,
+
+            @Parameter(description = "Direction du tri (asc ou desc, défault: asc)")
+            @QueryParam("direction") @DefaultValue("asc") String sortDirection,
+
+            @Parameter(description = "Curseur opaque renvoyé dans 'next' par la page précédente (pagination keyset, remplace 'page')")
+            @QueryParam("cursor") String cursor,
+
+            @Parameter(description = "Calculer totalElements/totalPages (défaut: true)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
+    );
+
+    @GET
+    @Path("/statistics")
+    @Operation(summary = "Statistiques des processus",
+               description = "Équivalent non bloquant de GET /api/processes/statistics")
+    @APIResponse(responseCode = "200", description = "Statistiques récupérées avec succès",
+                 content = @Content(schema = @Schema(implementation = ProcessStatistics.class)))
+    Uni<ProcessStatistics> getProcessStatistics();
+
+    @ConditionalGet
+    @GET
+    @Path("/{processId}")
+    @Operation(summary = "Détail complet d'un processus",
+               description = "Équivalent non bloquant de GET /api/processes/{processId}")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Détails du processus récupérés avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
+        @APIResponse(responseCode = "404", description = "Processus non trouvé"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Uni<Response> getProcessDetail(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
+
+    @ConditionalGet(maxAge = 30)
+    @GET
+    @Path("/{processId}/definition")
+    @Produces(MediaType.APPLICATION_XML)
+    @Operation(summary = "Définition XML du processus",
+               description = "Équivalent non bloquant de GET /api/processes/{processId}/definition (lecture asynchrone du fichier)")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "XML BPMN récupéré avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
+        @APIResponse(responseCode = "404", description = "Processus ou fichier BPMN non trouvé"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Uni<Response> getProcessDefinition(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
+
+    @GET
+    @Path("/{processId}/diagram")
+    @Produces({MediaType.APPLICATION_JSON, CompactDiagramDTO.PACKED_JSON_TYPE, CompactDiagramDTO.BINARY_TYPE})
+    @Operation(summary = "Informations du diagramme",
+               description = "Équivalent non bloquant de GET /api/processes/{processId}/diagram (même négociation de format)")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Informations du diagramme récupérées avec succès"),
+        @APIResponse(responseCode = "304", description = "Diagramme inchangé (If-None-Match)"),
+        @APIResponse(responseCode = "404", description = "Processus non trouvé"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Uni<Response> getProcessDiagram(@Parameter(description = "ID du processus") @PathParam("processId") String processId,
+                                    @Context HttpHeaders headers);
+
+    @ConditionalGet(maxAge = 30)
+    @GET
+    @Path("/{processId}/tasks")
+    @Operation(summary = "Tâches du processus",
+               description = "Équivalent non bloquant de GET /api/processes/{processId}/tasks")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Liste des tâches récupérée avec succès"),
+        @APIResponse(responseCode = "304", description = "Non modifié (If-None-Match / If-Modified-Since)"),
+        @APIResponse(responseCode = "404", description = "Processus non trouvé"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Uni<Response> getProcessTasks(@Parameter(description = "ID du processus") @PathParam("processId") String processId);
+
+    @POST
+    @Path("/{processId}/validate")
+    @Operation(summary = "Valider un processus",
+               description = "Équivalent non bloquant de POST /api/processes/{processId}/validate")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Processus validé avec succès"),
+        @APIResponse(responseCode = "404", description = "Processus non trouvé"),
+        @APIResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    Uni<Response> validateAndRepairProcess(@Parameter(description = "ID du processus à valider", required = true) @PathParam("processId") String processId);
+
+    @POST
+    @Path("/bulk")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @SseElementType(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Opération en masse sur plusieurs processus",
+               description = "Équivalent non bloquant de POST /api/processes/bulk : un événement SSE par processus, "
+                           + "émis dès que son opération est terminée")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "Flux des résultats par processus",
+                     content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                                        schema = @Schema(implementation = BulkOperationResultDTO.class))),
+        @APIResponse(responseCode = "400", description = "Requête invalide")
+    })
+    Multi<BulkOperationResultDTO> bulkOperation(@Valid BulkOperationRequestDTO request);
+}
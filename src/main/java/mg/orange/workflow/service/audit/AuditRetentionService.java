@@ -0,0 +1,399 @@
+package mg.orange.workflow.service.audit;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import mg.orange.workflow.service.process.ProcessTrendService;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rétention des tables d'audit ({@code kogito-addons-quarkus-data-audit}).
+ * <p>
+ * Les tables partitionnées par mois (migration {@code V100.1.0}) sont maintenues par partitions entières :
+ * les partitions du mois courant et des {@code workflow.audit.partitions-ahead} mois suivants sont créées
+ * à l'avance (la migration en crée déjà deux) et celles dont tout le contenu dépasse la
+ * rétention sont archivées si demandé, détachées puis supprimées. Aucune ligne n'est supprimée une à
+ * une : les insertions ne paient ni le coût des purges ni celui d'index qui grossissent sans fin.
+ * Les tables référencées par une clé étrangère ne sont pas partitionnées et sont purgées par lots.
+ * <p>
+ * La rétention vaut {@code workflow.audit.retention.default}, sauf pour les tables ayant leur propre
+ * valeur {@code workflow.audit.retention.<table>} (nom en minuscules).
+ */
+@ApplicationScoped
+public class AuditRetentionService {
+
+    private static final Logger LOG = Logger.getLogger(AuditRetentionService.class);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter ARCHIVE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * Tables partitionnées par mois sur {@code event_date}
+     */
+    static final List<String> PARTITIONED_TABLES = List.of(
+            "job_execution_log",
+            "process_instance_error_log",
+            "process_instance_node_log",
+            "process_instance_variable_log",
+            "task_instance_attachment_log",
+            "task_instance_comment_log",
+            "task_instance_state_log",
+            "task_instance_variable_log");
+
+    /**
+     * Tables non partitionnées (référencées par une clé étrangère) et leur table dépendante : colonne de jointure
+     */
+    static final Map<String, String[]> REFERENCED_TABLES = Map.of(
+            "process_instance_state_log", new String[]{"process_instance_state_roles_log", "process_instance_state_log_id"},
+            "task_instance_assignment_log", new String[]{"task_instance_assignment_users_log", "task_instance_assignment_log_id"},
+            "task_instance_deadline_log", new String[]{"task_instance_deadline_notification_log", "task_instance_deadline_log_id"});
+
+    private static final String STATE_LOG = "process_instance_state_log";
+
+    @ConfigProperty(name = "workflow.audit.retention.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "workflow.audit.maintenance-interval", defaultValue = "PT6H")
+    Duration maintenanceInterval;
+
+    @ConfigProperty(name = "workflow.audit.retention.default", defaultValue = "P180D")
+    Period defaultRetention;
+
+    @ConfigProperty(name = "workflow.audit.partitions-ahead", defaultValue = "2")
+    int partitionsAhead;
+
+    @ConfigProperty(name = "workflow.audit.drop-expired", defaultValue = "true")
+    boolean dropExpired;
+
+    @ConfigProperty(name = "workflow.audit.archive.enabled", defaultValue = "false")
+    boolean archiveEnabled;
+
+    @ConfigProperty(name = "workflow.audit.archive.directory", defaultValue = "audit-archive")
+    String archiveDirectory;
+
+    @ConfigProperty(name = "workflow.audit.delete-batch-size", defaultValue = "5000")
+    int deleteBatchSize;
+
+    @ConfigProperty(name = "workflow.audit.lock-timeout", defaultValue = "PT5S")
+    Duration lockTimeout;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    Config config;
+
+    @Inject
+    ProcessTrendService trendService;
+
+    private ScheduledExecutorService scheduler;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runMaintenance, 0, maintenanceInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runMaintenance() {
+        try {
+            maintain();
+        } catch (Exception e) {
+            LOG.warn("Échec de la maintenance des tables d'audit", e);
+        }
+    }
+
+    /**
+     * Crée les partitions à venir puis applique la rétention de chaque table.
+     * Une table en échec (verrou non obtenu, archive impossible) n'empêche pas le traitement des autres.
+     */
+    public void maintain() throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            for (String table : PARTITIONED_TABLES) {
+                try {
+                    createPartitionsAhead(connection, table, YearMonth.from(today));
+                    expirePartitions(connection, table, today.minus(retention(table)));
+                } catch (SQLException | IOException e) {
+                    connection.rollback();
+                    LOG.warnf(e, "Maintenance de la table d'audit %s interrompue", table);
+                }
+            }
+            for (Map.Entry<String, String[]> entry : REFERENCED_TABLES.entrySet()) {
+                String table = entry.getKey();
+                try {
+                    LocalDateTime cutoff = today.minus(retention(table)).atStartOfDay();
+                    if (STATE_LOG.equals(table)) {
+                        // les agrégats de tendances doivent avoir lu les lignes avant leur purge
+                        LocalDateTime limit = trendService.getAuditPurgeLimit();
+                        if (limit != null && limit.isBefore(cutoff)) {
+                            cutoff = limit;
+                        }
+                    }
+                    if (!cutoff.equals(LocalDateTime.MIN)) {
+                        deleteExpiredRows(connection, table, entry.getValue()[0], entry.getValue()[1], cutoff);
+                    }
+                } catch (SQLException | IOException e) {
+                    connection.rollback();
+                    LOG.warnf(e, "Purge de la table d'audit %s interrompue", table);
+                }
+            }
+        }
+    }
+
+    Period retention(String table) {
+        return config.getOptionalValue("workflow.audit.retention." + table, Period.class).orElse(defaultRetention);
+    }
+
+    // ======= TABLES PARTITIONNÉES =======
+
+    private void createPartitionsAhead(Connection connection, String table, YearMonth current) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            setLockTimeout(statement);
+            for (int i = 0; i <= partitionsAhead; i++) {
+                YearMonth month = current.plusMonths(i);
+                statement.execute("create table if not exists " + quote(table + "_p" + month.format(PARTITION_SUFFIX))
+                        + " partition of " + quote(table) + " for values from ('" + month.atDay(1) + "') to ('"
+                        + month.plusMonths(1).atDay(1) + "')");
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Archive (si demandé), détache puis supprime les partitions dont toutes les lignes sont antérieures à {@code cutoff}
+     */
+    private void expirePartitions(Connection connection, String table, LocalDate cutoff) throws SQLException, IOException {
+        for (String partition : partitions(connection, table)) {
+            String suffix = partition.substring(table.length() + 1);
+            boolean legacy = "legacy".equals(suffix);
+            LocalDate upperBound;
+            if (legacy) {
+                LocalDateTime newest = newestEventDate(connection, partition);
+                upperBound = newest != null ? newest.toLocalDate().plusDays(1) : LocalDate.MIN;
+            } else if (suffix.startsWith("p") && suffix.length() == 7) {
+                upperBound = YearMonth.parse(suffix.substring(1), PARTITION_SUFFIX).plusMonths(1).atDay(1);
+            } else {
+                // partition par défaut : lignes sans date ou d'un mois sans partition, conservées
+                continue;
+            }
+            if (upperBound.isAfter(cutoff)) {
+                continue;
+            }
+
+            if (archiveEnabled) {
+                // archivée avant d'être détachée : en cas d'échec, la partition est simplement reprise au passage suivant
+                archive(connection, partition, "select * from " + quote(partition));
+            }
+            try (Statement statement = connection.createStatement()) {
+                setLockTimeout(statement);
+                statement.execute("alter table " + quote(table) + " detach partition " + quote(partition));
+            }
+            connection.commit();
+            LOG.infof("Partition d'audit %s détachée (lignes antérieures au %s)", partition, upperBound);
+
+            if (dropExpired) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("drop table " + quote(partition));
+                }
+                connection.commit();
+            }
+        }
+    }
+
+    private static List<String> partitions(Connection connection, String table) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select child.relname from pg_inherits i"
+                        + " join pg_class child on child.oid = i.inhrelid"
+                        + " join pg_class parent on parent.oid = i.inhparent"
+                        + " where parent.relname = ? order by child.relname")) {
+            statement.setString(1, table);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    partitions.add(rows.getString(1));
+                }
+            }
+        }
+        connection.commit();
+        return partitions;
+    }
+
+    private static LocalDateTime newestEventDate(Connection connection, String partition) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select max(event_date) from " + quote(partition))) {
+            Timestamp value = rows.next() ? rows.getTimestamp(1) : null;
+            connection.commit();
+            return value != null ? value.toLocalDateTime() : null;
+        }
+    }
+
+    // ======= TABLES NON PARTITIONNÉES =======
+
+    /**
+     * Supprime par lots (une transaction par lot) les lignes antérieures à {@code cutoff} et leurs lignes dépendantes
+     */
+    private void deleteExpiredRows(Connection connection, String table, String childTable, String childColumn,
+                                   LocalDateTime cutoff) throws SQLException, IOException {
+        long deleted = 0;
+        String archiveName = table + "-" + LocalDateTime.now().format(ARCHIVE_SUFFIX);
+        ArchiveWriter archive = null;
+        try {
+            while (true) {
+                List<Long> ids = new ArrayList<>(deleteBatchSize);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "select id from " + quote(table) + " where event_date < ? order by event_date limit ?")) {
+                    statement.setTimestamp(1, Timestamp.valueOf(cutoff));
+                    statement.setInt(2, deleteBatchSize);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            ids.add(rows.getLong(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    connection.commit();
+                    break;
+                }
+                if (archiveEnabled) {
+                    if (archive == null) {
+                        archive = new ArchiveWriter(archiveName);
+                    }
+                    archive.copy(connection, "select * from " + quote(table) + " where id in ("
+                            + ids.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")");
+                }
+                Array idArray = connection.createArrayOf("bigint", ids.toArray());
+                delete(connection, "delete from " + quote(childTable) + " where " + quote(childColumn) + " = any(?)", idArray);
+                delete(connection, "delete from " + quote(table) + " where id = any(?)", idArray);
+                connection.commit();
+                deleted += ids.size();
+                if (ids.size() < deleteBatchSize) {
+                    break;
+                }
+            }
+        } finally {
+            if (archive != null) {
+                // les lots déjà supprimés sont archivés même si un lot suivant échoue
+                archive.complete();
+            }
+        }
+        if (deleted > 0) {
+            LOG.infof("%d lignes d'audit antérieures au %s supprimées de %s", deleted, cutoff, table);
+        }
+    }
+
+    private static void delete(Connection connection, String sql, Array ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, ids);
+            statement.executeUpdate();
+        }
+    }
+
+    // ======= ARCHIVAGE =======
+
+    private void archive(Connection connection, String name, String query) throws SQLException, IOException {
+        ArchiveWriter archive = new ArchiveWriter(name);
+        try {
+            archive.copy(connection, query);
+        } catch (SQLException | IOException e) {
+            archive.discard();
+            throw e;
+        }
+        archive.complete();
+        connection.commit();
+    }
+
+    /**
+     * Archive CSV compressée écrite dans un fichier temporaire, renommé par {@link #complete()}
+     */
+    private final class ArchiveWriter {
+        private final Path target;
+        private final Path temporary;
+        private final OutputStream output;
+        private boolean header = true;
+
+        ArchiveWriter(String name) throws IOException {
+            Path directory = Paths.get(archiveDirectory);
+            Files.createDirectories(directory);
+            target = directory.resolve(name + ".csv.gz");
+            temporary = directory.resolve(name + ".csv.gz.tmp");
+            output = new GZIPOutputStream(Files.newOutputStream(temporary), 64 * 1024);
+        }
+
+        void copy(Connection connection, String query) throws SQLException, IOException {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("copy (" + query + ") to stdout with (format csv" + (header ? ", header" : "") + ")", output);
+            header = false;
+        }
+
+        void complete() throws IOException {
+            output.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.infof("Archive d'audit écrite: %s", target);
+        }
+
+        void discard() {
+            try {
+                output.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                LOG.debugf(e, "Suppression de l'archive incomplète %s", temporary);
+            }
+        }
+    }
+
+    private void setLockTimeout(Statement statement) throws SQLException {
+        // un DDL en attente de verrou bloquerait les insertions d'audit derrière lui
+        statement.execute("set local lock_timeout = " + lockTimeout.toMillis());
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,252 @@
+package mg.orange.workflow.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jboss.logging.Logger;
+import org.kie.kogito.event.DataEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Journal local des événements d'audit acceptés mais pas encore écrits en base.
+ * <p>
+ * Chaque événement est ajouté sur une ligne {@code séquence \t classe \t JSON} du segment courant ;
+ * un segment dépassant la taille maximale est fermé et un nouveau est ouvert. Après chaque écriture en base,
+ * la dernière séquence écrite est enregistrée dans le fichier {@code checkpoint} et les segments fermés
+ * entièrement écrits sont supprimés. Au démarrage, les événements postérieurs au checkpoint sont relus
+ * (une dernière ligne incomplète, laissée par un arrêt brutal, est ignorée).
+ * <p>
+ * Les méthodes ne sont pas synchronisées : l'appelant sérialise les ajouts et les validations.
+ */
+final class AuditWriteAheadLog implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(AuditWriteAheadLog.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT = "checkpoint";
+
+    /**
+     * Événement relu du journal
+     */
+    static final class Entry {
+        final long sequence;
+        final DataEvent<?> event;
+
+        Entry(long sequence, DataEvent<?> event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long lastSequence;
+
+        Segment(Path path, long lastSequence) {
+            this.path = path;
+            this.lastSequence = lastSequence;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+
+    private FileChannel current;
+    private Path currentPath;
+    private long nextSequence = 1;
+
+    AuditWriteAheadLog(Path directory, long segmentBytes, boolean fsync, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Ouvre le journal et renvoie les événements non encore écrits en base, dans l'ordre
+     */
+    List<Entry> open() throws IOException {
+        Files.createDirectories(directory);
+        long checkpoint = readCheckpoint();
+        long lastSequence = checkpoint;
+        List<Entry> pending = new ArrayList<>();
+        for (Path path : segments()) {
+            if (Files.size(path) == 0) {
+                Files.delete(path);
+                continue;
+            }
+            long segmentLast = lastSequence;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Entry entry = parse(path, line);
+                    if (entry == null) {
+                        continue;
+                    }
+                    segmentLast = Math.max(segmentLast, entry.sequence);
+                    if (entry.sequence > checkpoint) {
+                        pending.add(entry);
+                    }
+                }
+            }
+            closedSegments.add(new Segment(path, segmentLast));
+            lastSequence = Math.max(lastSequence, segmentLast);
+        }
+        nextSequence = lastSequence + 1;
+        release(checkpoint);
+        openSegment();
+        if (!pending.isEmpty()) {
+            LOG.infof("%d événements d'audit non écrits relus du journal %s", pending.size(), directory);
+        }
+        return pending;
+    }
+
+    /**
+     * Ajoute un événement au journal et renvoie sa séquence
+     */
+    long append(DataEvent<?> event) throws IOException {
+        long sequence = nextSequence;
+        String line = sequence + "\t" + event.getClass().getName() + "\t" + objectMapper.writeValueAsString(event) + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        long offset = current.size();
+        try {
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            if (fsync) {
+                current.force(false);
+            }
+        } catch (IOException e) {
+            discard(offset, sequence);
+            throw e;
+        }
+        nextSequence++;
+        if (current.position() >= segmentBytes) {
+            current.close();
+            closedSegments.add(new Segment(currentPath, sequence));
+            openSegment();
+        }
+        return sequence;
+    }
+
+    /**
+     * Enregistre que tous les événements jusqu'à {@code sequence} sont écrits en base
+     */
+    void commit(long sequence) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temporary, Long.toString(sequence), StandardCharsets.UTF_8);
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        release(sequence);
+    }
+
+    /**
+     * Nombre de segments du journal, segment courant compris
+     */
+    int getSegmentCount() {
+        return closedSegments.size() + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Retire une ligne partiellement écrite : tronque le segment à la dernière ligne complète ou, si ce n'est
+     * pas possible, le ferme et consomme la séquence, pour qu'aucune ligne relue ne soit incomplète ou ne
+     * partage sa séquence avec la suivante
+     */
+    private void discard(long offset, long sequence) {
+        try {
+            current.truncate(offset);
+            if (fsync) {
+                current.force(false);
+            }
+            return;
+        } catch (IOException e) {
+            LOG.warnf(e, "Troncature du journal d'audit %s impossible, segment fermé", currentPath);
+        }
+        nextSequence = sequence + 1;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.debugf(e, "Fermeture du segment %s", currentPath);
+        }
+        closedSegments.add(new Segment(currentPath, sequence));
+        try {
+            openSegment();
+        } catch (IOException e) {
+            // le prochain ajout échouera à son tour et l'événement sera écrit directement
+            LOG.warnf(e, "Ouverture d'un nouveau segment du journal d'audit impossible");
+        }
+    }
+
+    private void release(long committed) throws IOException {
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSequence <= committed) {
+            Files.deleteIfExists(closedSegments.pollFirst().path);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        currentPath = directory.resolve(SEGMENT_PREFIX + String.format("%020d", nextSequence) + SEGMENT_SUFFIX);
+        current = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private Entry parse(Path segment, String line) {
+        int first = line.indexOf('\t');
+        int second = first > 0 ? line.indexOf('\t', first + 1) : -1;
+        if (second < 0) {
+            LOG.warnf("Ligne incomplète ignorée dans le journal d'audit %s", segment);
+            return null;
+        }
+        try {
+            long sequence = Long.parseLong(line.substring(0, first));
+            Class<?> type = Class.forName(line.substring(first + 1, second), false,
+                    Thread.currentThread().getContextClassLoader());
+            if (!DataEvent.class.isAssignableFrom(type)) {
+                throw new ClassCastException(type.getName());
+            }
+            return new Entry(sequence, (DataEvent<?>) objectMapper.readValue(line.substring(second + 1), type));
+        } catch (ReflectiveOperationException | IOException | RuntimeException e) {
+            LOG.warnf(e, "Événement illisible ignoré dans le journal d'audit %s", segment);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package mg.orange.workflow.service.audit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * État de l'écriture asynchrone de l'audit : profondeur de file et durées d'écriture des lots.
+ * <p>
+ * Indisponible lorsque la file est pleine alors que la dernière écriture a échoué : les producteurs écrivent
+ * alors l'audit dans leur propre transaction, contre une base qui ne répond pas.
+ */
+@Readiness
+@ApplicationScoped
+public class AuditWriterHealthCheck implements HealthCheck {
+
+    @Inject
+    BatchedAuditEventPublisher publisher;
+
+    @Override
+    public HealthCheckResponse call() {
+        boolean saturated = publisher.getQueueDepth() >= publisher.getCapacity() && publisher.isLastFlushFailed();
+        return HealthCheckResponse.named("audit-writer")
+                .status(!saturated)
+                .withData("durability", publisher.getDurability().name())
+                .withData("queueDepth", publisher.getQueueDepth())
+                .withData("capacity", publisher.getCapacity())
+                .withData("writtenEvents", publisher.getWrittenEvents())
+                .withData("flushCount", publisher.getFlushCount())
+                .withData("lastFlushMillis", String.format("%.2f", publisher.getLastFlushMillis()))
+                .withData("averageFlushMillis", String.format("%.2f", publisher.getAverageFlushMillis()))
+                .withData("maxFlushMillis", String.format("%.2f", publisher.getMaxFlushMillis()))
+                .withData("failedFlushes", publisher.getFailedFlushes())
+                .withData("overflowWrites", publisher.getOverflowWrites())
+                .withData("droppedEvents", publisher.getDroppedEvents())
+                .build();
+    }
+}
@@ -0,0 +1,513 @@
+package mg.orange.workflow.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.kie.kogito.app.audit.api.DataAuditContext;
+import org.kie.kogito.app.audit.api.DataAuditStoreProxyService;
+import org.kie.kogito.app.audit.spi.DataAuditContextFactory;
+import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.event.EventPublisher;
+import org.kie.kogito.event.job.JobInstanceDataEvent;
+import org.kie.kogito.event.process.ProcessInstanceDataEvent;
+import org.kie.kogito.event.usertask.UserTaskInstanceDataEvent;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Écriture des événements d'audit ({@code kogito-addons-quarkus-data-audit}) hors de la transaction des processus.
+ * <p>
+ * Remplace {@code QuarkusDataAuditEventPublisher} (exclu dans application.properties), qui écrit chaque
+ * événement par une insertion JPA dans la transaction qui fait avancer le processus. Selon
+ * {@code workflow.audit.writer.durability} :
+ * <ul>
+ *     <li>{@code sync} (défaut) : comportement de l'addon, l'audit est écrit dans la transaction du processus ;</li>
+ *     <li>{@code async} : les événements sont placés en mémoire à la validation de la transaction et écrits
+ *     par lots ; ceux en attente sont perdus en cas d'arrêt brutal ;</li>
+ *     <li>{@code async-wal} : comme {@code async}, chaque événement étant d'abord ajouté à un journal local
+ *     relu au démarrage ({@link AuditWriteAheadLog}). Le journal ne protège d'un arrêt brutal de la machine
+ *     qu'avec {@code wal.fsync=true} (défaut) et un répertoire sur un volume persistant.</li>
+ * </ul>
+ * La file est bornée sans verrou ({@code workflow.audit.writer.capacity}) ; quand elle est pleine, l'événement
+ * est écrit immédiatement sur le thread de l'appelant, dans une transaction dédiée (et non celle du processus,
+ * déjà validée), ce qui ralentit les producteurs au lieu de perdre l'audit. Un thread unique écrit les lots
+ * dès que {@code batch-size} événements sont en attente, ou au plus tard après {@code flush-interval}, dans
+ * une transaction dédiée (insertions regroupées par les lots JDBC d'Hibernate).
+ * Un lot en échec est réessayé avec une attente croissante ; s'il échoue encore, ses événements sont écrits un à
+ * un et seuls ceux refusés individuellement sont abandonnés.
+ */
+@ApplicationScoped
+public class BatchedAuditEventPublisher implements EventPublisher {
+
+    private static final Logger LOG = Logger.getLogger(BatchedAuditEventPublisher.class);
+    private static final int ATTEMPTS_BEFORE_ISOLATION = 3;
+
+    /**
+     * Garantie d'écriture des événements d'audit
+     */
+    public enum Durability {
+        SYNC, ASYNC, ASYNC_WAL
+    }
+
+    /**
+     * Événement accepté, numéroté dans le journal local (0 sans journal)
+     */
+    private static final class Pending {
+        final long sequence;
+        final DataEvent<?> event;
+
+        Pending(long sequence, DataEvent<?> event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    @ConfigProperty(name = "workflow.audit.writer.durability", defaultValue = "sync")
+    Durability durability;
+
+    @ConfigProperty(name = "workflow.audit.writer.capacity", defaultValue = "10000")
+    int capacity;
+
+    @ConfigProperty(name = "workflow.audit.writer.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "workflow.audit.writer.flush-interval", defaultValue = "PT0.2S")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "workflow.audit.writer.max-retry-backoff", defaultValue = "PT30S")
+    Duration maxRetryBackoff;
+
+    @ConfigProperty(name = "workflow.audit.writer.shutdown-timeout", defaultValue = "PT10S")
+    Duration shutdownTimeout;
+
+    @ConfigProperty(name = "workflow.audit.writer.wal.directory", defaultValue = "/deployments/audit-wal")
+    String walDirectory;
+
+    @ConfigProperty(name = "workflow.audit.writer.wal.segment-bytes", defaultValue = "16777216")
+    long walSegmentBytes;
+
+    @ConfigProperty(name = "workflow.audit.writer.wal.fsync", defaultValue = "true")
+    boolean walFsync;
+
+    @Inject
+    DataAuditContextFactory dataAuditContextFactory;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * Événements acceptés et pas encore écrits, lot en cours d'écriture compris
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock walLock = new ReentrantLock();
+    private final Object transactionKey = new Object();
+
+    private final AtomicLong writtenEvents = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong overflowWrites = new AtomicLong();
+    private Timer flushTimer;
+
+    private DataAuditStoreProxyService store;
+    private AuditWriteAheadLog wal;
+    private volatile Thread writer;
+    private volatile boolean running;
+    private volatile boolean lastFlushFailed;
+
+    @PostConstruct
+    void init() {
+        store = DataAuditStoreProxyService.newAuditStoreService();
+        registerMetrics(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) throws IOException {
+        if (durability == Durability.SYNC) {
+            return;
+        }
+        if (durability == Durability.ASYNC_WAL) {
+            wal = new AuditWriteAheadLog(Paths.get(walDirectory), walSegmentBytes, walFsync, objectMapper);
+            for (AuditWriteAheadLog.Entry entry : wal.open()) {
+                queue.offer(new Pending(entry.sequence, entry.event));
+                pending.incrementAndGet();
+            }
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException, InterruptedException {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(shutdownTimeout.toMillis());
+        if (thread.isAlive()) {
+            LOG.warnf("%d événements d'audit non écrits à l'arrêt%s", pending.get(),
+                    wal != null ? " (conservés dans le journal local)" : "");
+        }
+        if (wal != null) {
+            walLock.lock();
+            try {
+                wal.close();
+            } finally {
+                walLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void publish(DataEvent<?> event) {
+        if (durability == Durability.SYNC || writer == null) {
+            QuarkusTransaction.joiningExisting().run(() -> store(dataAuditContextFactory.newDataAuditContext(), event));
+            return;
+        }
+        int status = transactionRegistry.getTransactionStatus();
+        if (status == Status.STATUS_ACTIVE) {
+            // l'audit d'une transaction annulée ne doit pas être écrit : mise en file à la validation
+            afterCommit().add(event);
+        } else if (status == Status.STATUS_NO_TRANSACTION) {
+            accept(List.of(event));
+        } else {
+            LOG.debugf("Événement d'audit %s ignoré : transaction en cours d'annulation", event.getId());
+        }
+    }
+
+    @Override
+    public void publish(Collection<DataEvent<?>> events) {
+        events.forEach(this::publish);
+    }
+
+    // ======= MÉTRIQUES =======
+
+    /**
+     * Événements acceptés et pas encore écrits en base
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public long getWrittenEvents() {
+        return writtenEvents.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * Durée de la dernière écriture d'un lot, en millisecondes
+     */
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Durée maximale d'écriture d'un lot depuis le démarrage, en millisecondes
+     */
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Durée moyenne d'écriture d'un lot depuis le démarrage, en millisecondes
+     */
+    public double getAverageFlushMillis() {
+        long count = flushCount.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / count;
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    /**
+     * Événements refusés individuellement par la base et abandonnés
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Événements écrits directement par l'appelant, dans une transaction dédiée, faute de place dans la file
+     * ou de journal local
+     */
+    public long getOverflowWrites() {
+        return overflowWrites.get();
+    }
+
+    public boolean isLastFlushFailed() {
+        return lastFlushFailed;
+    }
+
+    /**
+     * Métriques Micrometer ({@code /q/metrics}) : profondeur et capacité de la file, durée des lots,
+     * événements abandonnés et écrits directement
+     */
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("workflow.audit.queue.depth", pending, AtomicInteger::get)
+                .description("Événements d'audit acceptés et pas encore écrits en base")
+                .register(registry);
+        Gauge.builder("workflow.audit.queue.capacity", this, BatchedAuditEventPublisher::getCapacity)
+                .description("Capacité de la file des événements d'audit")
+                .register(registry);
+        flushTimer = Timer.builder("workflow.audit.flush")
+                .description("Durée d'écriture d'un lot d'événements d'audit")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder("workflow.audit.events.dropped", droppedEvents, AtomicLong::get)
+                .description("Événements d'audit refusés par la base et abandonnés")
+                .register(registry);
+        FunctionCounter.builder("workflow.audit.events.overflow", overflowWrites, AtomicLong::get)
+                .description("Événements d'audit écrits directement faute de place dans la file")
+                .register(registry);
+    }
+
+    // ======= MISE EN FILE =======
+
+    @SuppressWarnings("unchecked")
+    private List<DataEvent<?>> afterCommit() {
+        List<DataEvent<?>> events = (List<DataEvent<?>>) transactionRegistry.getResource(transactionKey);
+        if (events == null) {
+            List<DataEvent<?>> registered = new ArrayList<>();
+            transactionRegistry.putResource(transactionKey, registered);
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        accept(registered);
+                    }
+                }
+            });
+            events = registered;
+        }
+        return events;
+    }
+
+    private void accept(List<DataEvent<?>> events) {
+        List<DataEvent<?>> overflow = null;
+        for (DataEvent<?> event : events) {
+            if (!reserve()) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(event);
+                continue;
+            }
+            if (wal != null) {
+                walLock.lock();
+                try {
+                    // la séquence du journal et l'ordre de la file doivent coïncider
+                    queue.offer(new Pending(wal.append(event), event));
+                    continue;
+                } catch (IOException e) {
+                    LOG.warn("Écriture du journal d'audit impossible, événement écrit directement", e);
+                    pending.decrementAndGet();
+                } finally {
+                    walLock.unlock();
+                }
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(event);
+            } else {
+                queue.offer(new Pending(0, event));
+            }
+        }
+        if (overflow != null) {
+            overflowWrites.addAndGet(overflow.size());
+            List<DataEvent<?>> direct = overflow;
+            QuarkusTransaction.requiringNew().run(() -> {
+                DataAuditContext context = dataAuditContextFactory.newDataAuditContext();
+                direct.forEach(event -> store(context, event));
+            });
+        }
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int current = pending.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                if (current + 1 == batchSize) {
+                    Thread thread = writer;
+                    if (thread != null) {
+                        LockSupport.unpark(thread);
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    // ======= ÉCRITURE (thread audit-writer) =======
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            if (running && pending.get() < batchSize) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+            }
+            while (batch.size() < batchSize) {
+                Pending next = queue.poll();
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                if (attempts < ATTEMPTS_BEFORE_ISOLATION) {
+                    write(batch);
+                } else {
+                    writeIndividually(batch);
+                }
+                completed(batch);
+                batch.clear();
+                attempts = 0;
+                lastFlushFailed = false;
+            } catch (RuntimeException e) {
+                attempts++;
+                failedFlushes.incrementAndGet();
+                lastFlushFailed = true;
+                LOG.warnf(e, "Échec de l'écriture de %d événements d'audit (tentative %d)", batch.size(), attempts);
+                if (!running) {
+                    // arrêt : les événements restent dans le journal local s'il est actif
+                    return;
+                }
+                long backoff = Math.min(flushInterval.toNanos() << Math.min(attempts, 16), maxRetryBackoff.toNanos());
+                LockSupport.parkNanos(backoff);
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().run(() -> {
+            DataAuditContext context = dataAuditContextFactory.newDataAuditContext();
+            for (Pending entry : batch) {
+                store(context, entry.event);
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        if (flushTimer != null) {
+            flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos.set(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * Écrit les événements d'un lot un à un pour isoler ceux que la base refuse. Si aucun ne passe,
+     * la base est considérée indisponible et le lot est conservé.
+     */
+    private void writeIndividually(List<Pending> batch) {
+        List<Pending> rejected = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Pending entry : batch) {
+            try {
+                write(List.of(entry));
+            } catch (RuntimeException e) {
+                rejected.add(entry);
+                failure = e;
+            }
+        }
+        if (rejected.size() == batch.size()) {
+            throw failure;
+        }
+        for (Pending entry : rejected) {
+            LOG.errorf("Événement d'audit %s (%s) refusé par la base, abandonné", entry.event.getId(),
+                    entry.event.getClass().getSimpleName());
+        }
+        droppedEvents.addAndGet(rejected.size());
+    }
+
+    private void completed(List<Pending> batch) {
+        writtenEvents.addAndGet(batch.size());
+        pending.addAndGet(-batch.size());
+        if (wal == null) {
+            return;
+        }
+        walLock.lock();
+        try {
+            wal.commit(batch.get(batch.size() - 1).sequence);
+        } catch (IOException e) {
+            // les événements déjà écrits seront relus au prochain démarrage : doublons possibles, pas de perte
+            LOG.warn("Mise à jour du checkpoint du journal d'audit impossible", e);
+        } finally {
+            walLock.unlock();
+        }
+    }
+
+    private void store(DataAuditContext context, DataEvent<?> event) {
+        if (event instanceof ProcessInstanceDataEvent) {
+            store.storeProcessInstanceDataEvent(context, (ProcessInstanceDataEvent<?>) event);
+        } else if (event instanceof UserTaskInstanceDataEvent) {
+            store.storeUserTaskInstanceDataEvent(context, (UserTaskInstanceDataEvent<?>) event);
+        } else if (event instanceof JobInstanceDataEvent) {
+            store.storeJobDataEvent(context, (JobInstanceDataEvent) event);
+        } else {
+            LOG.debugf("Événement %s ignoré par l'audit", event.getClass().getName());
+        }
+    }
+}
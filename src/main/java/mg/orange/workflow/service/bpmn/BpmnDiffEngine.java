@@ -0,0 +1,384 @@
+package mg.orange.workflow.service.bpmn;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.bpmn.BpmnChange;
+import mg.orange.workflow.model.bpmn.BpmnChange.ElementType;
+import mg.orange.workflow.model.bpmn.BpmnChange.Kind;
+import mg.orange.workflow.model.bpmn.BpmnDiffResult;
+import mg.orange.workflow.model.bpmn.BpmnFlowInfo;
+import mg.orange.workflow.model.bpmn.BpmnNodeInfo;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import mg.orange.workflow.model.bpmn.BpmnVersionMetadata;
+import mg.orange.workflow.model.bpmn.VersionChangeType;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moteur de comparaison structurelle de deux BPMN.
+ * <p>
+ * Les nœuds, flux de séquence, entrées de données et formes du diagramme sont appariés par identifiant BPMN
+ * au moyen de tables de hachage ; les éléments restants sont appariés par signature (type, nom, entrées)
+ * pour détecter les changements d'identifiant. Le coût est linéaire en nombre d'éléments.
+ * Le {@link VersionChangeType} est déduit de la liste typée des changements, et les résultats sont
+ * mémorisés par couple d'empreintes de contenu (source, cible).
+ */
+@ApplicationScoped
+public class BpmnDiffEngine {
+
+    /**
+     * Déplacement minimal (en pixels) considéré comme une modification du diagramme
+     */
+    private static final double LAYOUT_TOLERANCE = 0.5;
+
+    @ConfigProperty(name = "workflow.diff-cache.max-size", defaultValue = "200")
+    long cacheMaxSize;
+
+    @Inject
+    BpmnVersionStore versionStore;
+
+    @Inject
+    BpmnStreamingParser parser;
+
+    private Cache<String, BpmnDiffResult> results;
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder().maximumSize(cacheMaxSize).build();
+    }
+
+    /**
+     * Compare deux versions stockées d'un processus. Si {@code fromVersion} est absent, la version
+     * immédiatement inférieure à {@code toVersion} (ordre {@link SemanticVersion}) est utilisée.
+     *
+     * @throws IllegalArgumentException si une des versions est inconnue
+     */
+    public BpmnDiffResult compareVersions(String processId, String fromVersion, String toVersion) throws IOException {
+        BpmnVersionMetadata to = versionStore.getMetadata(processId, toVersion)
+                .orElseThrow(() -> new IllegalArgumentException("Version inconnue: " + toVersion));
+        BpmnVersionMetadata from = fromVersion != null
+                ? versionStore.getMetadata(processId, fromVersion)
+                        .orElseThrow(() -> new IllegalArgumentException("Version inconnue: " + fromVersion))
+                : previousVersion(processId, toVersion).orElse(null);
+
+        if (from == null) {
+            BpmnDiffResult created = new BpmnDiffResult();
+            created.setToVersion(toVersion);
+            created.setToContentHash(to.getContentHash());
+            created.setChangeType(VersionChangeType.CREATED);
+            return created;
+        }
+
+        String key = cacheKey(from.getContentHash(), to.getContentHash());
+        BpmnDiffResult cached = key != null ? results.getIfPresent(key) : null;
+        if (cached == null) {
+            BpmnParseResult fromModel = parser.parse(versionStore.getContent(processId, from.getVersionSemver()).orElseThrow());
+            BpmnParseResult toModel = parser.parse(versionStore.getContent(processId, to.getVersionSemver()).orElseThrow());
+            cached = diff(fromModel, toModel);
+        }
+        return withVersions(cached, from.getVersionSemver(), toVersion);
+    }
+
+    /**
+     * Compare deux modèles BPMN déjà analysés (mémorisé par couple d'empreintes)
+     */
+    public BpmnDiffResult diff(BpmnParseResult from, BpmnParseResult to) {
+        String key = cacheKey(from.getContentHash(), to.getContentHash());
+        if (key == null) {
+            return computeDiff(from, to);
+        }
+        return results.get(key, k -> computeDiff(from, to));
+    }
+
+    /**
+     * Déduit le type de changement de version d'une liste de changements
+     */
+    public static VersionChangeType classify(List<BpmnChange> changes) {
+        VersionChangeType result = VersionChangeType.PATCH;
+        for (BpmnChange change : changes) {
+            if (change.getImpact() == VersionChangeType.MAJOR) {
+                return VersionChangeType.MAJOR;
+            }
+            if (change.getImpact() == VersionChangeType.MINOR) {
+                result = VersionChangeType.MINOR;
+            }
+        }
+        return result;
+    }
+
+    // ======= CALCUL DU DIFF =======
+
+    private BpmnDiffResult computeDiff(BpmnParseResult from, BpmnParseResult to) {
+        List<BpmnChange> changes = new ArrayList<>();
+
+        if (!Objects.equals(from.getProcessId(), to.getProcessId())) {
+            changes.add(new BpmnChange(ElementType.PROCESS, Kind.MODIFIED, to.getProcessId(),
+                    "Identifiant du processus modifié: " + from.getProcessId() + " -> " + to.getProcessId(),
+                    VersionChangeType.MAJOR));
+        }
+        if (!Objects.equals(from.getProcessName(), to.getProcessName())) {
+            changes.add(new BpmnChange(ElementType.PROCESS, Kind.MODIFIED, to.getProcessId(),
+                    "Nom du processus modifié: " + from.getProcessName() + " -> " + to.getProcessName(),
+                    VersionChangeType.PATCH));
+        }
+
+        // Identifiant source -> identifiant cible des nœuds appariés
+        Map<String, String> nodeMapping = matchNodes(from.getNodes(), to.getNodes(), changes);
+        diffFlows(from.getFlows(), to.getFlows(), nodeMapping, changes);
+        diffDiagram(from.getDiagram(), to.getDiagram(), nodeMapping, changes);
+
+        BpmnDiffResult result = new BpmnDiffResult();
+        result.setFromContentHash(from.getContentHash());
+        result.setToContentHash(to.getContentHash());
+        result.setChanges(Collections.unmodifiableList(changes));
+        result.setChangeType(classify(changes));
+        return result;
+    }
+
+    private Map<String, String> matchNodes(List<BpmnNodeInfo> fromNodes, List<BpmnNodeInfo> toNodes,
+                                           List<BpmnChange> changes) {
+        Map<String, BpmnNodeInfo> toById = new LinkedHashMap<>();
+        toNodes.forEach(n -> toById.put(n.getId(), n));
+
+        Map<String, String> mapping = new HashMap<>();
+        List<BpmnNodeInfo> unmatchedFrom = new ArrayList<>();
+        for (BpmnNodeInfo node : fromNodes) {
+            BpmnNodeInfo target = toById.remove(node.getId());
+            if (target != null) {
+                mapping.put(node.getId(), target.getId());
+                diffNode(node, target, changes);
+            } else {
+                unmatchedFrom.add(node);
+            }
+        }
+
+        // Repli : appariement par signature pour détecter les identifiants modifiés
+        Map<String, Deque<BpmnNodeInfo>> toBySignature = new HashMap<>();
+        for (BpmnNodeInfo node : toById.values()) {
+            toBySignature.computeIfAbsent(signature(node), s -> new ArrayDeque<>()).add(node);
+        }
+        Set<String> matchedTo = new HashSet<>();
+        for (BpmnNodeInfo node : unmatchedFrom) {
+            Deque<BpmnNodeInfo> candidates = toBySignature.get(signature(node));
+            BpmnNodeInfo target = candidates != null ? candidates.poll() : null;
+            if (target != null) {
+                mapping.put(node.getId(), target.getId());
+                matchedTo.add(target.getId());
+                changes.add(new BpmnChange(ElementType.NODE, Kind.ID_CHANGED, target.getId(),
+                        describe(node) + " : identifiant modifié (" + node.getId() + " -> " + target.getId() + ")",
+                        VersionChangeType.MINOR));
+                diffNode(node, target, changes);
+            } else {
+                changes.add(new BpmnChange(ElementType.NODE, Kind.REMOVED, node.getId(),
+                        describe(node) + " supprimé", VersionChangeType.MAJOR));
+            }
+        }
+        for (BpmnNodeInfo node : toById.values()) {
+            if (!matchedTo.contains(node.getId())) {
+                changes.add(new BpmnChange(ElementType.NODE, Kind.ADDED, node.getId(),
+                        describe(node) + " ajouté", VersionChangeType.MINOR));
+            }
+        }
+        return mapping;
+    }
+
+    private void diffNode(BpmnNodeInfo from, BpmnNodeInfo to, List<BpmnChange> changes) {
+        if (!Objects.equals(from.getType(), to.getType())) {
+            changes.add(new BpmnChange(ElementType.NODE, Kind.MODIFIED, to.getId(),
+                    describe(to) + " : type modifié (" + from.getType() + " -> " + to.getType() + ")",
+                    VersionChangeType.MAJOR));
+        }
+        if (!Objects.equals(from.getAttachedToRef(), to.getAttachedToRef())) {
+            changes.add(new BpmnChange(ElementType.NODE, Kind.MODIFIED, to.getId(),
+                    describe(to) + " : rattachement modifié", VersionChangeType.MAJOR));
+        }
+        if (!Objects.equals(from.getName(), to.getName())) {
+            changes.add(new BpmnChange(ElementType.NODE, Kind.MODIFIED, to.getId(),
+                    describe(to) + " : renommé (" + from.getName() + " -> " + to.getName() + ")",
+                    VersionChangeType.PATCH));
+        }
+        if (!Objects.equals(from.getTaskName(), to.getTaskName())) {
+            changes.add(new BpmnChange(ElementType.NODE, Kind.MODIFIED, to.getId(),
+                    describe(to) + " : TaskName modifié", VersionChangeType.MINOR));
+        }
+        if (!new TreeSet<>(from.getGroups()).equals(new TreeSet<>(to.getGroups()))
+                || !new TreeSet<>(from.getActors()).equals(new TreeSet<>(to.getActors()))) {
+            changes.add(new BpmnChange(ElementType.NODE, Kind.MODIFIED, to.getId(),
+                    describe(to) + " : assignations modifiées", VersionChangeType.MINOR));
+        }
+
+        Set<String> fromInputs = new HashSet<>(from.getDataInputs());
+        Set<String> toInputs = new HashSet<>(to.getDataInputs());
+        for (String input : to.getDataInputs()) {
+            if (!fromInputs.contains(input)) {
+                changes.add(new BpmnChange(ElementType.DATA_INPUT, Kind.ADDED, to.getId() + "#" + input,
+                        describe(to) + " : entrée '" + input + "' ajoutée", VersionChangeType.MINOR));
+            }
+        }
+        for (String input : from.getDataInputs()) {
+            if (!toInputs.contains(input)) {
+                changes.add(new BpmnChange(ElementType.DATA_INPUT, Kind.REMOVED, to.getId() + "#" + input,
+                        describe(to) + " : entrée '" + input + "' supprimée", VersionChangeType.MAJOR));
+            }
+        }
+    }
+
+    private void diffFlows(List<BpmnFlowInfo> fromFlows, List<BpmnFlowInfo> toFlows,
+                           Map<String, String> nodeMapping, List<BpmnChange> changes) {
+        Map<String, BpmnFlowInfo> toById = new LinkedHashMap<>();
+        toFlows.forEach(f -> toById.put(f.getId(), f));
+
+        List<BpmnFlowInfo> unmatchedFrom = new ArrayList<>();
+        for (BpmnFlowInfo flow : fromFlows) {
+            BpmnFlowInfo target = toById.remove(flow.getId());
+            if (target == null) {
+                unmatchedFrom.add(flow);
+                continue;
+            }
+            if (!Objects.equals(mapped(nodeMapping, flow.getSourceRef()), target.getSourceRef())
+                    || !Objects.equals(mapped(nodeMapping, flow.getTargetRef()), target.getTargetRef())) {
+                changes.add(new BpmnChange(ElementType.SEQUENCE_FLOW, Kind.MODIFIED, target.getId(),
+                        "Flux " + target.getId() + " reconnecté (" + target.getSourceRef() + " -> " + target.getTargetRef() + ")",
+                        VersionChangeType.MAJOR));
+            } else if (!Objects.equals(flow.getName(), target.getName())) {
+                changes.add(new BpmnChange(ElementType.SEQUENCE_FLOW, Kind.MODIFIED, target.getId(),
+                        "Flux " + target.getId() + " renommé", VersionChangeType.PATCH));
+            }
+        }
+
+        // Repli : appariement par extrémités (après correspondance des nœuds)
+        Map<String, Deque<BpmnFlowInfo>> toByEnds = new HashMap<>();
+        for (BpmnFlowInfo flow : toById.values()) {
+            toByEnds.computeIfAbsent(flow.getSourceRef() + "->" + flow.getTargetRef(), k -> new ArrayDeque<>()).add(flow);
+        }
+        Set<String> matchedTo = new HashSet<>();
+        for (BpmnFlowInfo flow : unmatchedFrom) {
+            String ends = mapped(nodeMapping, flow.getSourceRef()) + "->" + mapped(nodeMapping, flow.getTargetRef());
+            Deque<BpmnFlowInfo> candidates = toByEnds.get(ends);
+            BpmnFlowInfo target = candidates != null ? candidates.poll() : null;
+            if (target != null) {
+                matchedTo.add(target.getId());
+                changes.add(new BpmnChange(ElementType.SEQUENCE_FLOW, Kind.ID_CHANGED, target.getId(),
+                        "Flux " + flow.getId() + " : identifiant modifié (" + target.getId() + ")", VersionChangeType.PATCH));
+            } else {
+                changes.add(new BpmnChange(ElementType.SEQUENCE_FLOW, Kind.REMOVED, flow.getId(),
+                        "Flux " + flow.getSourceRef() + " -> " + flow.getTargetRef() + " supprimé", VersionChangeType.MAJOR));
+            }
+        }
+        for (BpmnFlowInfo flow : toById.values()) {
+            if (!matchedTo.contains(flow.getId())) {
+                changes.add(new BpmnChange(ElementType.SEQUENCE_FLOW, Kind.ADDED, flow.getId(),
+                        "Flux " + flow.getSourceRef() + " -> " + flow.getTargetRef() + " ajouté", VersionChangeType.MINOR));
+            }
+        }
+    }
+
+    private void diffDiagram(DiagramInfoDTO from, DiagramInfoDTO to, Map<String, String> nodeMapping,
+                             List<BpmnChange> changes) {
+        if (from == null || to == null || from.getShapes() == null || to.getShapes() == null) {
+            return;
+        }
+        for (Map.Entry<String, DiagramInfoDTO.ShapeInfo> entry : from.getShapes().entrySet()) {
+            DiagramInfoDTO.ShapeInfo target = to.getShapes().get(mapped(nodeMapping, entry.getKey()));
+            DiagramInfoDTO.ShapeInfo source = entry.getValue();
+            if (target != null && (moved(source.getX(), target.getX()) || moved(source.getY(), target.getY())
+                    || moved(source.getWidth(), target.getWidth()) || moved(source.getHeight(), target.getHeight()))) {
+                changes.add(new BpmnChange(ElementType.SHAPE, Kind.MODIFIED, target.getElementId(),
+                        "Forme " + target.getElementId() + " déplacée ou redimensionnée", VersionChangeType.PATCH));
+            }
+        }
+        if (from.getEdges() == null || to.getEdges() == null) {
+            return;
+        }
+        for (Map.Entry<String, DiagramInfoDTO.EdgeInfo> entry : from.getEdges().entrySet()) {
+            DiagramInfoDTO.EdgeInfo target = to.getEdges().get(entry.getKey());
+            if (target != null && !sameWaypoints(entry.getValue().getWaypoints(), target.getWaypoints())) {
+                changes.add(new BpmnChange(ElementType.EDGE, Kind.MODIFIED, target.getElementId(),
+                        "Tracé de la connexion " + target.getElementId() + " modifié", VersionChangeType.PATCH));
+            }
+        }
+    }
+
+    // ======= UTILITAIRES =======
+
+    /**
+     * Plus haute version strictement inférieure à {@code versionSemver}, quel que soit l'ordre de création
+     */
+    private Optional<BpmnVersionMetadata> previousVersion(String processId, String versionSemver) {
+        int count = versionStore.countVersions(processId);
+        return versionStore.getHistory(processId, 0, count).stream()
+                .filter(version -> SemanticVersion.ORDER.compare(version.getVersionSemver(), versionSemver) < 0)
+                .max(Comparator.comparing(BpmnVersionMetadata::getVersionSemver, SemanticVersion.ORDER));
+    }
+
+    private static BpmnDiffResult withVersions(BpmnDiffResult cached, String fromVersion, String toVersion) {
+        BpmnDiffResult result = new BpmnDiffResult();
+        result.setFromVersion(fromVersion);
+        result.setToVersion(toVersion);
+        result.setFromContentHash(cached.getFromContentHash());
+        result.setToContentHash(cached.getToContentHash());
+        result.setChanges(cached.getChanges());
+        result.setChangeType(cached.getChangeType());
+        return result;
+    }
+
+    private static String signature(BpmnNodeInfo node) {
+        return node.getType() + "|" + node.getName() + "|" + node.getTaskName() + "|" + new TreeSet<>(node.getDataInputs());
+    }
+
+    private static String describe(BpmnNodeInfo node) {
+        return node.getType() + " '" + (node.getName() != null ? node.getName() : node.getId()) + "'";
+    }
+
+    private static String mapped(Map<String, String> mapping, String id) {
+        return mapping.getOrDefault(id, id);
+    }
+
+    private static boolean moved(double a, double b) {
+        return Math.abs(a - b) > LAYOUT_TOLERANCE;
+    }
+
+    private static boolean sameWaypoints(List<DiagramInfoDTO.EdgeInfo.Waypoint> a, List<DiagramInfoDTO.EdgeInfo.Waypoint> b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (moved(a.get(i).getX(), b.get(i).getX()) || moved(a.get(i).getY(), b.get(i).getY())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return null si une des empreintes manque : le diff n'est alors pas mémorisé
+     */
+    private static String cacheKey(String fromHash, String toHash) {
+        if (fromHash == null || toHash == null) {
+            return null;
+        }
+        return fromHash + ":" + toHash;
+    }
+}
@@ -0,0 +1,22 @@
+package mg.orange.workflow.service.bpmn;
+
+import java.io.IOException;
+
+/**
+ * Levée lorsque le flux BPMN lu dépasse la taille maximale autorisée
+ */
+public class BpmnSizeLimitExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxSizeBytes;
+
+    public BpmnSizeLimitExceededException(long maxSizeBytes) {
+        super("Le fichier BPMN dépasse la taille maximale autorisée (" + maxSizeBytes + " octets)");
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+}
@@ -0,0 +1,526 @@
+package mg.orange.workflow.service.bpmn;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.bpmn.BpmnFlowInfo;
+import mg.orange.workflow.model.bpmn.BpmnNodeInfo;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import mg.orange.workflow.service.metrics.WorkflowMetrics;
+import mg.orange.workflow.service.metrics.WorkflowMetrics.Stage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Analyseur BPMN en flux (StAX) : une seule lecture du fichier produit la validation,
+ * la liste des nœuds/tâches, le {@link DiagramInfoDTO} et l'empreinte SHA-256 du contenu.
+ * La mémoire utilisée ne dépend que du nombre d'éléments extraits, jamais de la taille brute du XML.
+ */
+@ApplicationScoped
+public class BpmnStreamingParser {
+
+    private static final Logger LOG = Logger.getLogger(BpmnStreamingParser.class);
+
+    private static final Set<String> NODE_TYPES = new HashSet<>(Arrays.asList(
+            "startEvent", "endEvent", "intermediateCatchEvent", "intermediateThrowEvent", "boundaryEvent",
+            "task", "userTask", "scriptTask", "serviceTask", "businessRuleTask", "manualTask",
+            "sendTask", "receiveTask", "callActivity", "subProcess", "adHocSubProcess",
+            "exclusiveGateway", "parallelGateway", "inclusiveGateway", "eventBasedGateway", "complexGateway"
+    ));
+
+    private final XMLInputFactory xmlInputFactory;
+
+    @ConfigProperty(name = "workflow.bpmn.max-size-bytes", defaultValue = "10485760")
+    long maxSizeBytes;
+
+    @Inject
+    WorkflowMetrics metrics;
+
+    public BpmnStreamingParser() {
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        // Protection XXE : pas de DTD ni d'entités externes
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Analyse un flux BPMN (ex: fichier multipart) en une seule passe
+     */
+    public BpmnParseResult parse(InputStream input) throws IOException {
+        return parse(input, null);
+    }
+
+    /**
+     * Analyse un flux BPMN en une seule passe en recopiant les octets lus dans {@code sink}
+     * (fichier de destination de l'upload par exemple), sans jamais charger le document en mémoire.
+     *
+     * @throws BpmnSizeLimitExceededException si le flux dépasse {@code workflow.bpmn.max-size-bytes}
+     */
+    public BpmnParseResult parse(InputStream input, OutputStream sink) throws IOException {
+        return parse(input, sink, BpmnValidationRules::validate);
+    }
+
+    /**
+     * Analyse en déléguant l'application des règles par élément à {@code rules}
+     * (appelé uniquement si le document contient un processus)
+     */
+    BpmnParseResult parse(InputStream input, OutputStream sink, Consumer<BpmnParseResult> rules) throws IOException {
+        if (input == null) {
+            throw new IllegalArgumentException("Le flux BPMN ne peut pas être null");
+        }
+        long start = System.nanoTime();
+        IngestionInputStream stream = new IngestionInputStream(input, sink, maxSizeBytes);
+        ParseState state = new ParseState();
+
+        XMLStreamReader reader = null;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(stream);
+            readDocument(reader, state);
+        } catch (XMLStreamException e) {
+            if (e.getNestedException() instanceof BpmnSizeLimitExceededException) {
+                throw (BpmnSizeLimitExceededException) e.getNestedException();
+            }
+            state.result.getErrors().add("XML mal formé: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+
+        // Lecture du reliquat éventuel pour que l'empreinte couvre tout le contenu
+        stream.drain();
+
+        BpmnParseResult result = state.result;
+        result.setContentHash(stream.hexDigest());
+        result.setSizeBytes(stream.count);
+        result.setNodes(new ArrayList<>(state.nodes.values()));
+        result.setFlows(new ArrayList<>(state.flows.values()));
+        // Les durées sont mesurées étape par étape ; leur issue n'est connue qu'après la validation
+        long parseNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        result.setDiagram(buildDiagram(state));
+        long diagramNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        validate(state, rules);
+        long validateNanos = System.nanoTime() - start;
+        record(Stage.PARSE, result, parseNanos);
+        record(Stage.DIAGRAM, result, diagramNanos);
+        record(Stage.VALIDATE, result, validateNanos);
+
+        LOG.debugf("BPMN analysé: processId=%s, %d octets, %d nœuds, %d erreurs",
+                result.getProcessId(), result.getSizeBytes(), result.getNodes().size(), result.getErrors().size());
+        return result;
+    }
+
+    /**
+     * Analyse un BPMN déjà présent en mémoire (corps JSON de createNewVersion)
+     */
+    public BpmnParseResult parse(String bpmnXml) throws IOException {
+        if (bpmnXml == null) {
+            throw new IllegalArgumentException("Le contenu BPMN ne peut pas être null");
+        }
+        return parse(new ByteArrayInputStream(bpmnXml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    /**
+     * Enregistre la durée de l'étape, si les métriques sont disponibles
+     */
+    private void record(Stage stage, BpmnParseResult result, long elapsedNanos) {
+        if (metrics != null) {
+            metrics.recordStageDuration(stage, result.getProcessId(), elapsedNanos, result.getErrors().isEmpty());
+        }
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    // ======= LECTURE STAX =======
+
+    private void readDocument(XMLStreamReader reader, ParseState state) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                startElement(reader, state);
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (state.text != null) {
+                    state.text.append(reader.getText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                endElement(reader.getLocalName(), state);
+            }
+        }
+    }
+
+    private void startElement(XMLStreamReader reader, ParseState state) {
+        String localName = reader.getLocalName();
+        String id = attribute(reader, "id");
+        if (id != null && !"definitions".equals(localName) && !state.ids.add(id)) {
+            state.result.getErrors().add("Identifiant dupliqué: " + id);
+        }
+        if (id != null && !state.inDiagram) {
+            state.result.getElementIds().add(id);
+        }
+
+        switch (localName) {
+            case "process":
+                state.processCount++;
+                if (state.processCount == 1) {
+                    state.result.setProcessId(id);
+                    state.result.setProcessName(attribute(reader, "name"));
+                    state.result.setProcessVersion(attribute(reader, "version"));
+                    state.result.setPackageName(attribute(reader, "packageName"));
+                }
+                return;
+            case "sequenceFlow":
+                state.flows.put(id, new BpmnFlowInfo(id, attribute(reader, "name"),
+                        attribute(reader, "sourceRef"), attribute(reader, "targetRef")));
+                return;
+            case "BPMNDiagram":
+                state.inDiagram = true;
+                return;
+            case "BPMNShape":
+                state.currentShapeElement = attribute(reader, "bpmnElement");
+                return;
+            case "BPMNLabel":
+                state.inLabel = true;
+                return;
+            case "Bounds":
+                // les Bounds d'un BPMNLabel placent le libellé, pas la forme
+                if (state.currentShapeElement != null && !state.inLabel) {
+                    state.shapes.put(state.currentShapeElement, new DiagramInfoDTO.ShapeInfo(
+                            state.currentShapeElement,
+                            doubleAttribute(reader, "x"), doubleAttribute(reader, "y"),
+                            doubleAttribute(reader, "width"), doubleAttribute(reader, "height")));
+                }
+                return;
+            case "BPMNEdge":
+                DiagramInfoDTO.EdgeInfo edge = new DiagramInfoDTO.EdgeInfo();
+                edge.setElementId(attribute(reader, "bpmnElement"));
+                edge.setWaypoints(new ArrayList<>());
+                state.currentEdge = edge;
+                state.edges.put(edge.getElementId(), edge);
+                return;
+            case "waypoint":
+                if (state.currentEdge != null) {
+                    state.currentEdge.getWaypoints().add(new DiagramInfoDTO.EdgeInfo.Waypoint(
+                            doubleAttribute(reader, "x"), doubleAttribute(reader, "y")));
+                }
+                return;
+            default:
+                break;
+        }
+
+        if (NODE_TYPES.contains(localName) && state.processCount > 0) {
+            BpmnNodeInfo node = new BpmnNodeInfo(id, attribute(reader, "name"), localName);
+            node.setAttachedToRef(attribute(reader, "attachedToRef"));
+            state.nodes.put(id, node);
+            state.nodeStack.push(node);
+            return;
+        }
+
+        BpmnNodeInfo node = state.nodeStack.peek();
+        if (node == null) {
+            return;
+        }
+        switch (localName) {
+            case "dataInput":
+                String inputName = attribute(reader, "name");
+                if (inputName != null) {
+                    node.getDataInputs().add(inputName);
+                    state.dataInputNames.put(id, inputName);
+                }
+                break;
+            case "from":
+            case "to":
+            case "formalExpression":
+            case "incoming":
+            case "outgoing":
+                state.text = new StringBuilder();
+                break;
+            case "potentialOwner":
+                state.inPotentialOwner = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void endElement(String localName, ParseState state) {
+        switch (localName) {
+            case "BPMNDiagram":
+                state.inDiagram = false;
+                return;
+            case "BPMNShape":
+                state.currentShapeElement = null;
+                return;
+            case "BPMNLabel":
+                state.inLabel = false;
+                return;
+            case "BPMNEdge":
+                state.currentEdge = null;
+                return;
+            default:
+                break;
+        }
+
+        BpmnNodeInfo node = state.nodeStack.peek();
+        if (node == null) {
+            return;
+        }
+        if (NODE_TYPES.contains(localName)) {
+            state.nodeStack.pop();
+            return;
+        }
+        String text = state.text != null ? state.text.toString().trim() : null;
+        switch (localName) {
+            case "from":
+                state.assignmentFrom = text;
+                break;
+            case "to":
+                applyAssignment(node, state.dataInputNames.get(text), state.assignmentFrom);
+                state.assignmentFrom = null;
+                break;
+            case "formalExpression":
+                if (state.inPotentialOwner && text != null && !text.isEmpty()) {
+                    node.getActors().add(text);
+                }
+                break;
+            case "incoming":
+                node.getIncoming().add(text);
+                break;
+            case "outgoing":
+                node.getOutgoing().add(text);
+                break;
+            case "potentialOwner":
+                state.inPotentialOwner = false;
+                break;
+            default:
+                break;
+        }
+        state.text = null;
+    }
+
+    private void applyAssignment(BpmnNodeInfo node, String inputName, String value) {
+        if (inputName == null || value == null || value.isEmpty()) {
+            return;
+        }
+        switch (inputName) {
+            case "TaskName":
+                node.setTaskName(value);
+                break;
+            case "GroupId":
+                splitInto(value, node.getGroups());
+                break;
+            case "ActorId":
+                splitInto(value, node.getActors());
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ======= CONSTRUCTION DU RÉSULTAT =======
+
+    private DiagramInfoDTO buildDiagram(ParseState state) {
+        for (DiagramInfoDTO.EdgeInfo edge : state.edges.values()) {
+            BpmnFlowInfo flow = state.flows.get(edge.getElementId());
+            if (flow != null) {
+                edge.setSourceId(flow.getSourceRef());
+                edge.setTargetId(flow.getTargetRef());
+            }
+        }
+        DiagramInfoDTO diagram = new DiagramInfoDTO();
+        diagram.setShapes(state.shapes);
+        diagram.setEdges(state.edges);
+        return diagram;
+    }
+
+    private void validate(ParseState state, Consumer<BpmnParseResult> rules) {
+        BpmnParseResult result = state.result;
+        if (!result.getErrors().isEmpty() && state.processCount == 0) {
+            // Document illisible : inutile d'ajouter des erreurs structurelles
+            return;
+        }
+        if (state.processCount == 0) {
+            result.getErrors().add("Aucun élément <process> trouvé dans le fichier BPMN");
+            return;
+        }
+        if (state.processCount > 1) {
+            result.getWarnings().add("Plusieurs processus déclarés, seul le premier est pris en compte");
+        }
+        if (result.getProcessId() == null || result.getProcessId().isBlank()) {
+            result.getErrors().add("Le processus n'a pas d'identifiant");
+        }
+
+        rules.accept(result);
+    }
+
+    // ======= UTILITAIRES =======
+
+    private static String attribute(XMLStreamReader reader, String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (localName.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static double doubleAttribute(XMLStreamReader reader, String localName) {
+        String value = attribute(reader, localName);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void splitInto(String value, List<String> target) {
+        for (String part : value.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty() && !target.contains(trimmed)) {
+                target.add(trimmed);
+            }
+        }
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                LOG.debug("Erreur lors de la fermeture du lecteur StAX", e);
+            }
+        }
+    }
+
+    /**
+     * État mutable d'une analyse (une instance par appel à parse)
+     */
+    private static final class ParseState {
+        final BpmnParseResult result = new BpmnParseResult();
+        final Map<String, BpmnNodeInfo> nodes = new LinkedHashMap<>();
+        final Map<String, BpmnFlowInfo> flows = new LinkedHashMap<>();
+        final Map<String, DiagramInfoDTO.ShapeInfo> shapes = new LinkedHashMap<>();
+        final Map<String, DiagramInfoDTO.EdgeInfo> edges = new LinkedHashMap<>();
+        final Map<String, String> dataInputNames = new HashMap<>();
+        final Set<String> ids = new HashSet<>();
+        final Deque<BpmnNodeInfo> nodeStack = new ArrayDeque<>();
+        int processCount;
+        boolean inDiagram;
+        String currentShapeElement;
+        boolean inLabel;
+        DiagramInfoDTO.EdgeInfo currentEdge;
+        StringBuilder text;
+        String assignmentFrom;
+        boolean inPotentialOwner;
+    }
+
+    /**
+     * Flux d'entrée qui calcule l'empreinte SHA-256, compte les octets, applique la limite de taille
+     * et recopie éventuellement le contenu lu vers un flux de sortie
+     */
+    private static final class IngestionInputStream extends FilterInputStream {
+        private final OutputStream sink;
+        private final long limit;
+        private final MessageDigest digest;
+        private long count;
+
+        IngestionInputStream(InputStream in, OutputStream sink, long limit) {
+            super(in);
+            this.sink = sink;
+            this.limit = limit;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponible", e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                consumed(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Les octets sautés doivent aussi être hachés et recopiés
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // Le flux appartient à l'appelant : le lecteur StAX ne doit pas le fermer avant drain()
+        }
+
+        private void consumed(byte[] buffer, int offset, int length) throws IOException {
+            count += length;
+            if (limit > 0 && count > limit) {
+                throw new BpmnSizeLimitExceededException(limit);
+            }
+            digest.update(buffer, offset, length);
+            if (sink != null) {
+                sink.write(buffer, offset, length);
+            }
+        }
+
+        void drain() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // lecture jusqu'à la fin du flux
+            }
+        }
+
+        String hexDigest() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package mg.orange.workflow.service.bpmn;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import mg.orange.workflow.model.bpmn.BpmnRevalidationSummary;
+import mg.orange.workflow.model.bpmn.BpmnValidationReport;
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.service.bpmn.BpmnValidationRules.Context;
+import mg.orange.workflow.service.bpmn.BpmnValidationRules.Findings;
+import mg.orange.workflow.service.process.ProcessStatusWriter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moteur de validation parallèle des fichiers BPMN.
+ * <p>
+ * Les fichiers sont validés sur un {@link ForkJoinPool} dédié (une tâche par fichier) et, dans un fichier,
+ * les règles de {@link BpmnValidationRules} sont appliquées par lots d'éléments indépendants.
+ * Les résultats sont mémorisés par empreinte SHA-256 du contenu : un fichier dont la taille et la date
+ * de modification n'ont pas changé n'est pas relu, un fichier modifié mais de contenu identique
+ * n'est pas réanalysé. La revalidation complète écrit les statuts VALIDE/INVALIDE en une seule fois à la fin.
+ */
+@ApplicationScoped
+public class BpmnValidationEngine {
+
+    private static final Logger LOG = Logger.getLogger(BpmnValidationEngine.class);
+
+    /**
+     * Nombre d'éléments en dessous duquel un lot de règles n'est plus découpé
+     */
+    private static final int ELEMENT_BATCH_SIZE = 128;
+
+    /**
+     * Parallélisme du pool de validation (0 : nombre de processeurs)
+     */
+    @ConfigProperty(name = "workflow.validation.parallelism", defaultValue = "0")
+    int parallelism;
+
+    @ConfigProperty(name = "workflow.validation.cache-size", defaultValue = "2000")
+    long cacheSize;
+
+    /**
+     * Répertoire de déploiement contenant les fichiers BPMN connus (les sources du projet en mode dev)
+     */
+    @ConfigProperty(name = "workflow.bpmn.directory", defaultValue = "/deployments/bpmn")
+    String bpmnDirectory;
+
+    @Inject
+    BpmnStreamingParser parser;
+
+    @Inject
+    Instance<ProcessStatusWriter> statusWriters;
+
+    @Inject
+    Event<ProcessLifecycleEvent> lifecycleEvents;
+
+    private ForkJoinPool pool;
+    private Cache<String, CachedValidation> results;
+    private final ConcurrentMap<Path, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        results = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Valide un contenu BPMN transmis directement (validate-file) et mémorise le résultat
+     */
+    public BpmnValidationReport validate(InputStream input, String fileName) throws IOException {
+        long start = System.nanoTime();
+        BpmnParseResult result = parser.parse(input, null, this::applyRules);
+        CachedValidation validation = CachedValidation.of(result);
+        results.put(result.getContentHash(), validation);
+        return validation.toReport(fileName, result.getContentHash(), false, start);
+    }
+
+    /**
+     * Valide un fichier BPMN en réutilisant le résultat mémorisé si son contenu n'a pas changé
+     *
+     * @param force ignorer le cache (ex: après une montée de version de Kogito)
+     */
+    public BpmnValidationReport validateFile(Path file, boolean force) {
+        long start = System.nanoTime();
+        String fileName = file.getFileName().toString();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!force) {
+                Fingerprint fingerprint = fingerprints.get(file);
+                String hash = fingerprint != null && fingerprint.matches(attributes) ? fingerprint.contentHash : sha256(file);
+                CachedValidation cached = results.getIfPresent(hash);
+                if (cached != null) {
+                    fingerprints.put(file, new Fingerprint(attributes, hash));
+                    return cached.toReport(fileName, hash, true, start);
+                }
+            }
+
+            BpmnParseResult result;
+            try (InputStream input = Files.newInputStream(file)) {
+                result = parser.parse(input, null, this::applyRules);
+            }
+            CachedValidation validation = CachedValidation.of(result);
+            results.put(result.getContentHash(), validation);
+            fingerprints.put(file, new Fingerprint(attributes, result.getContentHash()));
+            return validation.toReport(fileName, result.getContentHash(), false, start);
+        } catch (IOException e) {
+            LOG.warnf("Lecture impossible du fichier BPMN %s: %s", file, e.getMessage());
+            fingerprints.remove(file);
+            BpmnValidationReport report = new BpmnValidationReport();
+            report.setFileName(fileName);
+            report.setValid(false);
+            report.getErrors().add("Lecture impossible: " + e.getMessage());
+            report.setDurationMs(elapsedMillis(start));
+            return report;
+        }
+    }
+
+    /**
+     * Revalide en parallèle tous les fichiers BPMN du répertoire configuré, puis écrit en une seule fois
+     * les statuts VALIDE/INVALIDE qui en résultent
+     *
+     * @param force ignorer le cache des résultats
+     */
+    public BpmnRevalidationSummary revalidateAll(boolean force) throws IOException {
+        long start = System.nanoTime();
+        List<Path> files = listBpmnFiles();
+
+        List<BpmnValidationReport> reports = pool.invoke(new RecursiveTask<List<BpmnValidationReport>>() {
+            @Override
+            protected List<BpmnValidationReport> compute() {
+                List<RecursiveTask<BpmnValidationReport>> tasks = new ArrayList<>(files.size());
+                for (Path file : files) {
+                    tasks.add(new RecursiveTask<>() {
+                        @Override
+                        protected BpmnValidationReport compute() {
+                            return validateFile(file, force);
+                        }
+                    });
+                }
+                invokeAll(tasks);
+                return tasks.stream().map(ForkJoinTask::join).collect(Collectors.toList());
+            }
+        });
+        fingerprints.keySet().retainAll(new HashSet<>(files));
+
+        BpmnRevalidationSummary summary = new BpmnRevalidationSummary();
+        summary.setTotal(reports.size());
+        summary.setReports(reports);
+        Map<String, DeploymentStatus> statuses = new LinkedHashMap<>();
+        for (BpmnValidationReport report : reports) {
+            if (report.isValid()) {
+                summary.setValid(summary.getValid() + 1);
+            } else {
+                summary.setInvalid(summary.getInvalid() + 1);
+            }
+            if (report.isCached()) {
+                summary.setCached(summary.getCached() + 1);
+            }
+            if (report.getProcessId() != null) {
+                // Deux fichiers pour un même processus : l'invalidité l'emporte
+                statuses.merge(report.getProcessId(),
+                        report.isValid() ? DeploymentStatus.VALIDE : DeploymentStatus.INVALIDE,
+                        (a, b) -> a == DeploymentStatus.INVALIDE ? a : b);
+            }
+        }
+        summary.setStatusChanges(writeStatuses(statuses));
+        summary.setDurationMs(elapsedMillis(start));
+
+        LOG.infof("Revalidation de %d fichiers BPMN: %d valides, %d invalides, %d depuis le cache, %d statuts modifiés (%d ms)",
+                summary.getTotal(), summary.getValid(), summary.getInvalid(), summary.getCached(),
+                summary.getStatusChanges(), summary.getDurationMs());
+        return summary;
+    }
+
+    private List<Path> listBpmnFiles() throws IOException {
+        Path directory = Paths.get(bpmnDirectory);
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Répertoire BPMN introuvable: " + directory.toAbsolutePath());
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.endsWith(".bpmn") || name.endsWith(".bpmn2");
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private int writeStatuses(Map<String, DeploymentStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        if (!statusWriters.isResolvable()) {
+            LOG.warn("Aucun ProcessStatusWriter disponible : les statuts ne sont pas mis à jour");
+            return 0;
+        }
+        Map<String, DeploymentStatus> previous;
+        try {
+            previous = statusWriters.get().writeStatuses(statuses);
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec de l'écriture groupée des statuts de validation", e);
+        }
+        previous.forEach((processId, previousStatus) -> lifecycleEvents.fire(ProcessLifecycleEvent.statusChanged(
+                ProcessLifecycleEvent.Type.VALIDATED, processId, previousStatus, statuses.get(processId))));
+        return previous.size();
+    }
+
+    // ======= RÈGLES PAR ÉLÉMENT =======
+
+    /**
+     * Applique les règles de validation par lots d'éléments sur le pool de validation
+     */
+    private void applyRules(BpmnParseResult result) {
+        RulesTask task = new RulesTask(result);
+        if (ForkJoinTask.getPool() == pool) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Application de toutes les règles à un processus ; les résultats sont fusionnés dans l'ordre
+     * de {@link BpmnValidationRules#validate(BpmnParseResult)}
+     */
+    private static final class RulesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BpmnParseResult result;
+
+        RulesTask(BpmnParseResult result) {
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            Context context = BpmnValidationRules.context(result);
+            ElementBatch<?> nodes = new ElementBatch<>(result.getNodes(),
+                    (node, findings) -> BpmnValidationRules.checkNode(node, context, findings));
+            ElementBatch<?> flows = new ElementBatch<>(result.getFlows(),
+                    (flow, findings) -> BpmnValidationRules.checkFlow(flow, context, findings));
+            ElementBatch<?> shapes = new ElementBatch<>(BpmnValidationRules.shapeIds(result),
+                    (elementId, findings) -> BpmnValidationRules.checkShape(elementId, context, findings));
+            invokeAll(nodes, flows, shapes);
+
+            Findings process = new Findings();
+            BpmnValidationRules.checkProcess(context, process);
+            nodes.join().merge(process).merge(flows.join()).merge(shapes.join()).applyTo(result);
+        }
+    }
+
+    /**
+     * Lot d'éléments contrôlés par une même règle, découpé en deux tant qu'il dépasse {@link #ELEMENT_BATCH_SIZE}
+     */
+    private static final class ElementBatch<T> extends RecursiveTask<Findings> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> elements;
+        private final BiConsumer<T, Findings> rule;
+        private final int from;
+        private final int to;
+
+        ElementBatch(List<T> elements, BiConsumer<T, Findings> rule) {
+            this(elements, rule, 0, elements.size());
+        }
+
+        private ElementBatch(List<T> elements, BiConsumer<T, Findings> rule, int from, int to) {
+            this.elements = elements;
+            this.rule = rule;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Findings compute() {
+            if (to - from <= ELEMENT_BATCH_SIZE) {
+                Findings findings = new Findings();
+                for (int i = from; i < to; i++) {
+                    rule.accept(elements.get(i), findings);
+                }
+                return findings;
+            }
+            int middle = (from + to) >>> 1;
+            ElementBatch<T> left = new ElementBatch<>(elements, rule, from, middle);
+            left.fork();
+            Findings right = new ElementBatch<>(elements, rule, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // ======= UTILITAIRES =======
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Taille et date de modification d'un fichier lors de sa dernière validation
+     */
+    private static final class Fingerprint {
+        final long size;
+        final long lastModified;
+        final String contentHash;
+
+        Fingerprint(BasicFileAttributes attributes, String contentHash) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.contentHash = contentHash;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    /**
+     * Résultat de validation mémorisé pour un contenu
+     */
+    private static final class CachedValidation {
+        final String processId;
+        final List<String> errors;
+        final List<String> warnings;
+
+        private CachedValidation(String processId, List<String> errors, List<String> warnings) {
+            this.processId = processId;
+            this.errors = errors;
+            this.warnings = warnings;
+        }
+
+        static CachedValidation of(BpmnParseResult result) {
+            return new CachedValidation(result.getProcessId(), List.copyOf(result.getErrors()),
+                    List.copyOf(result.getWarnings()));
+        }
+
+        BpmnValidationReport toReport(String fileName, String contentHash, boolean cached, long startNanos) {
+            BpmnValidationReport report = new BpmnValidationReport();
+            report.setFileName(fileName);
+            report.setProcessId(processId);
+            report.setContentHash(contentHash);
+            report.setValid(errors.isEmpty());
+            report.setErrors(new ArrayList<>(errors));
+            report.setWarnings(new ArrayList<>(warnings));
+            report.setCached(cached);
+            report.setDurationMs(elapsedMillis(startNanos));
+            return report;
+        }
+    }
+}
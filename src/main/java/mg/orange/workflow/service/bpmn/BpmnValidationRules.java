@@ -0,0 +1,135 @@
+package mg.orange.workflow.service.bpmn;
+
+import mg.orange.workflow.model.bpmn.BpmnFlowInfo;
+import mg.orange.workflow.model.bpmn.BpmnNodeInfo;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Règles de validation structurelle d'un BPMN analysé.
+ * <p>
+ * Chaque règle ne lit que l'élément contrôlé et l'index (immuable) des identifiants du processus :
+ * les éléments peuvent donc être contrôlés indépendamment, séquentiellement par
+ * {@link BpmnStreamingParser} ou par lots en parallèle par {@link BpmnValidationEngine}.
+ */
+public final class BpmnValidationRules {
+
+    private BpmnValidationRules() {
+    }
+
+    /**
+     * Index des éléments du processus partagé par toutes les règles
+     */
+    public static final class Context {
+        final Map<String, BpmnNodeInfo> nodes;
+        final Set<String> elementIds;
+
+        Context(BpmnParseResult result) {
+            this.nodes = new HashMap<>();
+            this.elementIds = new HashSet<>(result.getElementIds());
+            result.getNodes().forEach(node -> nodes.put(node.getId(), node));
+            result.getFlows().forEach(flow -> elementIds.add(flow.getId()));
+        }
+    }
+
+    /**
+     * Erreurs et avertissements produits par un lot de règles, fusionnés dans l'ordre des éléments
+     */
+    public static final class Findings {
+        final List<String> errors = new ArrayList<>();
+        final List<String> warnings = new ArrayList<>();
+
+        Findings merge(Findings other) {
+            errors.addAll(other.errors);
+            warnings.addAll(other.warnings);
+            return this;
+        }
+
+        void applyTo(BpmnParseResult result) {
+            result.getErrors().addAll(errors);
+            result.getWarnings().addAll(warnings);
+        }
+    }
+
+    /**
+     * Construit l'index utilisé par les règles
+     */
+    public static Context context(BpmnParseResult result) {
+        return new Context(result);
+    }
+
+    /**
+     * Applique séquentiellement toutes les règles et ajoute leurs résultats à {@code result}
+     */
+    public static void validate(BpmnParseResult result) {
+        Context context = context(result);
+        Findings findings = new Findings();
+        result.getNodes().forEach(node -> checkNode(node, context, findings));
+        checkProcess(context, findings);
+        result.getFlows().forEach(flow -> checkFlow(flow, context, findings));
+        shapeIds(result).forEach(elementId -> checkShape(elementId, context, findings));
+        findings.applyTo(result);
+    }
+
+    /**
+     * Identifiants des éléments référencés par les formes du diagramme
+     */
+    static List<String> shapeIds(BpmnParseResult result) {
+        if (result.getDiagram() == null || result.getDiagram().getShapes() == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(result.getDiagram().getShapes().keySet());
+    }
+
+    // ======= RÈGLES PAR ÉLÉMENT =======
+
+    static void checkNode(BpmnNodeInfo node, Context context, Findings findings) {
+        if ("userTask".equals(node.getType()) && node.getTaskName() == null) {
+            findings.warnings.add("La tâche utilisateur " + node.getId() + " n'a pas de TaskName");
+        }
+        if ("boundaryEvent".equals(node.getType()) && !context.nodes.containsKey(node.getAttachedToRef())) {
+            findings.errors.add("L'événement de bordure " + node.getId() + " référence un nœud inconnu: "
+                    + node.getAttachedToRef());
+        }
+    }
+
+    static void checkProcess(Context context, Findings findings) {
+        boolean hasStart = false;
+        boolean hasEnd = false;
+        for (BpmnNodeInfo node : context.nodes.values()) {
+            hasStart |= "startEvent".equals(node.getType());
+            hasEnd |= "endEvent".equals(node.getType());
+        }
+        if (!hasStart) {
+            findings.errors.add("Le processus doit contenir au moins un événement de début");
+        }
+        if (!hasEnd) {
+            findings.errors.add("Le processus doit contenir au moins un événement de fin");
+        }
+    }
+
+    static void checkFlow(BpmnFlowInfo flow, Context context, Findings findings) {
+        if (!context.nodes.containsKey(flow.getSourceRef())) {
+            findings.errors.add("Le flux " + flow.getId() + " a une source inconnue: " + flow.getSourceRef());
+        }
+        if (!context.nodes.containsKey(flow.getTargetRef())) {
+            findings.errors.add("Le flux " + flow.getId() + " a une cible inconnue: " + flow.getTargetRef());
+        }
+    }
+
+    /**
+     * Les formes des couloirs, participants, annotations ou objets de données sont légitimes :
+     * seule une forme dont le {@code bpmnElement} ne désigne aucun élément du modèle est signalée
+     */
+    static void checkShape(String elementId, Context context, Findings findings) {
+        if (!context.nodes.containsKey(elementId) && !context.elementIds.contains(elementId)) {
+            findings.warnings.add("Forme de diagramme sans élément BPMN associé: " + elementId);
+        }
+    }
+}
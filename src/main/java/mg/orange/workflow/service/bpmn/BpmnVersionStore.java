@@ -0,0 +1,485 @@
+package mg.orange.workflow.service.bpmn;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.bpmn.BpmnVersionMetadata;
+import mg.orange.workflow.model.bpmn.VersionChangeType;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.service.metrics.WorkflowMetrics;
+import mg.orange.workflow.service.metrics.WorkflowMetrics.Stage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stockage de l'historique des versions BPMN par instantanés périodiques et deltas XML.
+ * <p>
+ * Une version sur {@code workflow.versions.snapshot-interval} est stockée comme instantané complet compressé,
+ * les autres comme {@link XmlDelta} par rapport à la version précédente. La reconstruction d'une version
+ * applique donc au plus {@code snapshot-interval - 1} deltas. Les métadonnées sont conservées à part :
+ * les pages de l'historique ne reconstruisent jamais de contenu BPMN.
+ * <p>
+ * La chaîne elle-même est persistée dans {@code bpmn_version_history} (type, version de base, instantané
+ * ou delta) avant d'être visible. Au démarrage, seules les métadonnées sont rechargées : les contenus sont
+ * lus à la demande, en remontant jusqu'à l'instantané le plus proche, puis conservés en mémoire.
+ */
+@ApplicationScoped
+public class BpmnVersionStore {
+
+    private static final Logger LOG = Logger.getLogger(BpmnVersionStore.class);
+
+    @ConfigProperty(name = "workflow.versions.snapshot-interval", defaultValue = "10")
+    int snapshotInterval;
+
+    /**
+     * Au-delà de ce ratio (taille du delta / taille de l'instantané), un instantané est forcé
+     */
+    @ConfigProperty(name = "workflow.versions.max-delta-ratio", defaultValue = "0.5")
+    double maxDeltaRatio;
+
+    @Inject
+    WorkflowMetrics metrics;
+
+    @Inject
+    Event<ProcessLifecycleEvent> lifecycleEvents;
+
+    @Inject
+    DataSource dataSource;
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+    private static final String DELTA = "DELTA";
+
+    private final ConcurrentMap<String, ProcessHistory> histories = new ConcurrentHashMap<>();
+
+    /**
+     * Ajoute une nouvelle version à l'historique du processus
+     *
+     * @throws IllegalStateException si la version existe déjà
+     */
+    public BpmnVersionMetadata addVersion(String processId, String versionSemver, VersionChangeType changeType,
+                                          String createdBy, String changeComment,
+                                          String bpmnXml, String contentHash) {
+        long start = System.nanoTime();
+        boolean stored = false;
+        ProcessHistory history = histories.computeIfAbsent(processId, id -> new ProcessHistory());
+        history.lock.lock();
+        try {
+            if (history.find(versionSemver).isPresent()) {
+                throw new IllegalStateException("La version " + versionSemver + " existe déjà pour le processus " + processId);
+            }
+
+            BpmnVersionMetadata metadata = new BpmnVersionMetadata();
+            metadata.setProcessId(processId);
+            metadata.setVersionSemver(versionSemver);
+            metadata.setChangeType(changeType);
+            metadata.setCreatedBy(createdBy);
+            metadata.setChangeComment(changeComment);
+            metadata.setCreatedAt(LocalDateTime.now());
+            metadata.setContentHash(contentHash);
+            metadata.setSizeBytes(bpmnXml.getBytes(StandardCharsets.UTF_8).length);
+
+            VersionRecord previous = history.last();
+            VersionRecord base = null;
+            byte[] content = gzip(bpmnXml);
+            if (previous != null && previous.chainLength + 1 < snapshotInterval) {
+                byte[] delta = XmlDelta.diff(tokens(previous), XmlDelta.tokenize(bpmnXml)).toBytes();
+                if (delta.length <= content.length * maxDeltaRatio) {
+                    base = previous;
+                    content = delta;
+                }
+            }
+            metadata.setSnapshot(base == null);
+            metadata.setStoredBytes(content.length);
+            // écrit en base avant d'être visible : une version refusée par la base n'existe pas en mémoire
+            long id = insert(metadata, base, content);
+            history.records.add(new VersionRecord(id, metadata, base, content));
+            LOG.debugf("Version %s du processus %s stockée en %s (%d octets)", versionSemver, processId,
+                    base == null ? "instantané" : "delta", content.length);
+            stored = true;
+            return copyOf(metadata);
+        } finally {
+            history.lock.unlock();
+            metrics.recordStage(Stage.PERSIST, processId, start, stored);
+            if (stored) {
+                lifecycleEvents.fire(ProcessLifecycleEvent.of(ProcessLifecycleEvent.Type.VERSION_CREATED,
+                        processId, versionSemver, contentHash));
+            }
+        }
+    }
+
+    /**
+     * Page de l'historique (plus récente en premier), sans reconstruire les contenus BPMN
+     */
+    public List<BpmnVersionMetadata> getHistory(String processId, int page, int size) {
+        ProcessHistory history = histories.get(processId);
+        if (history == null || size <= 0 || page < 0) {
+            return new ArrayList<>();
+        }
+        List<VersionRecord> records = history.records;
+        List<BpmnVersionMetadata> result = new ArrayList<>(size);
+        int from = records.size() - 1 - page * size;
+        for (int i = from; i >= 0 && result.size() < size; i--) {
+            result.add(copyOf(records.get(i).metadata));
+        }
+        return result;
+    }
+
+    /**
+     * Nombre de versions connues pour le processus
+     */
+    public int countVersions(String processId) {
+        ProcessHistory history = histories.get(processId);
+        return history != null ? history.records.size() : 0;
+    }
+
+    /**
+     * Métadonnées d'une version, sans son contenu
+     */
+    public Optional<BpmnVersionMetadata> getMetadata(String processId, String versionSemver) {
+        ProcessHistory history = histories.get(processId);
+        return history == null ? Optional.empty() : history.find(versionSemver).map(r -> copyOf(r.metadata));
+    }
+
+    /**
+     * Métadonnées de la dernière version créée
+     */
+    public Optional<BpmnVersionMetadata> getLatest(String processId) {
+        ProcessHistory history = histories.get(processId);
+        if (history == null || history.records.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(copyOf(history.records.get(history.records.size() - 1).metadata));
+    }
+
+    /**
+     * Reconstruit le contenu BPMN d'une version
+     */
+    public Optional<String> getContent(String processId, String versionSemver) {
+        ProcessHistory history = histories.get(processId);
+        if (history == null) {
+            return Optional.empty();
+        }
+        return history.find(versionSemver).map(r -> String.join("", tokens(r)));
+    }
+
+    /**
+     * Reconstruit le contenu BPMN de la version la plus récente ayant cette empreinte
+     */
+    public Optional<String> getContentByHash(String processId, String contentHash) {
+        ProcessHistory history = histories.get(processId);
+        if (history == null || contentHash == null) {
+            return Optional.empty();
+        }
+        for (int i = history.records.size() - 1; i >= 0; i--) {
+            VersionRecord record = history.records.get(i);
+            if (contentHash.equals(record.metadata.getContentHash())) {
+                return Optional.of(String.join("", tokens(record)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Active ou désactive une version
+     *
+     * @return false si la version n'existe pas
+     */
+    public boolean setActive(String processId, String versionSemver, boolean active) {
+        ProcessHistory history = histories.get(processId);
+        if (history == null) {
+            return false;
+        }
+        Optional<VersionRecord> record;
+        history.lock.lock();
+        try {
+            record = history.find(versionSemver);
+            if (record.isPresent()) {
+                update(processId, versionSemver, active);
+                record.get().metadata.setActive(active);
+            }
+        } finally {
+            history.lock.unlock();
+        }
+        if (record.isPresent()) {
+            lifecycleEvents.fire(ProcessLifecycleEvent.of(active ? ProcessLifecycleEvent.Type.VERSION_ACTIVATED
+                            : ProcessLifecycleEvent.Type.VERSION_DEACTIVATED, processId, versionSemver,
+                    active ? record.get().metadata.getContentHash() : null));
+        }
+        return record.isPresent();
+    }
+
+    /**
+     * Calcule la prochaine version sémantique à partir de la plus haute version connue (ordre
+     * {@link SemanticVersion}, et non ordre de création) et du type de changement
+     */
+    public String nextVersion(String processId, VersionChangeType changeType) {
+        ProcessHistory history = histories.get(processId);
+        if (history == null || history.records.isEmpty() || changeType == VersionChangeType.CREATED) {
+            return "1.0.0";
+        }
+        String highest = history.records.stream()
+                .map(record -> record.metadata.getVersionSemver())
+                .max(SemanticVersion.ORDER)
+                .orElseThrow();
+        return SemanticVersion.parse(highest).next(changeType);
+    }
+
+    /**
+     * Supprime tout l'historique d'un processus
+     */
+    public void removeProcess(String processId) {
+        delete(processId);
+        histories.remove(processId);
+        // type et statut inconnus ici : l'événement retire l'historique, les versions et la révision du processus
+        lifecycleEvents.fire(ProcessLifecycleEvent.deleted(processId, null, null));
+    }
+
+    // ======= PERSISTANCE =======
+
+    /**
+     * Recharge les métadonnées et la structure des chaînes persistées, sans lire les contenus
+     */
+    void onStart(@Observes StartupEvent event) {
+        Map<Long, VersionRecord> records = new HashMap<>();
+        String sql = "select id, process_id, version_semver, change_type, created_by, change_comment, created_at,"
+                + " content_hash, size_bytes, active, kind, base_id, octet_length(content)"
+                + " from bpmn_version_history order by process_id, id";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                BpmnVersionMetadata metadata = new BpmnVersionMetadata();
+                metadata.setProcessId(rows.getString(2));
+                metadata.setVersionSemver(rows.getString(3));
+                metadata.setChangeType(VersionChangeType.valueOf(rows.getString(4)));
+                metadata.setCreatedBy(rows.getString(5));
+                metadata.setChangeComment(rows.getString(6));
+                metadata.setCreatedAt(rows.getTimestamp(7).toLocalDateTime());
+                metadata.setContentHash(rows.getString(8));
+                metadata.setSizeBytes(rows.getLong(9));
+                metadata.setActive(rows.getBoolean(10));
+                metadata.setSnapshot(SNAPSHOT.equals(rows.getString(11)));
+                metadata.setStoredBytes(rows.getLong(13));
+                long baseId = rows.getLong(12);
+                // la base d'un delta a toujours un id inférieur : elle est déjà chargée
+                VersionRecord base = metadata.isSnapshot() ? null : records.get(baseId);
+                if (!metadata.isSnapshot() && base == null) {
+                    throw new IllegalStateException("Version de base " + baseId + " introuvable pour la version "
+                            + metadata.getVersionSemver() + " du processus " + metadata.getProcessId());
+                }
+                VersionRecord record = new VersionRecord(rows.getLong(1), metadata, base, null);
+                records.put(record.id, record);
+                histories.computeIfAbsent(metadata.getProcessId(), id -> new ProcessHistory()).records.add(record);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible de recharger l'historique des versions BPMN", e);
+        }
+        LOG.infof("Historique des versions BPMN rechargé: %d versions de %d processus", records.size(),
+                histories.size());
+    }
+
+    /**
+     * Reconstruit les jetons d'une version depuis l'instantané le plus proche
+     */
+    private List<String> tokens(VersionRecord record) {
+        List<VersionRecord> chain = new ArrayList<>();
+        for (VersionRecord current = record; current != null; current = current.base) {
+            chain.add(current);
+        }
+        load(chain);
+        List<String> tokens = XmlDelta.tokenize(gunzip(chain.get(chain.size() - 1).content));
+        for (int i = chain.size() - 2; i >= 0; i--) {
+            tokens = XmlDelta.fromBytes(chain.get(i).content).apply(tokens);
+        }
+        return tokens;
+    }
+
+    /**
+     * Lit en une requête les contenus de la chaîne qui ne sont pas encore en mémoire
+     */
+    private void load(List<VersionRecord> chain) {
+        Map<Long, VersionRecord> missing = new HashMap<>();
+        for (VersionRecord record : chain) {
+            if (record.content == null) {
+                missing.put(record.id, record);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        String sql = "select id, content from bpmn_version_history where id = any (?)";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, connection.createArrayOf("bigint", missing.keySet().toArray()));
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    missing.remove(rows.getLong(1)).content = rows.getBytes(2);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible de lire le contenu des versions BPMN", e);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Contenu introuvable pour les versions " + missing.keySet());
+        }
+    }
+
+    /**
+     * @return l'identifiant de la ligne créée
+     */
+    private long insert(BpmnVersionMetadata metadata, VersionRecord base, byte[] content) {
+        String sql = "insert into bpmn_version_history (process_id, version_semver, change_type, created_by,"
+                + " change_comment, created_at, content_hash, size_bytes, active, kind, base_id, content)"
+                + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+            statement.setString(1, metadata.getProcessId());
+            statement.setString(2, metadata.getVersionSemver());
+            statement.setString(3, metadata.getChangeType().name());
+            statement.setString(4, metadata.getCreatedBy());
+            statement.setString(5, metadata.getChangeComment());
+            statement.setTimestamp(6, Timestamp.valueOf(metadata.getCreatedAt()));
+            statement.setString(7, metadata.getContentHash());
+            statement.setLong(8, metadata.getSizeBytes());
+            statement.setBoolean(9, metadata.isActive());
+            statement.setString(10, base == null ? SNAPSHOT : DELTA);
+            statement.setObject(11, base == null ? null : base.id, Types.BIGINT);
+            statement.setBytes(12, content);
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible d'enregistrer la version " + metadata.getVersionSemver()
+                    + " du processus " + metadata.getProcessId(), e);
+        }
+    }
+
+    private void update(String processId, String versionSemver, boolean active) {
+        execute("update bpmn_version_history set active = ? where process_id = ? and version_semver = ?",
+                active, processId, versionSemver);
+    }
+
+    private void delete(String processId) {
+        execute("delete from bpmn_version_history where process_id = ?", processId);
+    }
+
+    private void execute(String sql, Object... parameters) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible de mettre à jour l'historique des versions BPMN", e);
+        }
+    }
+
+    private static BpmnVersionMetadata copyOf(BpmnVersionMetadata source) {
+        BpmnVersionMetadata copy = new BpmnVersionMetadata();
+        copy.setProcessId(source.getProcessId());
+        copy.setVersionSemver(source.getVersionSemver());
+        copy.setChangeType(source.getChangeType());
+        copy.setCreatedBy(source.getCreatedBy());
+        copy.setChangeComment(source.getChangeComment());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setContentHash(source.getContentHash());
+        copy.setSizeBytes(source.getSizeBytes());
+        copy.setStoredBytes(source.getStoredBytes());
+        copy.setSnapshot(source.isSnapshot());
+        copy.setActive(source.isActive());
+        return copy;
+    }
+
+    private static byte[] gzip(String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] content) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Historique d'un processus : enregistrements dans l'ordre de création
+     */
+    private static final class ProcessHistory {
+        final ReentrantLock lock = new ReentrantLock();
+        final List<VersionRecord> records = new CopyOnWriteArrayList<>();
+
+        Optional<VersionRecord> find(String versionSemver) {
+            for (int i = records.size() - 1; i >= 0; i--) {
+                VersionRecord record = records.get(i);
+                if (record.metadata.getVersionSemver().equals(versionSemver)) {
+                    return Optional.of(record);
+                }
+            }
+            return Optional.empty();
+        }
+
+        VersionRecord last() {
+            return records.isEmpty() ? null : records.get(records.size() - 1);
+        }
+    }
+
+    /**
+     * Version stockée : un instantané compressé, ou un delta par rapport à la version de base
+     */
+    private static final class VersionRecord {
+        final long id;
+        final BpmnVersionMetadata metadata;
+        final VersionRecord base;
+        final int chainLength;
+
+        /**
+         * Instantané compressé ou delta sérialisé, null tant qu'il n'a pas été lu en base
+         */
+        volatile byte[] content;
+
+        VersionRecord(long id, BpmnVersionMetadata metadata, VersionRecord base, byte[] content) {
+            this.id = id;
+            this.metadata = metadata;
+            this.base = base;
+            this.chainLength = base == null ? 0 : base.chainLength + 1;
+            this.content = content;
+        }
+    }
+}
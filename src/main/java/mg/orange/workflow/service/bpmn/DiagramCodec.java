@@ -0,0 +1,317 @@
+package mg.orange.workflow.service.bpmn;
+
+import jakarta.ws.rs.core.MediaType;
+import mg.orange.workflow.model.process.CompactDiagramDTO;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import mg.orange.workflow.model.process.DiagramInfoDTO.EdgeInfo;
+import mg.orange.workflow.model.process.DiagramInfoDTO.ShapeInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversions entre {@link DiagramInfoDTO} et sa forme compacte {@link CompactDiagramDTO}, et encodage binaire.
+ * <p>
+ * Format binaire (gros-boutiste) : l'entier {@code "BPDG"}, un octet de version, puis les colonnes de
+ * {@link CompactDiagramDTO} dans l'ordre, chacune précédée de sa longueur. Les entiers (longueurs, indices)
+ * sont encodés en varint, les indices -1 étant décalés de 1 ; les chaînes en UTF-8 précédées de leur
+ * longueur en octets et les coordonnées en {@code double} IEEE 754.
+ */
+public final class DiagramCodec {
+
+    private static final int MAGIC = 0x42504447;
+
+    /**
+     * Forme de réponse d'un diagramme
+     */
+    public enum Format {
+        OBJECT(MediaType.APPLICATION_JSON),
+        PACKED_JSON(CompactDiagramDTO.PACKED_JSON_TYPE),
+        BINARY(CompactDiagramDTO.BINARY_TYPE);
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private DiagramCodec() {
+    }
+
+    /**
+     * Choisit la forme de réponse d'après l'en-tête Accept (triée par préférence) ;
+     * la forme objet historique est retenue par défaut
+     */
+    public static Format negotiate(List<MediaType> acceptable) {
+        if (acceptable != null) {
+            for (MediaType mediaType : acceptable) {
+                if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                    return Format.OBJECT;
+                }
+                for (Format format : Format.values()) {
+                    if (MediaType.valueOf(format.mediaType).isCompatible(mediaType)) {
+                        return format;
+                    }
+                }
+            }
+        }
+        return Format.OBJECT;
+    }
+
+    /**
+     * Convertit un diagramme en forme compacte (identifiants internés dans la table de chaînes)
+     */
+    public static CompactDiagramDTO toCompact(DiagramInfoDTO diagram) {
+        StringTable strings = new StringTable();
+        Map<String, ShapeInfo> shapes = diagram.getShapes() != null ? diagram.getShapes() : Map.of();
+        Map<String, EdgeInfo> edges = diagram.getEdges() != null ? diagram.getEdges() : Map.of();
+
+        int[] shapeIds = new int[shapes.size()];
+        double[] shapeBounds = new double[shapes.size() * 4];
+        int i = 0;
+        for (ShapeInfo shape : shapes.values()) {
+            shapeIds[i] = strings.intern(shape.getElementId());
+            shapeBounds[i * 4] = shape.getX();
+            shapeBounds[i * 4 + 1] = shape.getY();
+            shapeBounds[i * 4 + 2] = shape.getWidth();
+            shapeBounds[i * 4 + 3] = shape.getHeight();
+            i++;
+        }
+
+        int[] edgeIds = new int[edges.size()];
+        int[] edgeSources = new int[edges.size()];
+        int[] edgeTargets = new int[edges.size()];
+        int[] waypointOffsets = new int[edges.size() + 1];
+        int pointCount = 0;
+        for (EdgeInfo edge : edges.values()) {
+            pointCount += edge.getWaypoints() != null ? edge.getWaypoints().size() : 0;
+        }
+        double[] waypoints = new double[pointCount * 2];
+        int e = 0;
+        int point = 0;
+        for (EdgeInfo edge : edges.values()) {
+            edgeIds[e] = strings.intern(edge.getElementId());
+            edgeSources[e] = strings.intern(edge.getSourceId());
+            edgeTargets[e] = strings.intern(edge.getTargetId());
+            waypointOffsets[e] = point;
+            if (edge.getWaypoints() != null) {
+                for (EdgeInfo.Waypoint waypoint : edge.getWaypoints()) {
+                    waypoints[point * 2] = waypoint.getX();
+                    waypoints[point * 2 + 1] = waypoint.getY();
+                    point++;
+                }
+            }
+            e++;
+        }
+        waypointOffsets[e] = point;
+
+        CompactDiagramDTO compact = new CompactDiagramDTO();
+        compact.setStrings(strings.values.toArray(new String[0]));
+        compact.setShapeIds(shapeIds);
+        compact.setShapeBounds(shapeBounds);
+        compact.setEdgeIds(edgeIds);
+        compact.setEdgeSources(edgeSources);
+        compact.setEdgeTargets(edgeTargets);
+        compact.setWaypointOffsets(waypointOffsets);
+        compact.setWaypoints(waypoints);
+        return compact;
+    }
+
+    /**
+     * Reconstruit la forme objet d'un diagramme compact
+     */
+    public static DiagramInfoDTO toDiagram(CompactDiagramDTO compact) {
+        String[] strings = compact.getStrings();
+        Map<String, ShapeInfo> shapes = new LinkedHashMap<>();
+        for (int i = 0; i < compact.getShapeIds().length; i++) {
+            double[] bounds = compact.getShapeBounds();
+            String elementId = lookup(strings, compact.getShapeIds()[i]);
+            shapes.put(elementId, new ShapeInfo(elementId, bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2],
+                    bounds[i * 4 + 3]));
+        }
+
+        Map<String, EdgeInfo> edges = new LinkedHashMap<>();
+        int[] offsets = compact.getWaypointOffsets();
+        for (int i = 0; i < compact.getEdgeIds().length; i++) {
+            EdgeInfo edge = new EdgeInfo();
+            edge.setElementId(lookup(strings, compact.getEdgeIds()[i]));
+            edge.setSourceId(lookup(strings, compact.getEdgeSources()[i]));
+            edge.setTargetId(lookup(strings, compact.getEdgeTargets()[i]));
+            List<EdgeInfo.Waypoint> waypoints = new ArrayList<>(offsets[i + 1] - offsets[i]);
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                waypoints.add(new EdgeInfo.Waypoint(compact.getWaypoints()[p * 2], compact.getWaypoints()[p * 2 + 1]));
+            }
+            edge.setWaypoints(waypoints);
+            edges.put(edge.getElementId(), edge);
+        }
+
+        DiagramInfoDTO diagram = new DiagramInfoDTO();
+        diagram.setShapes(shapes);
+        diagram.setEdges(edges);
+        return diagram;
+    }
+
+    // ======= FORME BINAIRE =======
+
+    /**
+     * Écrit la forme binaire du diagramme compact dans {@code output} (le flux n'est pas fermé)
+     */
+    public static void writeBinary(CompactDiagramDTO compact, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeByte(compact.getVersion());
+        writeVarInt(out, compact.getStrings().length);
+        for (String value : compact.getStrings()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+        writeIndices(out, compact.getShapeIds());
+        writeDoubles(out, compact.getShapeBounds());
+        writeIndices(out, compact.getEdgeIds());
+        writeIndices(out, compact.getEdgeSources());
+        writeIndices(out, compact.getEdgeTargets());
+        writeIndices(out, compact.getWaypointOffsets());
+        writeDoubles(out, compact.getWaypoints());
+        out.flush();
+    }
+
+    /**
+     * Forme binaire du diagramme compact en mémoire
+     */
+    public static byte[] toBinary(CompactDiagramDTO compact) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeBinary(compact, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lit la forme binaire d'un diagramme compact
+     *
+     * @throws IOException si le contenu n'est pas un diagramme binaire d'une version supportée
+     */
+    public static CompactDiagramDTO readBinary(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Contenu binaire de diagramme invalide");
+        }
+        int version = in.readUnsignedByte();
+        if (version != CompactDiagramDTO.CURRENT_VERSION) {
+            throw new IOException("Version de diagramme binaire non supportée: " + version);
+        }
+        CompactDiagramDTO compact = new CompactDiagramDTO();
+        compact.setVersion(version);
+        String[] strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        compact.setStrings(strings);
+        compact.setShapeIds(readIndices(in));
+        compact.setShapeBounds(readDoubles(in));
+        compact.setEdgeIds(readIndices(in));
+        compact.setEdgeSources(readIndices(in));
+        compact.setEdgeTargets(readIndices(in));
+        compact.setWaypointOffsets(readIndices(in));
+        compact.setWaypoints(readDoubles(in));
+        return compact;
+    }
+
+    private static void writeIndices(DataOutputStream out, int[] values) throws IOException {
+        writeVarInt(out, values.length);
+        for (int value : values) {
+            writeVarInt(out, value + 1);
+        }
+    }
+
+    private static int[] readIndices(DataInputStream in) throws IOException {
+        int[] values = new int[readVarInt(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readVarInt(in) - 1;
+        }
+        return values;
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        writeVarInt(out, values.length);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        double[] values = new double[readVarInt(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entier varint mal formé");
+    }
+
+    private static String lookup(String[] strings, int index) {
+        return index >= 0 ? strings[index] : null;
+    }
+
+    /**
+     * Table de chaînes : chaque identifiant n'est stocké qu'une fois
+     */
+    private static final class StringTable {
+        final List<String> values = new ArrayList<>();
+        final Map<String, Integer> indexes = new HashMap<>();
+
+        int intern(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                values.add(value);
+                indexes.put(value, index);
+            }
+            return index;
+        }
+    }
+}
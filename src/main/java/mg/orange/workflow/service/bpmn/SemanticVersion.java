@@ -0,0 +1,132 @@
+package mg.orange.workflow.service.bpmn;
+
+import mg.orange.workflow.model.bpmn.VersionChangeType;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+
+/**
+ * Version sémantique {@code MAJOR.MINOR.PATCH[-préversion][+build]} et son ordre de précédence (SemVer 2.0.0).
+ * <p>
+ * Les composants sont comparés numériquement (1.10.0 suit 1.9.0), une préversion précède la version
+ * publiée correspondante et les métadonnées de build sont ignorées. Une version incomplète ou non
+ * numérique est lue avec des composants à 0 plutôt que rejetée, pour ne pas bloquer un historique existant.
+ */
+final class SemanticVersion implements Comparable<SemanticVersion> {
+
+    /**
+     * Ordre de précédence des chaînes de version
+     */
+    static final Comparator<String> ORDER = Comparator.comparing(SemanticVersion::parse);
+
+    private final BigInteger major;
+    private final BigInteger minor;
+    private final BigInteger patch;
+    private final String[] preRelease;
+
+    private SemanticVersion(BigInteger major, BigInteger minor, BigInteger patch, String[] preRelease) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.preRelease = preRelease;
+    }
+
+    static SemanticVersion parse(String version) {
+        String value = version != null ? version.trim() : "";
+        if (value.startsWith("v") || value.startsWith("V")) {
+            value = value.substring(1);
+        }
+        int build = value.indexOf('+');
+        if (build >= 0) {
+            value = value.substring(0, build);
+        }
+        String[] preRelease = new String[0];
+        int dash = value.indexOf('-');
+        if (dash >= 0) {
+            preRelease = value.substring(dash + 1).split("\\.");
+            value = value.substring(0, dash);
+        }
+        String[] core = value.split("\\.");
+        return new SemanticVersion(number(core, 0), number(core, 1), number(core, 2), preRelease);
+    }
+
+    private static BigInteger number(String[] parts, int index) {
+        if (index >= parts.length || !isNumeric(parts[index])) {
+            return BigInteger.ZERO;
+        }
+        return new BigInteger(parts[index]);
+    }
+
+    private static boolean isNumeric(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Version suivante pour un type de changement. Comme {@code npm version}, une préversion est publiée
+     * telle quelle lorsque ses composants inférieurs sont déjà à 0 (2.0.0-rc.1 donne 2.0.0 pour MAJOR).
+     */
+    String next(VersionChangeType changeType) {
+        boolean preReleased = preRelease.length > 0;
+        switch (changeType) {
+            case MAJOR:
+                return preReleased && minor.signum() == 0 && patch.signum() == 0
+                        ? format(major, minor, patch)
+                        : format(major.add(BigInteger.ONE), BigInteger.ZERO, BigInteger.ZERO);
+            case MINOR:
+                return preReleased && patch.signum() == 0
+                        ? format(major, minor, patch)
+                        : format(major, minor.add(BigInteger.ONE), BigInteger.ZERO);
+            case PATCH:
+            default:
+                return preReleased ? format(major, minor, patch) : format(major, minor, patch.add(BigInteger.ONE));
+        }
+    }
+
+    private static String format(BigInteger major, BigInteger minor, BigInteger patch) {
+        return major + "." + minor + "." + patch;
+    }
+
+    @Override
+    public int compareTo(SemanticVersion other) {
+        int result = major.compareTo(other.major);
+        if (result == 0) {
+            result = minor.compareTo(other.minor);
+        }
+        if (result == 0) {
+            result = patch.compareTo(other.patch);
+        }
+        return result != 0 ? result : comparePreRelease(preRelease, other.preRelease);
+    }
+
+    private static int comparePreRelease(String[] left, String[] right) {
+        // une version publiée (sans préversion) suit toutes ses préversions
+        if (left.length == 0 || right.length == 0) {
+            return Integer.compare(right.length, left.length);
+        }
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            boolean leftNumeric = isNumeric(left[i]);
+            boolean rightNumeric = isNumeric(right[i]);
+            int result;
+            if (leftNumeric && rightNumeric) {
+                result = new BigInteger(left[i]).compareTo(new BigInteger(right[i]));
+            } else if (leftNumeric || rightNumeric) {
+                // les identifiants numériques précèdent les identifiants alphanumériques
+                result = leftNumeric ? -1 : 1;
+            } else {
+                result = left[i].compareTo(right[i]);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+}
@@ -0,0 +1,213 @@
+package mg.orange.workflow.service.bpmn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Delta XML entre deux contenus BPMN.
+ * <p>
+ * Les documents sont découpés en jetons aux frontières des balises (une balise ou un texte par jeton),
+ * ce qui rend le delta insensible aux retours à la ligne. Le delta est une suite d'opérations
+ * « copier N jetons de la base à partir de la position P » ou « insérer N nouveaux jetons ».
+ * La concaténation des jetons reproduit exactement le document d'origine.
+ */
+public final class XmlDelta {
+
+    /**
+     * Nombre maximal de positions candidates examinées pour un jeton répété
+     */
+    private static final int MAX_CANDIDATES = 8;
+
+    /**
+     * Opérations encodées par paires (début, longueur) ; début = -1 pour une insertion
+     */
+    private final int[] ops;
+    private final String[] inserts;
+
+    private XmlDelta(int[] ops, String[] inserts) {
+        this.ops = ops;
+        this.inserts = inserts;
+    }
+
+    /**
+     * Découpe un document XML en jetons (balises et textes)
+     */
+    public static List<String> tokenize(String xml) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int length = xml.length();
+        while (i < length) {
+            int end;
+            if (xml.charAt(i) == '<') {
+                int close = xml.indexOf('>', i);
+                end = close < 0 ? length : close + 1;
+            } else {
+                int open = xml.indexOf('<', i);
+                end = open < 0 ? length : open;
+            }
+            tokens.add(xml.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    /**
+     * Calcule le delta permettant de reconstruire {@code target} à partir de {@code base}
+     */
+    public static XmlDelta diff(List<String> base, List<String> target) {
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < base.size(); i++) {
+            positions.computeIfAbsent(base.get(i), t -> new ArrayList<>()).add(i);
+        }
+
+        List<Integer> ops = new ArrayList<>();
+        List<String> inserts = new ArrayList<>();
+        int pendingInserts = 0;
+        int expected = 0;
+        int j = 0;
+        while (j < target.size()) {
+            int bestStart = -1;
+            int bestLength = 0;
+            if (expected < base.size() && base.get(expected).equals(target.get(j))) {
+                bestStart = expected;
+                bestLength = matchLength(base, expected, target, j);
+            } else {
+                List<Integer> candidates = positions.getOrDefault(target.get(j), Collections.emptyList());
+                int from = lowerBound(candidates, expected);
+                int lo = Math.max(0, from - MAX_CANDIDATES / 2);
+                int hi = Math.min(candidates.size(), lo + MAX_CANDIDATES);
+                for (int c = lo; c < hi; c++) {
+                    int length = matchLength(base, candidates.get(c), target, j);
+                    if (length > bestLength) {
+                        bestLength = length;
+                        bestStart = candidates.get(c);
+                    }
+                }
+                // Un jeton isolé hors séquence coûte moins cher à insérer qu'à copier
+                if (bestLength < 2) {
+                    bestStart = -1;
+                }
+            }
+
+            if (bestStart < 0) {
+                inserts.add(target.get(j));
+                pendingInserts++;
+                j++;
+                continue;
+            }
+            if (pendingInserts > 0) {
+                ops.add(-1);
+                ops.add(pendingInserts);
+                pendingInserts = 0;
+            }
+            ops.add(bestStart);
+            ops.add(bestLength);
+            j += bestLength;
+            expected = bestStart + bestLength;
+        }
+        if (pendingInserts > 0) {
+            ops.add(-1);
+            ops.add(pendingInserts);
+        }
+        return new XmlDelta(ops.stream().mapToInt(Integer::intValue).toArray(), inserts.toArray(new String[0]));
+    }
+
+    /**
+     * Applique le delta à la base et retourne les jetons du document reconstruit
+     */
+    public List<String> apply(List<String> base) {
+        List<String> result = new ArrayList<>(base.size() + inserts.length);
+        int nextInsert = 0;
+        for (int i = 0; i < ops.length; i += 2) {
+            int start = ops[i];
+            int length = ops[i + 1];
+            if (start < 0) {
+                for (int k = 0; k < length; k++) {
+                    result.add(inserts[nextInsert++]);
+                }
+            } else {
+                result.addAll(base.subList(start, start + length));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forme persistée du delta : opérations puis jetons insérés, compressés
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(ops.length);
+            for (int op : ops) {
+                out.writeInt(op);
+            }
+            out.writeInt(inserts.length);
+            for (String insert : inserts) {
+                // writeUTF est limité à 64 Ko, un texte inséré peut être plus long
+                byte[] utf8 = insert.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Relit un delta écrit par {@link #toBytes()}
+     */
+    public static XmlDelta fromBytes(byte[] content) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(content)))) {
+            int[] ops = new int[in.readInt()];
+            for (int i = 0; i < ops.length; i++) {
+                ops[i] = in.readInt();
+            }
+            String[] inserts = new String[in.readInt()];
+            for (int i = 0; i < inserts.length; i++) {
+                byte[] utf8 = new byte[in.readInt()];
+                in.readFully(utf8);
+                inserts[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            return new XmlDelta(ops, inserts);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int matchLength(List<String> base, int baseStart, List<String> target, int targetStart) {
+        int length = 0;
+        while (baseStart + length < base.size() && targetStart + length < target.size()
+                && base.get(baseStart + length).equals(target.get(targetStart + length))) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int lowerBound(List<Integer> sorted, int value) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted.get(mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,123 @@
+package mg.orange.workflow.service.dataindex;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+import org.kie.kogito.event.DataEvent;
+import org.kie.kogito.event.EventPublisher;
+import org.kie.kogito.event.process.ProcessDefinitionDataEvent;
+import org.kie.kogito.event.process.ProcessInstanceDataEvent;
+import org.kie.kogito.event.usertask.UserTaskInstanceDataEvent;
+import org.kie.kogito.index.jpa.model.ProcessInstanceEntityRepository;
+import org.kie.kogito.index.json.JsonUtils;
+import org.kie.kogito.index.model.Job;
+import org.kie.kogito.index.service.IndexingService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Alimentation de la projection data-index embarquée, avec une seule écriture par instance et par unité de travail.
+ * <p>
+ * Remplace {@code DataIndexEventPublisher} (exclu dans application.properties). Les stockages JPA de l'addon
+ * appellent {@code flush()} après chaque événement : un processus qui traverse plusieurs tâches de script et
+ * passerelles dans une même transaction met alors à jour la même ligne à chaque nœud. Ici, les événements d'une
+ * unité de travail (reçus ensemble par {@link #publish(Collection)}) sont appliqués dans l'ordre aux entités du
+ * contexte de persistance, les {@code flush()} intermédiaires étant neutralisés par les dépôts de ce paquet ;
+ * un seul {@code flush()} final écrit alors une insertion ou une mise à jour par instance de processus et par
+ * tâche, regroupées en lots JDBC par Hibernate ({@code hibernate.order_updates}).
+ */
+@ApplicationScoped
+public class CoalescingDataIndexEventPublisher implements EventPublisher {
+
+    private static final Logger LOG = Logger.getLogger(CoalescingDataIndexEventPublisher.class);
+    private static final ThreadLocal<Boolean> FLUSH_DEFERRED = new ThreadLocal<>();
+
+    @Inject
+    IndexingService indexingService;
+
+    @Inject
+    ProcessInstanceEntityRepository processInstanceRepository;
+
+    /**
+     * Indique si les {@code flush()} des stockages data-index sont différés sur le thread courant
+     */
+    static boolean isFlushDeferred() {
+        return Boolean.TRUE.equals(FLUSH_DEFERRED.get());
+    }
+
+    @Override
+    @Transactional
+    public void publish(DataEvent<?> event) {
+        publish(List.of(event));
+    }
+
+    @Override
+    @Transactional
+    public void publish(Collection<DataEvent<?>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        boolean outer = !isFlushDeferred();
+        FLUSH_DEFERRED.set(Boolean.TRUE);
+        try {
+            for (DataEvent<?> event : events) {
+                index(event);
+            }
+        } finally {
+            if (outer) {
+                FLUSH_DEFERRED.remove();
+            }
+        }
+        if (outer) {
+            processInstanceRepository.getEntityManager().flush();
+        }
+    }
+
+    /**
+     * Même aiguillage que {@code DataIndexEventPublisher}, sur le type CloudEvent de l'événement
+     */
+    private void index(DataEvent<?> event) {
+        LOG.debugf("Événement envoyé au data-index embarqué: %s", event);
+        switch (event.getType()) {
+            case "ProcessDefinitionEvent":
+                indexingService.indexProcessDefinition((ProcessDefinitionDataEvent) event);
+                break;
+            case "ProcessInstanceErrorDataEvent":
+            case "ProcessInstanceNodeDataEvent":
+            case "ProcessInstanceSLADataEvent":
+            case "ProcessInstanceStateDataEvent":
+            case "ProcessInstanceVariableDataEvent":
+                indexingService.indexProcessInstanceEvent((ProcessInstanceDataEvent<?>) event);
+                break;
+            case "UserTaskInstanceAssignmentDataEvent":
+            case "UserTaskInstanceAttachmentDataEvent":
+            case "UserTaskInstanceCommentDataEvent":
+            case "UserTaskInstanceDeadlineDataEvent":
+            case "UserTaskInstanceStateDataEvent":
+            case "UserTaskInstanceVariableDataEvent":
+                indexingService.indexUserTaskInstanceEvent((UserTaskInstanceDataEvent<?>) event);
+                break;
+            case "JobEvent":
+                indexJob(event);
+                break;
+            default:
+                LOG.debugf("Type d'événement %s ignoré par le data-index", event.getType());
+        }
+    }
+
+    private void indexJob(DataEvent<?> event) {
+        try {
+            Job job = JsonUtils.getObjectMapper().readValue(new String((byte[]) event.getData()), Job.class);
+            if (event.getSource() != null) {
+                job.setEndpoint(event.getSource().toString());
+            }
+            indexingService.indexJob(job);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
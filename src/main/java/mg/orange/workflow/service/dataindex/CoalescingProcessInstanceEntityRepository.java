@@ -0,0 +1,23 @@
+package mg.orange.workflow.service.dataindex;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import org.kie.kogito.index.jpa.model.ProcessInstanceEntityRepository;
+
+/**
+ * Dépôt data-index des instances de processus dont le {@code flush()} est différé pendant
+ * {@link CoalescingDataIndexEventPublisher#publish(java.util.Collection)}
+ */
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class CoalescingProcessInstanceEntityRepository extends ProcessInstanceEntityRepository {
+
+    @Override
+    public void flush() {
+        if (!CoalescingDataIndexEventPublisher.isFlushDeferred()) {
+            getEntityManager().flush();
+        }
+    }
+}
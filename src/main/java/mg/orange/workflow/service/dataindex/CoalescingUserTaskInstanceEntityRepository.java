@@ -0,0 +1,23 @@
+package mg.orange.workflow.service.dataindex;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import org.kie.kogito.index.jpa.model.UserTaskInstanceEntityRepository;
+
+/**
+ * Dépôt data-index des tâches utilisateur dont le {@code flush()} est différé pendant
+ * {@link CoalescingDataIndexEventPublisher#publish(java.util.Collection)}
+ */
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class CoalescingUserTaskInstanceEntityRepository extends UserTaskInstanceEntityRepository {
+
+    @Override
+    public void flush() {
+        if (!CoalescingDataIndexEventPublisher.isFlushDeferred()) {
+            getEntityManager().flush();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package mg.orange.workflow.service.decision;
+
+import org.kie.api.builder.Message;
+import org.kie.dmn.api.core.DMNContext;
+import org.kie.dmn.api.core.DMNDecisionResult;
+import org.kie.dmn.api.core.DMNMessage;
+import org.kie.dmn.api.core.DMNResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Sorties de décision mémorisées, sans les entrées de l'évaluation d'origine
+ */
+final class CachedDecisionResult {
+
+    private final List<Decision> decisions;
+    private final List<DMNMessage> messages;
+
+    private CachedDecisionResult(List<Decision> decisions, List<DMNMessage> messages) {
+        this.decisions = decisions;
+        this.messages = messages;
+    }
+
+    static CachedDecisionResult of(DMNResult result) {
+        List<Decision> decisions = result.getDecisionResults().stream()
+                .map(decision -> new Decision(decision.getDecisionId(), decision.getDecisionName(),
+                        decision.getEvaluationStatus(), copy(decision.getResult()), decision.getMessages()))
+                .collect(Collectors.toList());
+        return new CachedDecisionResult(decisions, List.copyOf(result.getMessages()));
+    }
+
+    /**
+     * Résultat sur le contexte de l'appelant : ses entrées et une copie des sorties mémorisées
+     */
+    DMNResult toResult(DMNContext context) {
+        DMNContext resultContext = context.clone();
+        List<DMNDecisionResult> results = new ArrayList<>(decisions.size());
+        for (Decision decision : decisions) {
+            Decision copy = decision.copy();
+            if (copy.status == DMNDecisionResult.DecisionEvaluationStatus.SUCCEEDED) {
+                resultContext.set(copy.name, copy.result);
+            }
+            results.add(copy);
+        }
+        return new Result(resultContext, results, messages);
+    }
+
+    /**
+     * Copie des maps et listes produites par le moteur, que l'appelant peut modifier
+     */
+    private static Object copy(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(k, copy(v)));
+            return map;
+        }
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) {
+                list.add(copy(item));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    private static final class Decision implements DMNDecisionResult {
+        final String id;
+        final String name;
+        final DecisionEvaluationStatus status;
+        final Object result;
+        final List<DMNMessage> messages;
+
+        Decision(String id, String name, DecisionEvaluationStatus status, Object result, List<DMNMessage> messages) {
+            this.id = id;
+            this.name = name;
+            this.status = status;
+            this.result = result;
+            this.messages = messages != null ? List.copyOf(messages) : Collections.emptyList();
+        }
+
+        Decision copy() {
+            return new Decision(id, name, status, CachedDecisionResult.copy(result), messages);
+        }
+
+        @Override
+        public String getDecisionId() {
+            return id;
+        }
+
+        @Override
+        public String getDecisionName() {
+            return name;
+        }
+
+        @Override
+        public DecisionEvaluationStatus getEvaluationStatus() {
+            return status;
+        }
+
+        @Override
+        public Object getResult() {
+            return result;
+        }
+
+        @Override
+        public List<DMNMessage> getMessages() {
+            return messages;
+        }
+
+        @Override
+        public boolean hasErrors() {
+            return messages.stream().anyMatch(message -> message.getLevel() == Message.Level.ERROR);
+        }
+    }
+
+    /**
+     * Niveau équivalent à une sévérité DMN ({@link DMNMessage#getSeverity()} est déprécié)
+     */
+    private static Message.Level level(DMNMessage.Severity severity) {
+        switch (severity) {
+            case ERROR:
+                return Message.Level.ERROR;
+            case WARN:
+                return Message.Level.WARNING;
+            default:
+                return Message.Level.INFO;
+        }
+    }
+
+    private static final class Result implements DMNResult {
+        private final DMNContext context;
+        private final List<DMNDecisionResult> decisions;
+        private final List<DMNMessage> messages;
+
+        Result(DMNContext context, List<DMNDecisionResult> decisions, List<DMNMessage> messages) {
+            this.context = context;
+            this.decisions = decisions;
+            this.messages = messages;
+        }
+
+        @Override
+        public DMNContext getContext() {
+            return context;
+        }
+
+        @Override
+        public List<DMNDecisionResult> getDecisionResults() {
+            return decisions;
+        }
+
+        @Override
+        public DMNDecisionResult getDecisionResultByName(String name) {
+            return decisions.stream().filter(decision -> decision.getDecisionName().equals(name)).findFirst().orElse(null);
+        }
+
+        @Override
+        public DMNDecisionResult getDecisionResultById(String id) {
+            return decisions.stream().filter(decision -> decision.getDecisionId().equals(id)).findFirst().orElse(null);
+        }
+
+        @Override
+        public List<DMNMessage> getMessages() {
+            return messages;
+        }
+
+        @Override
+        public List<DMNMessage> getMessages(DMNMessage.Severity... severities) {
+            List<Message.Level> filter = Arrays.stream(severities).map(CachedDecisionResult::level).collect(Collectors.toList());
+            return messages.stream().filter(message -> filter.contains(message.getLevel())).collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean hasErrors() {
+            return messages.stream().anyMatch(message -> message.getLevel() == Message.Level.ERROR);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package mg.orange.workflow.service.decision;
+
+import org.kie.dmn.api.core.DMNContext;
+import org.kie.dmn.api.core.DMNModel;
+import org.kie.dmn.api.core.DMNResult;
+import org.kie.dmn.api.core.FEELPropertyAccessible;
+import org.kie.kogito.decision.DecisionModel;
+
+import java.util.Map;
+
+/**
+ * Modèle de décision dont {@link #evaluateAll(DMNContext)} passe par le {@link DecisionResultCache}
+ * (les services de décision sont évalués directement)
+ */
+final class CachingDecisionModel implements DecisionModel {
+
+    private final DecisionModel delegate;
+    private final DecisionResultCache cache;
+
+    CachingDecisionModel(DecisionModel delegate, DecisionResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public DMNContext newContext(Map<String, Object> inputSet) {
+        return delegate.newContext(inputSet);
+    }
+
+    @Override
+    public DMNContext newContext(FEELPropertyAccessible inputSet) {
+        return delegate.newContext(inputSet);
+    }
+
+    @Override
+    public DMNResult evaluateAll(DMNContext context) {
+        return cache.evaluateAll(delegate, context);
+    }
+
+    @Override
+    public DMNResult evaluateDecisionService(DMNContext context, String decisionServiceName) {
+        return delegate.evaluateDecisionService(context, decisionServiceName);
+    }
+
+    @Override
+    public DMNModel getDMNModel() {
+        return delegate.getDMNModel();
+    }
+}
@@ -0,0 +1,31 @@
+package mg.orange.workflow.service.decision;
+
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.enterprise.inject.Any;
+import jakarta.inject.Inject;
+import org.kie.kogito.decision.DecisionModel;
+import org.kie.kogito.decision.DecisionModels;
+
+/**
+ * Décorateur des {@link DecisionModels} générés par Kogito : les modèles fournis aux tâches de règles métier
+ * (et aux endpoints de décision) mémorisent leurs évaluations dans le {@link DecisionResultCache}.
+ */
+@Decorator
+@Priority(10)
+public abstract class CachingDecisionModels implements DecisionModels {
+
+    @Inject
+    @Delegate
+    @Any
+    DecisionModels delegate;
+
+    @Inject
+    DecisionResultCache cache;
+
+    @Override
+    public DecisionModel getDecisionModel(String namespace, String name) {
+        return cache.wrap(delegate.getDecisionModel(namespace, name));
+    }
+}
@@ -0,0 +1,362 @@
+package mg.orange.workflow.service.decision;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.CacheStatisticsDTO;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.kie.dmn.api.core.DMNContext;
+import org.kie.dmn.api.core.DMNModel;
+import org.kie.dmn.api.core.DMNResult;
+import org.kie.dmn.api.core.FEELPropertyAccessible;
+import org.kie.dmn.api.core.ast.InputDataNode;
+import org.kie.kogito.decision.DecisionModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mémorisation des évaluations DMN des tâches de règles métier (ex: {@code NewHiringOffer.dmn} du processus hiring).
+ * <p>
+ * La clé d'une évaluation est dérivée du modèle : pour chaque donnée d'entrée, seuls les champs référencés par
+ * les expressions FEEL du modèle sont retenus ({@code CandidateData.experience} et {@code CandidateData.skills}
+ * pour NewHiringOffer, le nom et l'email du candidat n'entrent pas dans la clé). Une entrée référencée sans champ
+ * est prise en entier. Les valeurs sont normalisées (nombres, listes, maps) pour que deux contextes équivalents
+ * donnent la même clé.
+ * <p>
+ * La clé contient aussi l'empreinte SHA-256 de la ressource DMN : un modèle rechargé avec un autre contenu
+ * n'est jamais servi depuis les résultats de l'ancienne version, qui sont invalidés dès la première évaluation
+ * de la nouvelle. Seules les évaluations sans erreur sont conservées ; un succès reconstruit le résultat sur
+ * le contexte de l'appelant (ses propres entrées, les sorties de décision mémorisées).
+ */
+@ApplicationScoped
+public class DecisionResultCache {
+
+    private static final Logger LOG = Logger.getLogger(DecisionResultCache.class);
+    private static final String CACHE_NAME = "dmn-results";
+    private static final Pattern TEXT = Pattern.compile("<(?:\\w+:)?text>(.*?)</(?:\\w+:)?text>", Pattern.DOTALL);
+
+    @ConfigProperty(name = "workflow.dmn-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "workflow.dmn-cache.max-size", defaultValue = "10000")
+    long maxSize;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private Cache<ResultKey, CachedDecisionResult> results;
+    private final ConcurrentMap<String, ModelVersion> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, results, CACHE_NAME);
+    }
+
+    /**
+     * Enveloppe un modèle de décision pour mémoriser ses évaluations (inchangé si le cache est désactivé)
+     */
+    public DecisionModel wrap(DecisionModel model) {
+        return enabled && model != null ? new CachingDecisionModel(model, this) : model;
+    }
+
+    /**
+     * Métriques du cache (succès, échecs, évictions)
+     */
+    public CacheStatisticsDTO getStatistics() {
+        CacheStats stats = results.stats();
+        return new CacheStatisticsDTO(CACHE_NAME, results.estimatedSize(), maxSize,
+                stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+
+    DMNResult evaluateAll(DecisionModel delegate, DMNContext context) {
+        ModelVersion version = version(delegate.getDMNModel());
+        List<Object> inputs = version.inputs(context, this);
+        if (inputs == null) {
+            version.bypasses.increment();
+            return delegate.evaluateAll(context);
+        }
+        ResultKey key = new ResultKey(version.modelKey, version.hash, inputs);
+        CachedDecisionResult cached = results.getIfPresent(key);
+        if (cached != null) {
+            version.hits.increment();
+            return cached.toResult(context);
+        }
+        version.misses.increment();
+        DMNResult result = delegate.evaluateAll(context);
+        if (!result.hasErrors()) {
+            results.put(key, CachedDecisionResult.of(result));
+        }
+        return result;
+    }
+
+    /**
+     * Version courante du modèle : recalculée lorsque le moteur fournit une autre instance de {@link DMNModel}
+     */
+    private ModelVersion version(DMNModel model) {
+        String modelKey = model.getNamespace() + "#" + model.getName();
+        ModelVersion current = versions.get(modelKey);
+        if (current != null && current.model == model) {
+            return current;
+        }
+        ModelVersion next = ModelVersion.of(modelKey, model, registry);
+        ModelVersion previous = versions.put(modelKey, next);
+        if (previous != null && !previous.hash.equals(next.hash)) {
+            results.asMap().keySet().removeIf(key -> key.modelKey.equals(modelKey) && !key.hash.equals(next.hash));
+            LOG.infof("Modèle DMN %s modifié: résultats mémorisés de la version précédente invalidés", model.getName());
+        }
+        LOG.debugf("Clé de mémorisation du modèle DMN %s: %s", model.getName(), next.paths);
+        return next;
+    }
+
+    /**
+     * Valeur normalisée : nombres en {@link BigDecimal}, maps triées, objets convertis en maps
+     */
+    Object canonical(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Enum) {
+            return value;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).stripTrailingZeros();
+        }
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) {
+                list.add(canonical(item));
+            }
+            return list;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(String.valueOf(k), canonical(v)));
+            return map;
+        }
+        if (value instanceof FEELPropertyAccessible) {
+            return canonical(((FEELPropertyAccessible) value).allFEELProperties());
+        }
+        if (value instanceof java.time.temporal.Temporal || value instanceof java.time.temporal.TemporalAmount) {
+            return value;
+        }
+        return canonical(objectMapper.convertValue(value, Map.class));
+    }
+
+    Object field(Object value, String field) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).get(field);
+        }
+        if (value instanceof FEELPropertyAccessible) {
+            return ((FEELPropertyAccessible) value).allFEELProperties().get(field);
+        }
+        return objectMapper.convertValue(value, Map.class).get(field);
+    }
+
+    /**
+     * Clé d'une évaluation : modèle, version du contenu et valeurs d'entrée normalisées
+     */
+    private static final class ResultKey {
+        final String modelKey;
+        final String hash;
+        final List<Object> inputs;
+        final int hashCode;
+
+        ResultKey(String modelKey, String hash, List<Object> inputs) {
+            this.modelKey = modelKey;
+            this.hash = hash;
+            this.inputs = inputs;
+            this.hashCode = Objects.hash(modelKey, hash, inputs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return hashCode == other.hashCode && modelKey.equals(other.modelKey) && hash.equals(other.hash)
+                    && inputs.equals(other.inputs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Version d'un modèle : empreinte du contenu et chemins d'entrée retenus dans la clé
+     */
+    private static final class ModelVersion {
+        final DMNModel model;
+        final String modelKey;
+        final String hash;
+        /**
+         * Entrée → champs retenus (vide : entrée entière)
+         */
+        final Map<String, Set<String>> paths;
+        final Counter hits;
+        final Counter misses;
+        final Counter bypasses;
+
+        private ModelVersion(DMNModel model, String modelKey, String hash, Map<String, Set<String>> paths,
+                             MeterRegistry registry) {
+            this.model = model;
+            this.modelKey = modelKey;
+            this.hash = hash;
+            this.paths = paths;
+            this.hits = requests(registry, model, "hit");
+            this.misses = requests(registry, model, "miss");
+            this.bypasses = requests(registry, model, "bypass");
+        }
+
+        static ModelVersion of(String modelKey, DMNModel model, MeterRegistry registry) {
+            String content = read(model);
+            String hash = content != null ? sha256(content) : "instance-" + System.identityHashCode(model);
+            return new ModelVersion(model, modelKey, hash, paths(model, content), registry);
+        }
+
+        /**
+         * Valeurs d'entrée de la clé, ou null si le contexte ne peut pas être mémorisé
+         */
+        List<Object> inputs(DMNContext context, DecisionResultCache cache) {
+            List<Object> values = new ArrayList<>();
+            try {
+                for (Map.Entry<String, Set<String>> input : paths.entrySet()) {
+                    Object value = context.get(input.getKey());
+                    if (input.getValue().isEmpty()) {
+                        values.add(cache.canonical(value));
+                    } else {
+                        for (String field : input.getValue()) {
+                            values.add(cache.canonical(cache.field(value, field)));
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.debugf(e, "Entrées DMN non normalisables pour %s, évaluation sans cache", model.getName());
+                return null;
+            }
+            return Collections.unmodifiableList(values);
+        }
+
+        private static Counter requests(MeterRegistry registry, DMNModel model, String result) {
+            return Counter.builder("workflow.dmn.cache.requests")
+                    .description("Évaluations DMN servies par le cache (hit), évaluées (miss) ou non mémorisables (bypass)")
+                    .tag("model", model.getName())
+                    .tag("result", result)
+                    .register(registry);
+        }
+
+        /**
+         * Pour chaque entrée utilisée par le modèle, les champs référencés sous la forme {@code Entrée.champ} ;
+         * sans contenu DMN lisible, toutes les entrées sont prises en entier
+         */
+        private static Map<String, Set<String>> paths(DMNModel model, String content) {
+            Map<String, Set<String>> paths = new LinkedHashMap<>();
+            List<String> names = new ArrayList<>();
+            for (InputDataNode input : model.getInputs()) {
+                names.add(input.getName());
+            }
+            Collections.sort(names);
+            if (content == null) {
+                names.forEach(name -> paths.put(name, Collections.emptySet()));
+                return paths;
+            }
+            StringBuilder expressions = new StringBuilder();
+            Matcher text = TEXT.matcher(content);
+            while (text.find()) {
+                expressions.append(unescape(text.group(1))).append('\n');
+            }
+            for (String name : names) {
+                Matcher reference = Pattern.compile("(?<![\\w.])" + Pattern.quote(name) + "(?:\\s*\\.\\s*(\\w+))?")
+                        .matcher(expressions);
+                Set<String> fields = new TreeSet<>();
+                boolean referenced = false;
+                boolean whole = false;
+                while (reference.find()) {
+                    referenced = true;
+                    if (reference.group(1) == null) {
+                        whole = true;
+                    } else {
+                        fields.add(reference.group(1));
+                    }
+                }
+                if (referenced) {
+                    paths.put(name, whole ? Collections.emptySet() : fields);
+                }
+            }
+            return paths;
+        }
+
+        private static String read(DMNModel model) {
+            if (model.getResource() == null) {
+                return null;
+            }
+            try (InputStream input = model.getResource().getInputStream()) {
+                return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException | RuntimeException e) {
+                LOG.debugf(e, "Ressource du modèle DMN %s illisible", model.getName());
+                return null;
+            }
+        }
+
+        private static String unescape(String text) {
+            return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&amp;", "&");
+        }
+
+        private static String sha256(String content) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                        .digest(content.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponible", e);
+            }
+        }
+    }
+}
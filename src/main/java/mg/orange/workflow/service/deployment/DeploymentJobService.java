@@ -0,0 +1,389 @@
+package mg.orange.workflow.service.deployment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.DeploymentJobDTO;
+import mg.orange.workflow.model.process.DeploymentJobDTO.ItemStatus;
+import mg.orange.workflow.model.process.DeploymentJobDTO.JobStatus;
+import mg.orange.workflow.model.process.DeploymentOperation;
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.service.metrics.WorkflowMetrics;
+import mg.orange.workflow.service.metrics.WorkflowMetrics.Stage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File de déploiement asynchrone.
+ * <p>
+ * Les demandes (unitaires ou groupées) sont acceptées immédiatement sous forme de job et exécutées par
+ * un pool de {@code workflow.deployment.workers} threads. Les opérations d'un même processus s'exécutent
+ * dans l'ordre de soumission ; une opération encore en attente est fusionnée avec une demande identique
+ * ou remplacée par une demande inverse (la dernière demande l'emporte : un retrait demandé pendant qu'un
+ * redéploiement attend laisse le processus retiré). Le nombre d'opérations en attente est borné par
+ * {@code workflow.deployment.max-pending}.
+ */
+@ApplicationScoped
+public class DeploymentJobService {
+
+    private static final Logger LOG = Logger.getLogger(DeploymentJobService.class);
+
+    @ConfigProperty(name = "workflow.deployment.workers", defaultValue = "4")
+    int workers;
+
+    @ConfigProperty(name = "workflow.deployment.max-pending", defaultValue = "1000")
+    int maxPending;
+
+    @ConfigProperty(name = "workflow.deployment.job-retention", defaultValue = "PT1H")
+    Duration jobRetention;
+
+    @Inject
+    Instance<ProcessDeployer> deployers;
+
+    @Inject
+    WorkflowMetrics metrics;
+
+    @Inject
+    Event<ProcessLifecycleEvent> lifecycleEvents;
+
+    private ExecutorService executor;
+    private Semaphore pendingPermits;
+    private Cache<String, Job> jobs;
+
+    /**
+     * Dernière opération soumise pour chaque processus (en attente ou en cours)
+     */
+    private final ConcurrentMap<String, Operation> latestOperations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "deployment-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pendingPermits = new Semaphore(maxPending);
+        jobs = Caffeine.newBuilder().expireAfterWrite(jobRetention).maximumSize(10_000).build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Soumet un job de déploiement ou de retrait pour un ou plusieurs processus
+     *
+     * @throws IllegalStateException si la file de déploiement est saturée
+     */
+    public DeploymentJobDTO submit(List<String> processIds, DeploymentOperation operation) {
+        return submitJob(processIds, operation).toDTO();
+    }
+
+    /**
+     * Soumet le déploiement ou le retrait d'un seul processus (opérations en masse) : l'item retourné est
+     * complété à la fin de l'opération, ou lorsqu'elle est fusionnée ou remplacée
+     *
+     * @throws IllegalStateException si la file de déploiement est saturée
+     */
+    public CompletableFuture<DeploymentJobDTO.Item> submitOne(String processId, DeploymentOperation operation) {
+        JobItem item = submitJob(List.of(processId), operation).items.get(0);
+        return item.finished.thenApply(ignored -> new DeploymentJobDTO.Item(item.processId, item.status, item.message));
+    }
+
+    private Job submitJob(List<String> processIds, DeploymentOperation operation) {
+        if (processIds == null || processIds.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un processus est requis");
+        }
+        if (operation == null) {
+            throw new IllegalArgumentException("L'opération est requise");
+        }
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(processIds));
+        if (!pendingPermits.tryAcquire(distinctIds.size())) {
+            throw new IllegalStateException("File de déploiement saturée, réessayez plus tard");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), operation, distinctIds);
+        jobs.put(job.id, job);
+        for (JobItem item : job.items) {
+            enqueue(item, operation);
+        }
+        LOG.infof("Job de déploiement %s soumis: %s de %d processus", job.id, operation, distinctIds.size());
+        return job;
+    }
+
+    /**
+     * État courant d'un job
+     */
+    public Optional<DeploymentJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(Job::toDTO);
+    }
+
+    private void enqueue(JobItem item, DeploymentOperation operation) {
+        String processId = item.processId;
+        latestOperations.compute(processId, (id, latest) -> {
+            if (latest != null && latest.tryAttach(item, operation)) {
+                // Même opération déjà en attente : le résultat sera partagé
+                pendingPermits.release();
+                return latest;
+            }
+            Operation predecessor = latest;
+            int superseded = latest != null ? latest.trySupersede(operation) : 0;
+            if (superseded > 0) {
+                // Opération inverse en attente : remplacée par la nouvelle demande, qui suit son prédécesseur
+                pendingPermits.release(superseded);
+                predecessor = latest.predecessor;
+            }
+            Operation next = new Operation(processId, operation, item, predecessor);
+            if (predecessor == null || predecessor.isDone()) {
+                executor.execute(() -> run(next));
+            } else {
+                predecessor.done.whenComplete((ignored, error) -> executor.execute(() -> run(next)));
+            }
+            return next;
+        });
+    }
+
+    private void run(Operation operation) {
+        if (!operation.start()) {
+            return;
+        }
+        Stage stage = operation.operation == DeploymentOperation.DEPLOY ? Stage.DEPLOY : Stage.UNDEPLOY;
+        long start = System.nanoTime();
+        try {
+            ProcessDeployer deployer = deployers.get();
+            // la réponse 202 a été envoyée avant l'exécution : le statut change ici et les observateurs
+            // (flux SSE, statistiques, révisions HTTP) l'apprennent par l'événement
+            if (stage == Stage.DEPLOY) {
+                DeploymentStatus previous = deployer.deploy(operation.processId);
+                lifecycleEvents.fire(ProcessLifecycleEvent.statusChanged(ProcessLifecycleEvent.Type.DEPLOYED,
+                        operation.processId, previous, DeploymentStatus.DEPLOYE));
+            } else {
+                DeploymentStatus previous = deployer.undeploy(operation.processId);
+                lifecycleEvents.fire(ProcessLifecycleEvent.statusChanged(ProcessLifecycleEvent.Type.UNDEPLOYED,
+                        operation.processId, previous, DeploymentStatus.NON_DEPLOYE));
+            }
+            metrics.recordStage(stage, operation.processId, start, true);
+            operation.complete(ItemStatus.SUCCEEDED, null);
+        } catch (Exception e) {
+            metrics.recordStage(stage, operation.processId, start, false);
+            LOG.warnf(e, "Échec de l'opération %s du processus %s", operation.operation, operation.processId);
+            if (stage == Stage.DEPLOY) {
+                lifecycleEvents.fire(ProcessLifecycleEvent.statusChanged(
+                        ProcessLifecycleEvent.Type.DEPLOYMENT_FAILED, operation.processId, null, null));
+            }
+            operation.complete(ItemStatus.FAILED, e.getMessage());
+        } finally {
+            pendingPermits.release();
+            latestOperations.remove(operation.processId, operation);
+        }
+    }
+
+    /**
+     * Opération planifiée sur un processus, partagée par les items de job fusionnés
+     */
+    private static final class Operation {
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+
+        final String processId;
+        final DeploymentOperation operation;
+        final Operation predecessor;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<JobItem> items = new ArrayList<>();
+        private int state = PENDING;
+
+        Operation(String processId, DeploymentOperation operation, JobItem item, Operation predecessor) {
+            this.processId = processId;
+            this.operation = operation;
+            this.predecessor = predecessor;
+            this.items.add(item);
+        }
+
+        boolean tryAttach(JobItem item, DeploymentOperation requested) {
+            lock.lock();
+            try {
+                if (state != PENDING || operation != requested) {
+                    return false;
+                }
+                items.add(item);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Remplace l'opération si elle est encore en attente et différente de {@code requested}
+         *
+         * @return nombre d'items remplacés (0 si l'opération est déjà lancée ou identique)
+         */
+        int trySupersede(DeploymentOperation requested) {
+            int superseded;
+            lock.lock();
+            try {
+                if (state != PENDING || operation == requested) {
+                    return 0;
+                }
+                state = DONE;
+                superseded = items.size();
+                items.forEach(i -> i.finish(ItemStatus.COALESCED, "Remplacé par une opération " + requested + " ultérieure"));
+            } finally {
+                lock.unlock();
+            }
+            done.complete(null);
+            return superseded;
+        }
+
+        boolean start() {
+            lock.lock();
+            try {
+                if (state != PENDING) {
+                    return false;
+                }
+                state = RUNNING;
+                items.forEach(JobItem::start);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(ItemStatus status, String message) {
+            lock.lock();
+            try {
+                state = DONE;
+                items.forEach(i -> i.finish(status, message));
+            } finally {
+                lock.unlock();
+            }
+            done.complete(null);
+        }
+
+        boolean isDone() {
+            return done.isDone();
+        }
+    }
+
+    /**
+     * Job soumis : items et compteurs mis à jour par les workers
+     */
+    private static final class Job {
+        final String id;
+        final DeploymentOperation operation;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final List<JobItem> items = new ArrayList<>();
+        final AtomicInteger remaining;
+        volatile LocalDateTime finishedAt;
+
+        Job(String id, DeploymentOperation operation, List<String> processIds) {
+            this.id = id;
+            this.operation = operation;
+            this.remaining = new AtomicInteger(processIds.size());
+            processIds.forEach(processId -> items.add(new JobItem(this, processId)));
+        }
+
+        void itemFinished() {
+            if (remaining.decrementAndGet() == 0) {
+                finishedAt = LocalDateTime.now();
+            }
+        }
+
+        DeploymentJobDTO toDTO() {
+            DeploymentJobDTO dto = new DeploymentJobDTO();
+            dto.setJobId(id);
+            dto.setOperation(operation);
+            dto.setSubmittedAt(submittedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setTotal(items.size());
+
+            List<DeploymentJobDTO.Item> itemDTOs = new ArrayList<>(items.size());
+            int succeeded = 0;
+            int failed = 0;
+            int coalesced = 0;
+            boolean started = false;
+            for (JobItem item : items) {
+                ItemStatus status = item.status;
+                itemDTOs.add(new DeploymentJobDTO.Item(item.processId, status, item.message));
+                succeeded += status == ItemStatus.SUCCEEDED ? 1 : 0;
+                failed += status == ItemStatus.FAILED ? 1 : 0;
+                coalesced += status == ItemStatus.COALESCED ? 1 : 0;
+                started |= status != ItemStatus.PENDING;
+            }
+            dto.setItems(itemDTOs);
+            dto.setSucceeded(succeeded);
+            dto.setFailed(failed);
+            dto.setCoalesced(coalesced);
+
+            if (succeeded + failed + coalesced < items.size()) {
+                dto.setStatus(started ? JobStatus.RUNNING : JobStatus.PENDING);
+            } else if (failed == 0) {
+                dto.setStatus(JobStatus.COMPLETED);
+            } else {
+                dto.setStatus(failed == items.size() ? JobStatus.FAILED : JobStatus.PARTIALLY_FAILED);
+            }
+            return dto;
+        }
+    }
+
+    /**
+     * Processus d'un job
+     */
+    private static final class JobItem {
+        final Job job;
+        final String processId;
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+        volatile ItemStatus status = ItemStatus.PENDING;
+        volatile String message;
+
+        JobItem(Job job, String processId) {
+            this.job = job;
+            this.processId = processId;
+        }
+
+        void start() {
+            status = ItemStatus.RUNNING;
+        }
+
+        void finish(ItemStatus finalStatus, String finalMessage) {
+            message = finalMessage;
+            status = finalStatus;
+            job.itemFinished();
+            finished.complete(null);
+        }
+    }
+}
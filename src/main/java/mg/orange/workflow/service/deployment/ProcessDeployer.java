@@ -0,0 +1,29 @@
+package mg.orange.workflow.service.deployment;
+
+import mg.orange.workflow.model.process.DeploymentStatus;
+
+/**
+ * Exécution effective du déploiement et du retrait d'un processus.
+ * <p>
+ * L'implémentation applique la transition de {@link DeploymentStatus} et retourne le statut précédent ;
+ * le {@link mg.orange.workflow.model.process.ProcessLifecycleEvent} correspondant (DEPLOYED,
+ * DEPLOYMENT_FAILED, UNDEPLOYED) est émis par le {@link DeploymentJobService}, seul point d'appel.
+ */
+public interface ProcessDeployer {
+
+    /**
+     * Déploie le processus
+     *
+     * @return le statut du processus avant le déploiement
+     * @throws Exception si le déploiement échoue (le message est reporté dans le job)
+     */
+    DeploymentStatus deploy(String processId) throws Exception;
+
+    /**
+     * Retire le déploiement du processus
+     *
+     * @return le statut du processus avant le retrait
+     * @throws Exception si le retrait échoue (le message est reporté dans le job)
+     */
+    DeploymentStatus undeploy(String processId) throws Exception;
+}
@@ -0,0 +1,368 @@
+package mg.orange.workflow.service.diagram;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import mg.orange.workflow.model.process.DiagramMediaTypes;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.service.bpmn.BpmnStreamingParser;
+import mg.orange.workflow.service.bpmn.BpmnVersionStore;
+import mg.orange.workflow.service.bpmn.DiagramCodec;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Diffusion des diagrammes de processus : layout ({@code /{processId}/diagram}) et SVG.
+ * <p>
+ * Chaque représentation est identifiée par un ETag fort construit sur l'empreinte de la version active ;
+ * une requête {@code If-None-Match} correspondante reçoit un 304 sans corps ni encodage. Les corps encodés
+ * et leur variante gzip (compressée une seule fois, au niveau maximal) sont conservés dans un cache borné
+ * en octets. Les SVG d'instance sont dérivés du {@link SvgTemplate} de la version en cache, sans nouveau rendu.
+ */
+@ApplicationScoped
+public class DiagramDeliveryService {
+
+    private static final Logger LOG = Logger.getLogger(DiagramDeliveryService.class);
+
+    /**
+     * Taille en dessous de laquelle la variante gzip n'est pas produite
+     */
+    private static final int MIN_COMPRESSIBLE_BYTES = 512;
+
+    @ConfigProperty(name = "workflow.diagram-cache.max-bytes", defaultValue = "33554432")
+    long maxBytes;
+
+    @ConfigProperty(name = "workflow.svg.resource-path", defaultValue = "META-INF/processSVG")
+    String svgResourcePath;
+
+    @ConfigProperty(name = "workflow.svg.completed-fill", defaultValue = "#C0C0C0")
+    String completedFill;
+
+    @ConfigProperty(name = "workflow.svg.completed-stroke", defaultValue = "#030303")
+    String completedStroke;
+
+    @ConfigProperty(name = "workflow.svg.active-stroke", defaultValue = "#FF0000")
+    String activeStroke;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    BpmnVersionStore versionStore;
+
+    @Inject
+    BpmnStreamingParser parser;
+
+    private Cache<String, Representation> representations;
+    private Cache<String, Optional<SvgTemplate>> templates;
+    private SvgTemplate.Colors colors;
+
+    @PostConstruct
+    void init() {
+        representations = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Representation representation) -> representation.weight())
+                .build();
+        templates = Caffeine.newBuilder().maximumSize(500).build();
+        colors = new SvgTemplate.Colors(completedFill, completedStroke, activeStroke);
+    }
+
+    /**
+     * Layout du diagramme dans la forme demandée par l'en-tête Accept (voir {@link DiagramCodec#negotiate})
+     *
+     * @param versionHash empreinte du contenu de la version active
+     * @param loader      extraction du diagramme, appelée uniquement si la représentation n'est pas en cache
+     */
+    public Response diagram(String processId, String versionHash, Supplier<DiagramInfoDTO> loader, HttpHeaders headers) {
+        DiagramCodec.Format format = DiagramCodec.negotiate(headers.getAcceptableMediaTypes());
+        String key = processId + "@" + versionHash + ":" + format.name().toLowerCase();
+        Representation representation = representations.getIfPresent(key);
+        if (representation == null) {
+            // chargé hors du verrou du cache : le chargement lit et analyse le BPMN, ce qui épinglerait
+            // un thread virtuel et bloquerait les autres clés du même segment
+            Representation loaded = Representation.of(format.getMediaType(),
+                    etag(versionHash, format.name().toLowerCase()), encode(loader.get(), format));
+            Representation existing = representations.asMap().putIfAbsent(key, loaded);
+            representation = existing != null ? existing : loaded;
+        }
+        return respond(representation, headers);
+    }
+
+    /**
+     * SVG de base du processus
+     *
+     * @throws NotFoundException si aucun SVG n'est disponible pour le processus
+     */
+    public Response svg(String processId, String versionHash, HttpHeaders headers) {
+        String key = processId + "@" + versionHash + ":svg";
+        Representation representation = representations.getIfPresent(key);
+        if (representation == null) {
+            SvgTemplate template = template(processId, versionHash);
+            representation = representations.get(key, k -> Representation.of(DiagramMediaTypes.SVG_TYPE,
+                    etag(versionHash, "svg"), template.getSvg().getBytes(StandardCharsets.UTF_8)));
+        }
+        return respond(representation, headers);
+    }
+
+    /**
+     * SVG d'une instance : nœuds actifs et terminés mis en évidence à partir du SVG de base en cache.
+     * L'ETag dépend de l'ensemble des nœuds, un client qui interroge périodiquement l'instance reçoit
+     * donc un 304 tant que son avancement n'a pas changé.
+     *
+     * @throws NotFoundException si aucun SVG n'est disponible pour le processus
+     */
+    public Response highlightedSvg(String processId, String versionHash, Collection<String> activeNodeIds,
+                                   Collection<String> completedNodeIds, HttpHeaders headers) {
+        Collection<String> active = activeNodeIds != null ? activeNodeIds : List.of();
+        Collection<String> completed = completedNodeIds != null ? completedNodeIds : List.of();
+        String state = "active=" + new TreeSet<>(active) + ";completed=" + new TreeSet<>(completed);
+        String etag = etag(versionHash, "svg-" + sha256(state.getBytes(StandardCharsets.UTF_8)).substring(0, 16));
+        if (matches(headers.getHeaderString(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return notModified(etag);
+        }
+        SvgTemplate template = template(processId, versionHash);
+        byte[] body = template.render(active, completed, colors).getBytes(StandardCharsets.UTF_8);
+        return Response.ok(body, DiagramMediaTypes.SVG_TYPE)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .build();
+    }
+
+    void onLifecycleEvent(@Observes ProcessLifecycleEvent event) {
+        if (event.changesContent() && event.getProcessId() != null) {
+            // Les clés contiennent l'empreinte : on libère seulement la mémoire des versions remplacées
+            String prefix = event.getProcessId() + "@";
+            representations.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+            templates.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    // ======= REPRÉSENTATIONS =======
+
+    private SvgTemplate template(String processId, String versionHash) {
+        String key = processId + "@" + versionHash;
+        Optional<SvgTemplate> template = templates.getIfPresent(key);
+        if (template == null) {
+            // rendu hors du verrou du cache, comme les représentations
+            Optional<SvgTemplate> loaded = loadSvg(processId, versionHash).map(SvgTemplate::of);
+            Optional<SvgTemplate> existing = templates.asMap().putIfAbsent(key, loaded);
+            template = existing != null ? existing : loaded;
+        }
+        return template.orElseThrow(() -> new NotFoundException("Aucun SVG disponible pour le processus " + processId));
+    }
+
+    /**
+     * SVG rendu depuis le BPMN de la version stockée ayant cette empreinte. Le SVG exporté par l'éditeur
+     * ({@code workflow.svg.resource-path}) ne sert que pour les processus embarqués au build, absents de
+     * l'historique des versions, ou dont le BPMN ne contient pas de diagramme.
+     */
+    private Optional<String> loadSvg(String processId, String versionHash) {
+        Optional<String> bpmn = versionStore != null ? versionStore.getContentByHash(processId, versionHash) : Optional.empty();
+        if (bpmn.isPresent()) {
+            try {
+                String svg = SvgRenderer.render(parser.parse(bpmn.get()));
+                if (svg != null) {
+                    return Optional.of(svg);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Analyse impossible du BPMN du processus " + processId, e);
+            }
+        }
+        return loadResourceSvg(processId);
+    }
+
+    private Optional<String> loadResourceSvg(String processId) {
+        String resource = svgResourcePath + "/" + processId + ".svg";
+        try (InputStream input = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture impossible du SVG " + resource, e);
+        }
+    }
+
+    private byte[] encode(DiagramInfoDTO diagram, DiagramCodec.Format format) {
+        try {
+            switch (format) {
+                case PACKED_JSON:
+                    return objectMapper.writeValueAsBytes(DiagramCodec.toCompact(diagram));
+                case BINARY:
+                    return DiagramCodec.toBinary(DiagramCodec.toCompact(diagram));
+                case OBJECT:
+                default:
+                    return objectMapper.writeValueAsBytes(diagram);
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Response respond(Representation representation, HttpHeaders headers) {
+        boolean gzip = representation.gzip != null && acceptsGzip(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? representation.gzipEtag() : representation.etag;
+        String ifNoneMatch = headers.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        // Les deux variantes ont le même contenu décodé : l'une ou l'autre suffit pour un 304
+        if (matches(ifNoneMatch, representation.etag) || matches(ifNoneMatch, representation.gzipEtag())) {
+            return notModified(etag);
+        }
+        Response.ResponseBuilder builder = Response.ok(gzip ? representation.gzip : representation.identity,
+                        representation.mediaType)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.build();
+    }
+
+    private static Response notModified(String etag) {
+        return Response.notModified()
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .build();
+    }
+
+    /**
+     * Comparaison faible de {@code If-None-Match} (RFC 9110) : {@code *} ou une des valeurs listées
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || opaqueTag(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Accept-Encoding (RFC 9110) : une entrée {@code gzip} explicite prime sur {@code *}, où qu'elle soit
+     * dans la liste, et {@code q=0} refuse l'encodage
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("[qQ]=0(\\.0*)?")) {
+                    accepted = false;
+                }
+            }
+            if ("gzip".equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                gzip = gzip == null ? accepted : gzip && accepted;
+            } else if ("*".equals(name)) {
+                wildcard = wildcard == null ? accepted : wildcard && accepted;
+            }
+        }
+        if (gzip != null) {
+            return gzip;
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static String etag(String versionHash, String variant) {
+        return "\"" + versionHash + "-" + variant + "\"";
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Corps encodé d'une représentation et sa variante gzip pré-calculée
+     */
+    private static final class Representation {
+        final String mediaType;
+        final String etag;
+        final byte[] identity;
+        final byte[] gzip;
+
+        private Representation(String mediaType, String etag, byte[] identity, byte[] gzip) {
+            this.mediaType = mediaType;
+            this.etag = etag;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+
+        static Representation of(String mediaType, String etag, byte[] identity) {
+            byte[] compressed = identity.length >= MIN_COMPRESSIBLE_BYTES ? gzip(identity) : null;
+            if (compressed != null && compressed.length >= identity.length) {
+                compressed = null;
+            }
+            LOG.debugf("Représentation %s mise en cache: %d octets, %s en gzip", etag, identity.length,
+                    compressed != null ? compressed.length : "-");
+            return new Representation(mediaType, etag, identity, compressed);
+        }
+
+        /**
+         * ETag distinct pour la variante compressée (les deux corps diffèrent octet par octet)
+         */
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        int weight() {
+            return identity.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
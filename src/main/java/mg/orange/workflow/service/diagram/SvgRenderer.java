@@ -0,0 +1,151 @@
+package mg.orange.workflow.service.diagram;
+
+import mg.orange.workflow.model.bpmn.BpmnNodeInfo;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rendu SVG d'un processus à partir du layout BPMNDI d'une version stockée.
+ * <p>
+ * Le rendu est volontairement sobre (formes, libellés et connexions) : il suit la version réellement
+ * stockée plutôt que le SVG exporté par l'éditeur au moment du build. Le fond de chaque nœud porte
+ * l'identifiant {@code <nodeId>?shapeType=BACKGROUND} attendu par {@link SvgTemplate}.
+ */
+final class SvgRenderer {
+
+    private static final double MARGIN = 20.0;
+    private static final String FILL = "#FFFFFF";
+    private static final String STROKE = "#000000";
+
+    private SvgRenderer() {
+    }
+
+    /**
+     * @return null si le BPMN ne contient pas de diagramme
+     */
+    static String render(BpmnParseResult result) {
+        DiagramInfoDTO diagram = result.getDiagram();
+        if (diagram == null || diagram.getShapes() == null || diagram.getShapes().isEmpty()) {
+            return null;
+        }
+        Map<String, BpmnNodeInfo> nodes = new HashMap<>();
+        for (BpmnNodeInfo node : result.getNodes()) {
+            nodes.put(node.getId(), node);
+        }
+
+        double width = 0;
+        double height = 0;
+        for (DiagramInfoDTO.ShapeInfo shape : diagram.getShapes().values()) {
+            width = Math.max(width, shape.getX() + shape.getWidth());
+            height = Math.max(height, shape.getY() + shape.getHeight());
+        }
+        StringBuilder svg = new StringBuilder(256 + diagram.getShapes().size() * 256);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(number(width + MARGIN))
+                .append("\" height=\"").append(number(height + MARGIN)).append("\">")
+                .append("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" markerWidth=\"8\"")
+                .append(" markerHeight=\"8\" orient=\"auto\"><path d=\"M0,0L10,5L0,10z\" fill=\"").append(STROKE)
+                .append("\"/></marker></defs>");
+
+        // Conteneurs (pools, couloirs) d'abord pour qu'ils restent sous les nœuds
+        diagram.getShapes().forEach((id, shape) -> {
+            if (!nodes.containsKey(id)) {
+                svg.append("<rect x=\"").append(number(shape.getX())).append("\" y=\"").append(number(shape.getY()))
+                        .append("\" width=\"").append(number(shape.getWidth())).append("\" height=\"")
+                        .append(number(shape.getHeight())).append("\" fill=\"none\" stroke=\"").append(STROKE)
+                        .append("\"/>");
+            }
+        });
+        if (diagram.getEdges() != null) {
+            for (DiagramInfoDTO.EdgeInfo edge : diagram.getEdges().values()) {
+                appendEdge(svg, edge);
+            }
+        }
+        diagram.getShapes().forEach((id, shape) -> {
+            BpmnNodeInfo node = nodes.get(id);
+            if (node != null) {
+                appendNode(svg, node, shape);
+            }
+        });
+        return svg.append("</svg>").toString();
+    }
+
+    private static void appendNode(StringBuilder svg, BpmnNodeInfo node, DiagramInfoDTO.ShapeInfo shape) {
+        String type = node.getType() != null ? node.getType() : "";
+        String background = " id=\"" + escape(node.getId()) + "?shapeType=BACKGROUND\" fill=\"" + FILL
+                + "\" stroke=\"" + STROKE + "\"";
+        double cx = shape.getX() + shape.getWidth() / 2;
+        double cy = shape.getY() + shape.getHeight() / 2;
+        if (type.endsWith("Event")) {
+            svg.append("<circle cx=\"").append(number(cx)).append("\" cy=\"").append(number(cy)).append("\" r=\"")
+                    .append(number(Math.min(shape.getWidth(), shape.getHeight()) / 2)).append('"').append(background)
+                    .append(" stroke-width=\"").append("endEvent".equals(type) ? 3 : 1).append("\"/>");
+        } else if (type.endsWith("Gateway")) {
+            svg.append("<polygon points=\"")
+                    .append(number(cx)).append(',').append(number(shape.getY())).append(' ')
+                    .append(number(shape.getX() + shape.getWidth())).append(',').append(number(cy)).append(' ')
+                    .append(number(cx)).append(',').append(number(shape.getY() + shape.getHeight())).append(' ')
+                    .append(number(shape.getX())).append(',').append(number(cy))
+                    .append('"').append(background).append("/>");
+        } else {
+            svg.append("<rect x=\"").append(number(shape.getX())).append("\" y=\"").append(number(shape.getY()))
+                    .append("\" width=\"").append(number(shape.getWidth())).append("\" height=\"")
+                    .append(number(shape.getHeight())).append("\" rx=\"5\"").append(background).append("/>");
+        }
+        if (node.getName() != null && !node.getName().isBlank()) {
+            // libellé des événements et passerelles sous la forme, des activités au centre
+            boolean inside = !type.endsWith("Event") && !type.endsWith("Gateway");
+            double y = inside ? cy : shape.getY() + shape.getHeight() + 12;
+            svg.append("<text x=\"").append(number(cx)).append("\" y=\"").append(number(y))
+                    .append("\" text-anchor=\"middle\" dominant-baseline=\"middle\" font-family=\"sans-serif\"")
+                    .append(" font-size=\"12\">").append(escape(node.getName())).append("</text>");
+        }
+    }
+
+    private static void appendEdge(StringBuilder svg, DiagramInfoDTO.EdgeInfo edge) {
+        List<DiagramInfoDTO.EdgeInfo.Waypoint> waypoints = edge.getWaypoints();
+        if (waypoints == null || waypoints.size() < 2) {
+            return;
+        }
+        svg.append("<polyline points=\"");
+        for (int i = 0; i < waypoints.size(); i++) {
+            if (i > 0) {
+                svg.append(' ');
+            }
+            svg.append(number(waypoints.get(i).getX())).append(',').append(number(waypoints.get(i).getY()));
+        }
+        svg.append("\" fill=\"none\" stroke=\"").append(STROKE).append("\" marker-end=\"url(#arrow)\"/>");
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String escape(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
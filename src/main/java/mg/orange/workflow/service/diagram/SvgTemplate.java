@@ -0,0 +1,171 @@
+package mg.orange.workflow.service.diagram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SVG de base d'un processus, pré-indexé pour la mise en évidence des nœuds d'une instance.
+ * <p>
+ * À la construction, les attributs {@code fill} et {@code stroke} du fond de chaque nœud
+ * ({@code id="<nodeId>?shapeType=BACKGROUND"}) sont repérés par leur position dans le document.
+ * Le rendu d'une instance recopie ensuite le SVG par segments en ne remplaçant que ces valeurs :
+ * aucune analyse XML n'est refaite et le coût est celui d'une copie du document.
+ */
+public final class SvgTemplate {
+
+    private static final String BACKGROUND_MARKER = "?shapeType=BACKGROUND\"";
+
+    /**
+     * Couleurs appliquées aux nœuds terminés et actifs
+     */
+    public static final class Colors {
+        final String completedFill;
+        final String completedStroke;
+        final String activeStroke;
+
+        public Colors(String completedFill, String completedStroke, String activeStroke) {
+            this.completedFill = completedFill;
+            this.completedStroke = completedStroke;
+            this.activeStroke = activeStroke;
+        }
+    }
+
+    private enum Attribute {
+        FILL("fill"), STROKE("stroke");
+
+        final String name;
+
+        Attribute(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Valeur d'attribut remplaçable : {@code length} caractères à partir de {@code offset}, ou point
+     * d'insertion de l'attribut (longueur -1) si le fond du nœud ne le déclare pas
+     */
+    private static final class Slot {
+        final int offset;
+        final int length;
+        final String nodeId;
+        final Attribute attribute;
+
+        Slot(int offset, int length, String nodeId, Attribute attribute) {
+            this.offset = offset;
+            this.length = length;
+            this.nodeId = nodeId;
+            this.attribute = attribute;
+        }
+    }
+
+    private final String svg;
+    private final List<Slot> slots;
+    private final Set<String> nodeIds;
+
+    private SvgTemplate(String svg, List<Slot> slots, Set<String> nodeIds) {
+        this.svg = svg;
+        this.slots = slots;
+        this.nodeIds = nodeIds;
+    }
+
+    /**
+     * Indexe les fonds de nœuds d'un SVG de processus
+     */
+    public static SvgTemplate of(String svg) {
+        List<Slot> slots = new ArrayList<>();
+        Set<String> nodeIds = new HashSet<>();
+        int marker = svg.indexOf(BACKGROUND_MARKER);
+        while (marker >= 0) {
+            int idStart = svg.lastIndexOf('"', marker - 1) + 1;
+            int elementStart = svg.lastIndexOf('<', marker);
+            int elementEnd = svg.indexOf('>', marker);
+            if (idStart > 0 && elementStart >= 0 && elementEnd > marker) {
+                String nodeId = svg.substring(idStart, marker);
+                nodeIds.add(nodeId);
+                for (Attribute attribute : Attribute.values()) {
+                    slots.add(locate(svg, elementStart, elementEnd, nodeId, attribute));
+                }
+            }
+            marker = svg.indexOf(BACKGROUND_MARKER, marker + BACKGROUND_MARKER.length());
+        }
+        slots.sort(Comparator.comparingInt(slot -> slot.offset));
+        return new SvgTemplate(svg, slots, nodeIds);
+    }
+
+    public String getSvg() {
+        return svg;
+    }
+
+    /**
+     * Identifiants des nœuds dont le fond peut être mis en évidence
+     */
+    public Set<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * Rend le SVG en mettant en évidence les nœuds terminés et actifs (un nœud actif garde la bordure active)
+     */
+    public String render(Collection<String> activeNodeIds, Collection<String> completedNodeIds, Colors colors) {
+        Set<String> active = activeNodeIds != null ? new HashSet<>(activeNodeIds) : Set.of();
+        Set<String> completed = completedNodeIds != null ? new HashSet<>(completedNodeIds) : Set.of();
+        if (active.isEmpty() && completed.isEmpty()) {
+            return svg;
+        }
+
+        StringBuilder out = new StringBuilder(svg.length() + 64);
+        int position = 0;
+        for (Slot slot : slots) {
+            String replacement = replacement(slot, active, completed, colors);
+            if (replacement == null) {
+                continue;
+            }
+            out.append(svg, position, slot.offset);
+            if (slot.length < 0) {
+                out.append(' ').append(slot.attribute.name).append("=\"").append(replacement).append('"');
+                position = slot.offset;
+            } else {
+                out.append(replacement);
+                position = slot.offset + slot.length;
+            }
+        }
+        out.append(svg, position, svg.length());
+        return out.toString();
+    }
+
+    private static String replacement(Slot slot, Set<String> active, Set<String> completed, Colors colors) {
+        boolean isActive = active.contains(slot.nodeId);
+        boolean isCompleted = completed.contains(slot.nodeId);
+        if (slot.attribute == Attribute.STROKE) {
+            return isActive ? colors.activeStroke : isCompleted ? colors.completedStroke : null;
+        }
+        return isCompleted && !isActive ? colors.completedFill : null;
+    }
+
+    private static Slot locate(String svg, int elementStart, int elementEnd, String nodeId, Attribute attribute) {
+        String prefix = attribute.name + "=\"";
+        int from = elementStart;
+        while (true) {
+            int index = svg.indexOf(prefix, from);
+            if (index < 0 || index > elementEnd) {
+                break;
+            }
+            // « fill=" » doit être un attribut à part entière, pas la fin de « stroke-fill=" » par exemple
+            if (Character.isWhitespace(svg.charAt(index - 1))) {
+                int valueStart = index + prefix.length();
+                int valueEnd = svg.indexOf('"', valueStart);
+                return new Slot(valueStart, valueEnd - valueStart, nodeId, attribute);
+            }
+            from = index + prefix.length();
+        }
+        int nameEnd = elementStart + 1;
+        while (nameEnd < elementEnd && !Character.isWhitespace(svg.charAt(nameEnd)) && svg.charAt(nameEnd) != '/') {
+            nameEnd++;
+        }
+        return new Slot(nameEnd, -1, nodeId, attribute);
+    }
+}
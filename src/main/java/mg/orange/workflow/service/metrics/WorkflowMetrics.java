@@ -0,0 +1,178 @@
+package mg.orange.workflow.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques Micrometer du pipeline BPMN, exposées au format Prometheus sur {@code /q/metrics}.
+ * <p>
+ * Chaque étape (analyse, validation, extraction du diagramme, persistance, déploiement, retrait) alimente deux
+ * timers : {@code workflow.pipeline.stage} (étape, issue) avec histogramme de percentiles, et
+ * {@code workflow.pipeline.stage.process} (étape, processId) sans histogramme pour limiter le nombre de séries.
+ * Au-delà de {@code workflow.metrics.max-process-tags} processus distincts, l'étiquette vaut {@code other}.
+ * Les transitions de {@link DeploymentStatus} sont comptées dans {@code workflow.deployment.status.transitions}.
+ */
+@ApplicationScoped
+public class WorkflowMetrics {
+
+    public static final String STAGE_TIMER = "workflow.pipeline.stage";
+    public static final String STAGE_PROCESS_TIMER = "workflow.pipeline.stage.process";
+    public static final String STATUS_TRANSITIONS = "workflow.deployment.status.transitions";
+    public static final String OTHER_PROCESS = "other";
+
+    private static final String SUCCESS = "success";
+    private static final String FAILURE = "failure";
+    private static final String NONE = "none";
+
+    /**
+     * Étapes mesurées du pipeline
+     */
+    public enum Stage {
+        PARSE, VALIDATE, DIAGRAM, PERSIST, DEPLOY, UNDEPLOY;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Étapes dont la somme des durées moyennes donne le temps de traitement d'un processus
+     */
+    private static final Stage[] PROCESSING_STAGES = {
+            Stage.PARSE, Stage.VALIDATE, Stage.DIAGRAM, Stage.PERSIST, Stage.DEPLOY
+    };
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "workflow.metrics.max-process-tags", defaultValue = "500")
+    int maxProcessTags;
+
+    private final Map<Stage, Timer[]> stageTimers = new EnumMap<>(Stage.class);
+    private final Set<String> processTags = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, new Timer[]{buildStageTimer(stage, SUCCESS), buildStageTimer(stage, FAILURE)});
+        }
+    }
+
+    /**
+     * Enregistre la durée d'une étape démarrée à {@code startNanos} ({@link System#nanoTime()})
+     */
+    public void recordStage(Stage stage, String processId, long startNanos, boolean success) {
+        recordStageDuration(stage, processId, System.nanoTime() - startNanos, success);
+    }
+
+    /**
+     * Enregistre une durée déjà mesurée, lorsque l'issue de l'étape n'est connue qu'après coup
+     */
+    public void recordStageDuration(Stage stage, String processId, long elapsed, boolean success) {
+        stageTimer(stage, success).record(elapsed, TimeUnit.NANOSECONDS);
+        Timer.builder(STAGE_PROCESS_TIMER)
+                .tag("stage", stage.tag)
+                .tag("processId", processTag(processId))
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Étiquette processId bornée : les identifiants au-delà de la limite sont regroupés sous {@code other}
+     */
+    public String processTag(String processId) {
+        if (processId == null || processId.isBlank()) {
+            return NONE;
+        }
+        if (processTags.contains(processId)) {
+            return processId;
+        }
+        if (processTags.size() < maxProcessTags && processTags.add(processId)) {
+            return processId;
+        }
+        return processTags.contains(processId) ? processId : OTHER_PROCESS;
+    }
+
+    void onLifecycleEvent(@Observes ProcessLifecycleEvent event) {
+        if (event.getNewStatus() == null || event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        Counter.builder(STATUS_TRANSITIONS)
+                .description("Transitions d'état de déploiement des processus")
+                .tag("from", statusTag(event.getPreviousStatus()))
+                .tag("to", statusTag(event.getNewStatus()))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Temps de traitement moyen d'un processus en secondes : somme des durées moyennes mesurées
+     * pour chaque étape, de l'analyse au déploiement
+     */
+    public double getAverageProcessingSeconds() {
+        double total = 0;
+        for (Stage stage : PROCESSING_STAGES) {
+            long count = 0;
+            double seconds = 0;
+            for (Timer timer : registry.find(STAGE_TIMER).tag("stage", stage.tag).timers()) {
+                count += timer.count();
+                seconds += timer.totalTime(TimeUnit.SECONDS);
+            }
+            if (count > 0) {
+                total += seconds / count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Utilisation CPU du processus en pourcentage (jauge {@code process.cpu.usage}, ou JMX à défaut)
+     */
+    public double getCpuUtilizationPercent() {
+        Gauge gauge = registry.find("process.cpu.usage").gauge();
+        double usage = gauge != null ? gauge.value() : Double.NaN;
+        if (Double.isNaN(usage) || usage < 0) {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            usage = os instanceof com.sun.management.OperatingSystemMXBean
+                    ? ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad()
+                    : Double.NaN;
+        }
+        return Double.isNaN(usage) || usage < 0 ? 0.0 : usage * 100.0;
+    }
+
+    private Timer stageTimer(Stage stage, boolean success) {
+        return stageTimers.get(stage)[success ? 0 : 1];
+    }
+
+    private Timer buildStageTimer(Stage stage, String outcome) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Durée des étapes du pipeline BPMN")
+                .tag("stage", stage.tag)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private static String statusTag(DeploymentStatus status) {
+        return status != null ? status.name() : NONE;
+    }
+}
@@ -0,0 +1,125 @@
+package mg.orange.workflow.service.persistence;
+
+import org.jbpm.flow.serialization.ProcessInstanceMarshallerService;
+import org.kie.kogito.persistence.jdbc.JDBCProcessInstances;
+import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.ProcessInstanceReadMode;
+import org.kie.kogito.process.impl.AbstractProcessInstance;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Instances de processus de l'addon JDBC dont les créations rejoignent le {@link ProcessInstanceInsertBatch}
+ * ouvert sur le thread courant ; les mises à jour et suppressions d'une instance encore en attente dans le lot
+ * y sont appliquées, les autres passent par {@link JDBCProcessInstances}. Sans lot ouvert, toutes les opérations
+ * sont celles de l'addon. Les instances avec clé métier sont toujours créées par l'addon
+ * (table {@code business_key_mapping}).
+ */
+final class BatchingProcessInstances<T> implements MutableProcessInstances<T> {
+
+    private final JDBCProcessInstances delegate;
+    private final Process<?> process;
+    private final DataSource dataSource;
+    private final ProcessInstanceMarshallerService marshaller = ProcessInstanceMarshallerService.newBuilder()
+            .withDefaultObjectMarshallerStrategies()
+            .withDefaultListeners()
+            .build();
+
+    BatchingProcessInstances(Process<?> process, DataSource dataSource, boolean lock) {
+        this.delegate = new JDBCProcessInstances(process, dataSource, lock);
+        this.process = process;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void create(String id, ProcessInstance<T> instance) {
+        Optional<ProcessInstanceInsertBatch> batch = ProcessInstanceInsertBatch.current();
+        if (batch.isEmpty() || instance.businessKey() != null) {
+            delegate.create(id, (ProcessInstance) instance);
+            return;
+        }
+        // comme l'addon : seules les instances actives sont enregistrées, sans détacher l'instance
+        if (isActive(instance)) {
+            batch.get().add(process.id(), process.version(), id, marshaller.marshallProcessInstance(instance));
+        }
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return pending(id).isPresent() || delegate.exists(id);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void update(String id, ProcessInstance<T> instance) {
+        Optional<ProcessInstanceInsertBatch> batch = pending(id);
+        if (batch.isEmpty()) {
+            delegate.update(id, (ProcessInstance) instance);
+            return;
+        }
+        // la ligne n'existe pas encore : le contenu en attente est remplacé (version 0 à l'insertion)
+        if (isActive(instance)) {
+            batch.get().replace(id, marshaller.marshallProcessInstance(instance));
+        }
+        // même détachement que la mise à jour de l'addon, rechargement depuis le contenu sérialisé
+        if (instance instanceof AbstractProcessInstance) {
+            ((AbstractProcessInstance<?>) instance).internalRemoveProcessInstance(
+                    marshaller.createdReloadFunction(() -> ProcessInstanceInsertBatch.load(dataSource, process.id(), id)));
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        Optional<ProcessInstanceInsertBatch> batch = pending(id);
+        if (batch.isPresent()) {
+            batch.get().remove(id);
+            return;
+        }
+        delegate.remove(id);
+    }
+
+    @Override
+    public boolean lock() {
+        return delegate.lock();
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Optional<ProcessInstance<T>> findById(String id, ProcessInstanceReadMode mode) {
+        return (Optional) delegate.findById(id, mode);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Optional<ProcessInstance<T>> findByBusinessKey(String businessKey, ProcessInstanceReadMode mode) {
+        return (Optional) delegate.findByBusinessKey(businessKey, mode);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Stream<ProcessInstance<T>> stream(ProcessInstanceReadMode mode) {
+        return (Stream) delegate.stream(mode);
+    }
+
+    @Override
+    public long migrateAll(String targetProcessId, String targetProcessVersion) {
+        return delegate.migrateAll(targetProcessId, targetProcessVersion);
+    }
+
+    @Override
+    public void migrateProcessInstances(String targetProcessId, String targetProcessVersion, String... processInstanceIds) {
+        delegate.migrateProcessInstances(targetProcessId, targetProcessVersion, processInstanceIds);
+    }
+
+    /**
+     * Lot du thread courant, s'il contient l'instance en attente d'insertion
+     */
+    private Optional<ProcessInstanceInsertBatch> pending(String id) {
+        return ProcessInstanceInsertBatch.current().filter(batch -> batch.isPending(process.id(), id));
+    }
+}
@@ -0,0 +1,31 @@
+package mg.orange.workflow.service.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.kogito.process.MutableProcessInstances;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstancesFactory;
+
+import javax.sql.DataSource;
+
+/**
+ * Stockage JDBC des instances de processus, avec insertions en lot pendant un {@link ProcessInstanceInsertBatch}.
+ * <p>
+ * Remplace {@code JDBCProcessInstancesFactory} de l'addon (exclu dans application.properties) : mêmes tables,
+ * même sérialisation et même verrouillage optimiste ({@code kogito.persistence.optimistic.lock}).
+ */
+@ApplicationScoped
+public class BatchingProcessInstancesFactory implements ProcessInstancesFactory {
+
+    @Inject
+    DataSource dataSource;
+
+    @ConfigProperty(name = "kogito.persistence.optimistic.lock", defaultValue = "false")
+    boolean lock;
+
+    @Override
+    public MutableProcessInstances<?> createProcessInstances(Process<?> process) {
+        return new BatchingProcessInstances<>(process, dataSource, lock);
+    }
+}
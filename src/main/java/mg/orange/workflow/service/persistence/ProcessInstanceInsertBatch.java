@@ -0,0 +1,153 @@
+package mg.orange.workflow.service.persistence;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Insertions d'instances de processus différées sur le thread courant, écrites en un seul lot JDBC.
+ * <p>
+ * Tant qu'un lot est ouvert ({@link #open()}), les instances créées par {@link BatchingProcessInstances} sont
+ * sérialisées et conservées ici au lieu d'être insérées une à une. Les mises à jour et suppressions d'une
+ * instance encore en attente (le démarrage d'une instance enchaîne {@code create} puis {@code update} dans son
+ * unité de travail) remplacent ou retirent son contenu en attente, sans accès à la base. {@link #flush(DataSource)}
+ * doit être appelé dans la transaction qui a démarré les instances, après la fin de leur unité de travail.
+ */
+public final class ProcessInstanceInsertBatch implements AutoCloseable {
+
+    private static final String INSERT =
+            "INSERT INTO process_instances (id, payload, process_id, process_version, version) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT payload FROM process_instances WHERE process_id = ? and id = ?";
+    private static final ThreadLocal<ProcessInstanceInsertBatch> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Insert> inserts = new LinkedHashMap<>();
+
+    private ProcessInstanceInsertBatch() {
+    }
+
+    /**
+     * Ouvre un lot sur le thread courant
+     *
+     * @throws IllegalStateException si un lot est déjà ouvert sur ce thread
+     */
+    public static ProcessInstanceInsertBatch open() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Un lot d'insertions est déjà ouvert sur ce thread");
+        }
+        ProcessInstanceInsertBatch batch = new ProcessInstanceInsertBatch();
+        CURRENT.set(batch);
+        return batch;
+    }
+
+    static Optional<ProcessInstanceInsertBatch> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    void add(String processId, String processVersion, String id, byte[] payload) {
+        inserts.put(id, new Insert(processId, processVersion, id, payload));
+    }
+
+    /**
+     * Indique si l'instance est en attente d'insertion dans ce lot
+     */
+    boolean isPending(String processId, String id) {
+        Insert insert = inserts.get(id);
+        return insert != null && insert.processId.equals(processId);
+    }
+
+    /**
+     * Remplace le contenu sérialisé d'une instance en attente
+     */
+    void replace(String id, byte[] payload) {
+        Insert insert = inserts.get(id);
+        inserts.put(id, new Insert(insert.processId, insert.processVersion, id, payload));
+    }
+
+    /**
+     * Retire une instance en attente : elle ne sera jamais insérée
+     */
+    void remove(String id) {
+        inserts.remove(id);
+    }
+
+    /**
+     * Contenu sérialisé d'une instance du lot non encore écrite
+     */
+    Optional<byte[]> pending(String processId, String id) {
+        return isPending(processId, id) ? Optional.of(inserts.get(id).payload) : Optional.empty();
+    }
+
+    /**
+     * Écrit les instances en attente en un lot JDBC sur la connexion de la transaction courante
+     *
+     * @return nombre d'instances écrites
+     */
+    public int flush(DataSource dataSource) throws SQLException {
+        if (inserts.isEmpty()) {
+            return 0;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Insert insert : inserts.values()) {
+                statement.setString(1, insert.id);
+                statement.setBytes(2, insert.payload);
+                statement.setString(3, insert.processId);
+                statement.setString(4, insert.processVersion);
+                statement.setLong(5, 0L);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        int written = inserts.size();
+        inserts.clear();
+        return written;
+    }
+
+    @Override
+    public void close() {
+        inserts.clear();
+        CURRENT.remove();
+    }
+
+    /**
+     * Contenu sérialisé d'une instance : lot en attente du thread courant, sinon base de données
+     */
+    static byte[] load(DataSource dataSource, String processId, String id) {
+        Optional<byte[]> pending = current().flatMap(batch -> batch.pending(processId, id));
+        if (pending.isPresent()) {
+            return pending.get();
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT)) {
+            statement.setString(1, processId);
+            statement.setString(2, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new IllegalStateException("Instance de processus introuvable: " + id);
+                }
+                return resultSet.getBytes(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Lecture de l'instance de processus " + id + " impossible", e);
+        }
+    }
+
+    private static final class Insert {
+        final String processId;
+        final String processVersion;
+        final String id;
+        final byte[] payload;
+
+        Insert(String processId, String processVersion, String id, byte[] payload) {
+            this.processId = processId;
+            this.processVersion = processVersion;
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package mg.orange.workflow.service.process;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.BulkOperation;
+import mg.orange.workflow.model.process.BulkOperationRequestDTO;
+import mg.orange.workflow.model.process.BulkOperationResultDTO;
+import mg.orange.workflow.model.process.DeploymentJobDTO;
+import mg.orange.workflow.model.process.DeploymentJobDTO.ItemStatus;
+import mg.orange.workflow.model.process.DeploymentOperation;
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.service.deployment.DeploymentJobService;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution d'une opération (validation, déploiement, retrait, suppression) sur une liste de processus.
+ * <p>
+ * Au plus {@code concurrency} opérations d'une même requête s'exécutent en parallèle sur un pool partagé ;
+ * chaque résultat est écrit en NDJSON (un objet JSON par ligne) dès qu'il est disponible, de sorte
+ * que le client suit l'avancement sans attendre la fin du lot.
+ */
+@ApplicationScoped
+public class BulkOperationService {
+
+    private static final Logger LOG = Logger.getLogger(BulkOperationService.class);
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    @ConfigProperty(name = "workflow.bulk.max-concurrency", defaultValue = "8")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "workflow.bulk.max-items", defaultValue = "1000")
+    int maxItems;
+
+    @ConfigProperty(name = "workflow.bulk.pool-size", defaultValue = "16")
+    int poolSize;
+
+    @ConfigProperty(name = "workflow.virtual-threads.enabled", defaultValue = "false")
+    boolean virtualThreads;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    DeploymentJobService deploymentJobs;
+
+    @Inject
+    Instance<ProcessOperationHandler> handlers;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (VirtualThreads.use(virtualThreads)) {
+            // la concurrence reste bornée par requête (max-concurrency), pas par la taille du pool
+            executor = VirtualThreads.newExecutor("bulk-operation-");
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-operation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Vérifie la requête avant de commencer à répondre (les erreurs ne peuvent plus être signalées
+     * par un code HTTP une fois le flux NDJSON ouvert)
+     *
+     * @throws IllegalArgumentException si la requête est invalide
+     */
+    public void checkRequest(BulkOperationRequestDTO request) {
+        if (request == null || request.getProcessIds() == null || request.getProcessIds().isEmpty()) {
+            throw new IllegalArgumentException("Au moins un processus est requis");
+        }
+        if (request.getOperation() == null) {
+            throw new IllegalArgumentException("L'opération est requise");
+        }
+        if (request.getConcurrency() != null && request.getConcurrency() < 1) {
+            throw new IllegalArgumentException("La concurrence doit être au moins 1");
+        }
+        if (request.getProcessIds().size() > maxItems) {
+            throw new IllegalArgumentException("Trop de processus dans la requête (maximum " + maxItems + ")");
+        }
+    }
+
+    /**
+     * Concurrence effective : celle demandée, bornée par {@code workflow.bulk.max-concurrency}, au moins 1
+     */
+    private int concurrency(BulkOperationRequestDTO request) {
+        int limit = Math.max(1, maxConcurrency);
+        return request.getConcurrency() != null ? Math.min(request.getConcurrency(), limit) : limit;
+    }
+
+    /**
+     * Exécute l'opération sur tous les processus et écrit chaque résultat en NDJSON dans {@code output}
+     */
+    public void execute(BulkOperationRequestDTO request, OutputStream output) throws IOException {
+        checkRequest(request);
+        BulkOperation operation = request.getOperation();
+        List<String> processIds = new ArrayList<>(new LinkedHashSet<>(request.getProcessIds()));
+        int concurrency = concurrency(request);
+
+        CompletionService<BulkOperationResultDTO> completion = new ExecutorCompletionService<>(executor);
+        Iterator<String> remaining = processIds.iterator();
+        int running = 0;
+        while (running < concurrency && remaining.hasNext()) {
+            String processId = remaining.next();
+            completion.submit(() -> executeOne(processId, operation));
+            running++;
+        }
+
+        try {
+            while (running > 0) {
+                BulkOperationResultDTO result = completion.take().get();
+                running--;
+                if (remaining.hasNext()) {
+                    String processId = remaining.next();
+                    completion.submit(() -> executeOne(processId, operation));
+                    running++;
+                }
+                output.write(objectMapper.writeValueAsBytes(result));
+                output.write(NEW_LINE);
+                output.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Opération en masse interrompue", e);
+        } catch (ExecutionException e) {
+            // executeOne capture déjà les erreurs métier : seul un bug peut arriver ici
+            throw new IOException("Erreur inattendue pendant l'opération en masse", e.getCause());
+        }
+        LOG.infof("Opération en masse %s terminée sur %d processus", operation, processIds.size());
+    }
+
+    /**
+     * Variante non bloquante de {@link #execute} : les résultats sont émis dans l'ordre de fin d'exécution,
+     * au plus {@code concurrency} opérations étant en cours simultanément
+     */
+    public Multi<BulkOperationResultDTO> stream(BulkOperationRequestDTO request) {
+        checkRequest(request);
+        BulkOperation operation = request.getOperation();
+        int concurrency = concurrency(request);
+        return Multi.createFrom().iterable(new LinkedHashSet<>(request.getProcessIds()))
+                .onItem().transformToUni(processId -> Uni.createFrom().item(() -> executeOne(processId, operation))
+                        .runSubscriptionOn(executor))
+                .merge(concurrency);
+    }
+
+    private BulkOperationResultDTO executeOne(String processId, BulkOperation operation) {
+        long start = System.nanoTime();
+        try {
+            DeploymentStatus status = null;
+            switch (operation) {
+                case VALIDATE:
+                    status = handlers.get().validate(processId);
+                    break;
+                case DEPLOY:
+                case UNDEPLOY:
+                    // même file que /deployments : ordre par processus, fusion et remplacement des demandes
+                    DeploymentJobDTO.Item item = deploymentJobs.submitOne(processId,
+                            operation == BulkOperation.DEPLOY ? DeploymentOperation.DEPLOY : DeploymentOperation.UNDEPLOY)
+                            .get();
+                    return new BulkOperationResultDTO(processId, operation, item.getStatus() == ItemStatus.SUCCEEDED,
+                            null, item.getMessage(), elapsedMillis(start));
+                case DELETE:
+                    handlers.get().delete(processId);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opération non supportée: " + operation);
+            }
+            boolean success = operation != BulkOperation.VALIDATE || status != DeploymentStatus.INVALIDE;
+            return new BulkOperationResultDTO(processId, operation, success, status, null, elapsedMillis(start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new BulkOperationResultDTO(processId, operation, false, null, "Opération interrompue",
+                    elapsedMillis(start));
+        } catch (Exception e) {
+            LOG.debugf(e, "Échec de l'opération %s du processus %s", operation, processId);
+            return new BulkOperationResultDTO(processId, operation, false, null, e.getMessage(), elapsedMillis(start));
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
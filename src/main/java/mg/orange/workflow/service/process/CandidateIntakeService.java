@@ -0,0 +1,258 @@
+package mg.orange.workflow.service.process;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.CandidateIntakeResultDTO;
+import mg.orange.workflow.service.persistence.ProcessInstanceInsertBatch;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.kie.kogito.Application;
+import org.kie.kogito.Model;
+import org.kie.kogito.hr.CandidateData;
+import org.kie.kogito.process.Process;
+import org.kie.kogito.process.ProcessInstance;
+import org.kie.kogito.process.Processes;
+import org.kie.kogito.services.uow.UnitOfWorkExecutor;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Import en masse de candidats : une instance du processus {@code hiring} par {@link CandidateData}.
+ * <p>
+ * Le corps est lu en flux (tableau JSON ou NDJSON), sans être chargé en mémoire. Les candidats sont regroupés
+ * par lots de {@code batch-size} ; chaque lot est démarré dans une seule transaction et une seule unité de
+ * travail, et ses instances sont insérées en un lot JDBC ({@link ProcessInstanceInsertBatch}) au lieu d'une
+ * insertion par instance. Au plus {@code workflow.intake.concurrency} lots s'exécutent en parallèle pendant
+ * la lecture des suivants. Chaque candidat donne une ligne NDJSON (identifiant de l'instance ou erreur) dès que
+ * son lot est terminé ; un lot en échec est entièrement annulé et toutes ses lignes portent l'erreur.
+ */
+@ApplicationScoped
+public class CandidateIntakeService {
+
+    private static final Logger LOG = Logger.getLogger(CandidateIntakeService.class);
+    private static final String PROCESS_ID = "hiring";
+    private static final String CANDIDATE_VARIABLE = "candidateData";
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    @ConfigProperty(name = "workflow.intake.batch-size", defaultValue = "500")
+    int defaultBatchSize;
+
+    @ConfigProperty(name = "workflow.intake.max-batch-size", defaultValue = "5000")
+    int maxBatchSize;
+
+    @ConfigProperty(name = "workflow.intake.concurrency", defaultValue = "4")
+    int concurrency;
+
+    @ConfigProperty(name = "workflow.intake.max-candidates", defaultValue = "100000")
+    long maxCandidates;
+
+    @ConfigProperty(name = "workflow.virtual-threads.enabled", defaultValue = "false")
+    boolean virtualThreads;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Processes processes;
+
+    @Inject
+    Application application;
+
+    @Inject
+    DataSource dataSource;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (VirtualThreads.use(virtualThreads)) {
+            // la concurrence reste bornée par requête (concurrency), pas par la taille du pool
+            executor = VirtualThreads.newExecutor("candidate-intake-");
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "candidate-intake-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Taille de lot effective, vérifiée avant de commencer à répondre
+     *
+     * @throws IllegalArgumentException si la taille demandée est invalide
+     */
+    public int batchSize(Integer requested) {
+        if (requested == null) {
+            return defaultBatchSize;
+        }
+        if (requested < 1 || requested > maxBatchSize) {
+            throw new IllegalArgumentException("La taille de lot doit être comprise entre 1 et " + maxBatchSize);
+        }
+        return requested;
+    }
+
+    /**
+     * Démarre une instance hiring par candidat lu dans {@code input} et écrit chaque résultat en NDJSON dans
+     * {@code output}. Une erreur de lecture arrête l'import : elle est signalée sur une dernière ligne, après
+     * les résultats des lots déjà lus.
+     */
+    public void execute(InputStream input, Integer requestedBatchSize, OutputStream output) throws IOException {
+        int batchSize = batchSize(requestedBatchSize);
+        Process<? extends Model> process = processes.processById(PROCESS_ID);
+        if (process == null) {
+            throw new IllegalStateException("Processus " + PROCESS_ID + " non déployé");
+        }
+        long start = System.nanoTime();
+        CompletionService<List<CandidateIntakeResultDTO>> completion = new ExecutorCompletionService<>(executor);
+        int running = 0;
+        long index = 0;
+        long started = 0;
+        CandidateIntakeResultDTO readError = null;
+        List<CandidateData> batch = new ArrayList<>(batchSize);
+        long batchStart = 0;
+
+        try (MappingIterator<CandidateData> candidates = objectMapper.readerFor(CandidateData.class).readValues(input)) {
+            while (readError == null) {
+                try {
+                    if (!candidates.hasNextValue()) {
+                        break;
+                    }
+                    if (index >= maxCandidates) {
+                        readError = new CandidateIntakeResultDTO(index, null,
+                                "Trop de candidats dans la requête (maximum " + maxCandidates + ")");
+                        break;
+                    }
+                    batch.add(candidates.nextValue());
+                    index++;
+                } catch (JsonProcessingException e) {
+                    readError = new CandidateIntakeResultDTO(index, null, "Candidat illisible: " + e.getOriginalMessage());
+                    break;
+                }
+                if (batch.size() == batchSize) {
+                    if (running >= Math.max(1, concurrency)) {
+                        started += write(completion.take().get(), output);
+                        running--;
+                    }
+                    submit(completion, process, batch, batchStart);
+                    running++;
+                    batch = new ArrayList<>(batchSize);
+                    batchStart = index;
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(completion, process, batch, batchStart);
+                running++;
+            }
+            while (running > 0) {
+                started += write(completion.take().get(), output);
+                running--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import de candidats interrompu", e);
+        } catch (ExecutionException e) {
+            // startBatch capture déjà les erreurs de démarrage : seul un bug peut arriver ici
+            throw new IOException("Erreur inattendue pendant l'import de candidats", e.getCause());
+        }
+        if (readError != null) {
+            write(List.of(readError), output);
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.infof("Import de candidats terminé: %d instances %s démarrées sur %d candidats en %d ms (%d/s)",
+                started, PROCESS_ID, index, elapsedMillis, started * 1000 / elapsedMillis);
+    }
+
+    private void submit(CompletionService<List<CandidateIntakeResultDTO>> completion, Process<? extends Model> process,
+                        List<CandidateData> batch, long firstIndex) {
+        completion.submit(() -> startBatch(process, batch, firstIndex));
+    }
+
+    /**
+     * Démarre les instances d'un lot dans une transaction
+     */
+    private List<CandidateIntakeResultDTO> startBatch(Process<? extends Model> process, List<CandidateData> candidates,
+                                                     long firstIndex) {
+        List<CandidateIntakeResultDTO> results = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            results.add(new CandidateIntakeResultDTO(firstIndex + i, null, null));
+        }
+        try {
+            List<String> ids = QuarkusTransaction.requiringNew().call(() -> {
+                try (ProcessInstanceInsertBatch inserts = ProcessInstanceInsertBatch.open()) {
+                    List<String> started = UnitOfWorkExecutor.executeInUnitOfWork(application.unitOfWorkManager(),
+                            () -> start(process, candidates));
+                    inserts.flush(dataSource);
+                    return started;
+                }
+            });
+            for (int i = 0; i < ids.size(); i++) {
+                results.get(i).setProcessInstanceId(ids.get(i));
+            }
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Échec du lot de %d candidats à partir de l'index %d", candidates.size(), firstIndex);
+            String message = e.getMessage() == null && e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            results.forEach(result -> result.setError(message));
+        }
+        return results;
+    }
+
+    private static List<String> start(Process<? extends Model> process, List<CandidateData> candidates) {
+        List<String> ids = new ArrayList<>(candidates.size());
+        for (CandidateData candidate : candidates) {
+            Model model = process.createModel();
+            model.fromMap(Map.of(CANDIDATE_VARIABLE, candidate));
+            ProcessInstance<? extends Model> instance = process.createInstance(model);
+            instance.start();
+            ids.add(instance.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Écrit les résultats d'un lot et retourne le nombre d'instances démarrées
+     */
+    private int write(List<CandidateIntakeResultDTO> results, OutputStream output) throws IOException {
+        int started = 0;
+        for (CandidateIntakeResultDTO result : results) {
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write(NEW_LINE);
+            if (result.getProcessInstanceId() != null) {
+                started++;
+            }
+        }
+        output.flush();
+        return started;
+    }
+}
@@ -0,0 +1,20 @@
+package mg.orange.workflow.service.process;
+
+/**
+ * Levée lorsque le flux d'événements a atteint {@code workflow.events.max-clients} abonnés
+ */
+public class EventStreamSaturatedException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxClients;
+
+    public EventStreamSaturatedException(int maxClients) {
+        super("Nombre maximal de clients du flux d'événements atteint (" + maxClients + ")");
+        this.maxClients = maxClients;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+}
@@ -0,0 +1,118 @@
+package mg.orange.workflow.service.process;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur glissant sur 24 heures découpé en seaux horaires (tampon circulaire).
+ * Les incréments sont sans verrou ; un seau est recyclé par CAS lorsque son heure est révolue.
+ * Les seaux sont indexés par heure depuis l'epoch (UTC), le fuseau n'intervient qu'à l'affichage.
+ */
+public class HourlyRingCounter {
+
+    static final int HOURS = 24;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter HOUR_OFFSET_FORMAT = DateTimeFormatter.ofPattern("HH:mmxxx");
+
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(HOURS);
+
+    /**
+     * Incrémente le seau de l'heure courante
+     */
+    public void increment() {
+        increment(System.currentTimeMillis());
+    }
+
+    void increment(long epochMillis) {
+        long hour = epochMillis / MILLIS_PER_HOUR;
+        int index = (int) (hour % HOURS);
+        Bucket bucket = buckets.get(index);
+        while (bucket == null || bucket.hour != hour) {
+            if (bucket != null && bucket.hour > hour) {
+                // Événement plus ancien que le seau courant : hors fenêtre
+                return;
+            }
+            Bucket fresh = new Bucket(hour);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = buckets.get(index);
+            }
+        }
+        bucket.count.increment();
+    }
+
+    /**
+     * Total sur les 24 dernières heures (heure courante incluse)
+     */
+    public long sumLast24h() {
+        long currentHour = System.currentTimeMillis() / MILLIS_PER_HOUR;
+        long total = 0;
+        for (int i = 0; i < HOURS; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.hour > currentHour - HOURS) {
+                total += bucket.count.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Valeurs par heure sur les 24 dernières heures, de la plus ancienne à la plus récente, indexées par le
+     * début de l'heure ({@code Instant} tronqué à l'heure) : deux heures distinctes ne partagent jamais de clé
+     */
+    public Map<Instant, Long> hourlyCounts() {
+        long currentHour = System.currentTimeMillis() / MILLIS_PER_HOUR;
+        Map<Instant, Long> counts = new LinkedHashMap<>();
+        for (long hour = currentHour - HOURS + 1; hour <= currentHour; hour++) {
+            Bucket bucket = buckets.get((int) (hour % HOURS));
+            long count = bucket != null && bucket.hour == hour ? bucket.count.sum() : 0L;
+            counts.put(Instant.ofEpochMilli(hour * MILLIS_PER_HOUR), count);
+        }
+        return counts;
+    }
+
+    /**
+     * {@link #hourlyCounts()} libellées en heure locale "HH:mm" pour l'affichage. Au passage à l'heure d'hiver,
+     * les deux occurrences de l'heure répétée sont suffixées de leur décalage ("02:00+02:00", "02:00+01:00")
+     * au lieu d'être fusionnées.
+     */
+    public Map<String, Long> hourlyValues(ZoneId zone) {
+        Map<Instant, Long> counts = hourlyCounts();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (Instant start : counts.keySet()) {
+            occurrences.merge(start.atZone(zone).format(HOUR_FORMAT), 1, Integer::sum);
+        }
+        Map<String, Long> values = new LinkedHashMap<>();
+        counts.forEach((start, count) -> {
+            ZonedDateTime local = start.atZone(zone);
+            String label = local.format(HOUR_FORMAT);
+            values.put(occurrences.get(label) > 1 ? local.format(HOUR_OFFSET_FORMAT) : label, count);
+        });
+        return values;
+    }
+
+    /**
+     * Heure (depuis l'epoch) courante, utilisée pour détecter le changement d'heure des instantanés
+     */
+    static long currentHour() {
+        return System.currentTimeMillis() / MILLIS_PER_HOUR;
+    }
+
+    private static final class Bucket {
+        final long hour;
+        final LongAdder count = new LongAdder();
+
+        Bucket(long hour) {
+            this.hour = hour;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package mg.orange.workflow.service.process;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import mg.orange.workflow.model.process.NodeLatencyDTO;
+import mg.orange.workflow.model.process.NodeLatencyDTO.NodeLatency;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jbpm.workflow.core.node.EventNode;
+import org.jbpm.workflow.core.node.HumanTaskNode;
+import org.jbpm.workflow.core.node.TimerNode;
+import org.kie.api.definition.process.Node;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.runtime.process.NodeInstance;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.kogito.internal.process.event.DefaultKogitoProcessEventListener;
+import org.kie.kogito.internal.process.runtime.KogitoNodeInstance;
+import org.kie.kogito.internal.process.runtime.KogitoProcessInstance;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Profilage des durées d'exécution par nœud (hiring, approvals...), enregistré comme listener du moteur.
+ * <p>
+ * L'échantillonnage porte sur l'instance de processus ({@code workflow.profiler.sample-rate}) : une instance
+ * échantillonnée est mesurée sur tous ses nœuds, les autres ne coûtent qu'un calcul de hash par nœud.
+ * L'entrée est relevée avant le déclenchement du nœud et la sortie avant le passage au nœud suivant : la
+ * durée n'inclut donc pas l'exécution synchrone de la suite du processus. Les nœuds d'attente (tâches
+ * utilisateur, timers, événements) sortent dans un autre appel que celui de leur entrée : leur durée est
+ * calculée depuis l'heure de déclenchement de l'instance de nœud, à la milliseconde.
+ * <p>
+ * Les durées sont enregistrées en microsecondes dans des {@link ConcurrentHistogram} par processus et par nœud.
+ */
+@ApplicationScoped
+public class NodeLatencyProfiler extends DefaultKogitoProcessEventListener {
+
+    private static final long SAMPLE_SCALE = 10_000;
+
+    @ConfigProperty(name = "workflow.profiler.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "workflow.profiler.sample-rate", defaultValue = "0.1")
+    double sampleRate;
+
+    @ConfigProperty(name = "workflow.profiler.max-in-flight", defaultValue = "10000")
+    long maxInFlight;
+
+    @ConfigProperty(name = "workflow.profiler.significant-digits", defaultValue = "2")
+    int significantDigits;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, NodeStats>> processes = new ConcurrentHashMap<>();
+    private final LocalDateTime since = LocalDateTime.now();
+    private Cache<String, Long> inFlight;
+    private long sampleThreshold;
+
+    @PostConstruct
+    void init() {
+        inFlight = Caffeine.newBuilder().maximumSize(maxInFlight).build();
+        sampleThreshold = Math.round(Math.max(0, Math.min(1, sampleRate)) * SAMPLE_SCALE);
+    }
+
+    @Override
+    public void beforeNodeTriggered(ProcessNodeTriggeredEvent event) {
+        NodeInstance nodeInstance = event.getNodeInstance();
+        if (sampled(event.getProcessInstance()) && !isWaitState(nodeInstance.getNode())) {
+            inFlight.put(key(nodeInstance), System.nanoTime());
+        }
+    }
+
+    /**
+     * Les nœuds sans connexion sortante (événements de fin) ne passent pas par {@code beforeNodeLeft}
+     */
+    @Override
+    public void afterNodeTriggered(ProcessNodeTriggeredEvent event) {
+        NodeInstance nodeInstance = event.getNodeInstance();
+        Node node = nodeInstance.getNode();
+        if (node != null && sampled(event.getProcessInstance()) && node.getOutgoingConnections().isEmpty()) {
+            Long start = inFlight.asMap().remove(key(nodeInstance));
+            if (start != null) {
+                record(event.getProcessInstance(), nodeInstance, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        }
+    }
+
+    @Override
+    public void beforeNodeLeft(ProcessNodeLeftEvent event) {
+        NodeInstance nodeInstance = event.getNodeInstance();
+        if (!sampled(event.getProcessInstance())) {
+            return;
+        }
+        Long start = inFlight.asMap().remove(key(nodeInstance));
+        if (start != null) {
+            record(event.getProcessInstance(), nodeInstance, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return;
+        }
+        // Nœud d'attente ou entré avant le redémarrage : durée depuis l'heure de déclenchement
+        if (nodeInstance instanceof KogitoNodeInstance) {
+            KogitoNodeInstance kogitoNodeInstance = (KogitoNodeInstance) nodeInstance;
+            Date triggerTime = kogitoNodeInstance.getTriggerTime();
+            if (triggerTime != null && !kogitoNodeInstance.isCancelled()) {
+                long elapsedMillis = Math.max(0, System.currentTimeMillis() - triggerTime.getTime());
+                record(event.getProcessInstance(), nodeInstance, TimeUnit.MILLISECONDS.toMicros(elapsedMillis));
+            }
+        }
+    }
+
+    /**
+     * Latences des nœuds du processus, ou vide si aucune instance échantillonnée n'a été exécutée
+     */
+    public Optional<NodeLatencyDTO> getLatencies(String processId) {
+        ConcurrentMap<String, NodeStats> nodes = processes.get(processId);
+        if (nodes == null) {
+            return Optional.empty();
+        }
+        List<NodeLatency> latencies = nodes.entrySet().stream()
+                .map(entry -> entry.getValue().toLatency(entry.getKey()))
+                .sorted(Comparator.comparingDouble(NodeLatency::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+        return Optional.of(new NodeLatencyDTO(processId, sampleThreshold / (double) SAMPLE_SCALE, since, latencies));
+    }
+
+    private boolean sampled(ProcessInstance processInstance) {
+        if (!enabled || sampleThreshold == 0 || processInstance == null) {
+            return false;
+        }
+        if (sampleThreshold >= SAMPLE_SCALE) {
+            return true;
+        }
+        String id = processInstance instanceof KogitoProcessInstance
+                ? ((KogitoProcessInstance) processInstance).getStringId()
+                : processInstance.getProcessId();
+        return Math.floorMod(id.hashCode(), SAMPLE_SCALE) < sampleThreshold;
+    }
+
+    private void record(ProcessInstance processInstance, NodeInstance nodeInstance, long micros) {
+        String nodeId = nodeInstance instanceof KogitoNodeInstance
+                ? ((KogitoNodeInstance) nodeInstance).getNodeDefinitionId()
+                : String.valueOf(nodeInstance.getNodeId());
+        processes.computeIfAbsent(processInstance.getProcessId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(nodeId, id -> new NodeStats(nodeInstance.getNodeName(), nodeInstance.getNode(),
+                        significantDigits))
+                .record(micros);
+    }
+
+    private static String key(NodeInstance nodeInstance) {
+        return nodeInstance instanceof KogitoNodeInstance
+                ? ((KogitoNodeInstance) nodeInstance).getStringId()
+                : nodeInstance.getId();
+    }
+
+    /**
+     * Nœuds qui attendent un signal extérieur ; les tâches de règles métier, de service et les sous-processus
+     * (eux aussi des {@code StateBasedNode}) sont mesurés comme les autres nœuds
+     */
+    private static boolean isWaitState(Node node) {
+        return node instanceof HumanTaskNode || node instanceof TimerNode || node instanceof EventNode;
+    }
+
+    /**
+     * Histogramme et identité d'un nœud
+     */
+    private static final class NodeStats {
+        final String nodeName;
+        final String nodeType;
+        final boolean waitState;
+        final Histogram histogram;
+        final LongAdder totalMicros = new LongAdder();
+
+        NodeStats(String nodeName, Node node, int significantDigits) {
+            this.nodeName = nodeName;
+            this.nodeType = node != null ? node.getClass().getSimpleName() : null;
+            this.waitState = isWaitState(node);
+            this.histogram = new ConcurrentHistogram(significantDigits);
+        }
+
+        void record(long micros) {
+            histogram.recordValue(micros);
+            totalMicros.add(micros);
+        }
+
+        NodeLatency toLatency(String nodeId) {
+            Histogram copy = histogram.copy();
+            long count = copy.getTotalCount();
+            return new NodeLatency(nodeId, nodeName, nodeType, waitState, count,
+                    millis(totalMicros.sum()),
+                    count == 0 ? 0 : copy.getMean() / 1000.0,
+                    count == 0 ? 0 : millis(copy.getMinValue()),
+                    millis(copy.getValueAtPercentile(50)),
+                    millis(copy.getValueAtPercentile(90)),
+                    millis(copy.getValueAtPercentile(99)),
+                    millis(copy.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
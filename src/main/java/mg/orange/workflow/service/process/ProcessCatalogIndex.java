@@ -0,0 +1,651 @@
+package mg.orange.workflow.service.process;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import mg.orange.workflow.model.process.ProcessDTO;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Index en mémoire du catalogue des processus pour {@code listProcesses}.
+ * <p>
+ * Le catalogue est un instantané immuable (copie à l'écriture) contenant, pour chaque clé de tri,
+ * l'ordre des processus précalculé, ainsi qu'un index n-grammes (1 à 3 caractères) des noms pour
+ * le filtre partiel. La pagination par curseur (keyset) reprend après la dernière clé {@code (valeur, id)}
+ * renvoyée par recherche dichotomique : la page N coûte autant que la page 1.
+ * <p>
+ * Seul {@link #replaceAll} reconstruit l'instantané. Un ajout, une mise à jour ou un retrait ne touche que
+ * l'entrée concernée : elle garde son ordinal, n'est repositionnée (par dichotomie) que dans les ordres dont
+ * la valeur de tri a changé, et seules les listes de ses n-grammes sont recopiées si son nom a changé.
+ */
+@ApplicationScoped
+public class ProcessCatalogIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final String CURSOR_SEPARATOR = "\u0000";
+
+    /**
+     * En dessous de 1/8 du catalogue, les candidats du filtre sont triés directement
+     * plutôt que de parcourir l'ordre global
+     */
+    private static final int SPARSE_FILTER_RATIO = 8;
+
+    /**
+     * Clés de tri stables supportées
+     */
+    public enum SortKey {
+        ID, NAME, VERSION, TYPE, STATUS;
+
+        public static SortKey fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Champ de tri invalide: " + value
+                        + ". Valeurs possibles: id, name, version, type, status");
+            }
+        }
+    }
+
+    /**
+     * Page de résultats de l'index
+     */
+    public static class Page {
+        private final List<ProcessDTO> content;
+        private final String next;
+        private final Integer totalElements;
+
+        Page(List<ProcessDTO> content, String next, Integer totalElements) {
+            this.content = content;
+            this.next = next;
+            this.totalElements = totalElements;
+        }
+
+        public List<ProcessDTO> getContent() {
+            return content;
+        }
+
+        /**
+         * Curseur opaque de la page suivante, null s'il n'y en a pas
+         */
+        public String getNext() {
+            return next;
+        }
+
+        /**
+         * Nombre total d'éléments correspondant au filtre, null si non demandé
+         */
+        public Integer getTotalElements() {
+            return totalElements;
+        }
+    }
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Ordinal de chaque processus dans l'instantané courant (modifié sous {@code writeLock})
+     */
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private volatile Catalog catalog = Catalog.build(new ProcessDTO[0]);
+
+    // ======= MISE À JOUR DU CATALOGUE =======
+
+    /**
+     * Remplace tout le catalogue (démarrage de l'application)
+     */
+    public void replaceAll(Collection<ProcessDTO> all) {
+        writeLock.lock();
+        try {
+            Map<String, ProcessDTO> byId = new LinkedHashMap<>();
+            all.forEach(p -> byId.put(p.getId(), p));
+            ProcessDTO[] entries = byId.values().toArray(new ProcessDTO[0]);
+            ordinals.clear();
+            for (int ordinal = 0; ordinal < entries.length; ordinal++) {
+                ordinals.put(entries[ordinal].getId(), ordinal);
+            }
+            catalog = Catalog.build(entries);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ajoute ou met à jour un processus (upload, nouvelle version, activation)
+     */
+    public void upsert(ProcessDTO process) {
+        writeLock.lock();
+        try {
+            Integer ordinal = ordinals.get(process.getId());
+            if (ordinal == null) {
+                ordinal = catalog.entries.length;
+                ordinals.put(process.getId(), ordinal);
+            }
+            catalog = catalog.with(ordinal, process);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retire un processus du catalogue
+     */
+    public void remove(String processId) {
+        writeLock.lock();
+        try {
+            Integer ordinal = ordinals.remove(processId);
+            if (ordinal == null) {
+                return;
+            }
+            Catalog current = catalog;
+            int last = current.entries.length - 1;
+            if (ordinal != last) {
+                // le dernier processus prend l'ordinal libéré
+                ordinals.put(current.entries[last].getId(), ordinal);
+            }
+            catalog = current.without(ordinal);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void onLifecycleEvent(@Observes ProcessLifecycleEvent event) {
+        if (event.getType() == ProcessLifecycleEvent.Type.DELETED) {
+            remove(event.getProcessId());
+            return;
+        }
+        if (event.getNewStatus() == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Integer ordinal = ordinals.get(event.getProcessId());
+            ProcessDTO current = ordinal != null ? catalog.entries[ordinal] : null;
+            if (current != null && current.getDeploymentStatus() != event.getNewStatus()) {
+                ProcessDTO updated = copyOf(current);
+                updated.setDeploymentStatus(event.getNewStatus());
+                catalog = catalog.with(ordinal, updated);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ======= LECTURE =======
+
+    /**
+     * Nombre total de processus indexés
+     */
+    public int size() {
+        return catalog.entries.length;
+    }
+
+    /**
+     * Recherche une page de processus.
+     *
+     * @param nameFilter   filtre partiel sur le nom (insensible à la casse), null pour aucun filtre
+     * @param sortField    clé de tri (id, name, version, type, status)
+     * @param direction    asc ou desc
+     * @param cursor       curseur opaque renvoyé par la page précédente ; si null, {@code offset} est utilisé
+     * @param offset       décalage (mode page/size historique)
+     * @param size         taille de la page
+     * @param includeTotal calculer ou non le nombre total d'éléments
+     */
+    public Page find(String nameFilter, String sortField, String direction, String cursor,
+                     int offset, int size, boolean includeTotal) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être positive");
+        }
+        Catalog snapshot = catalog;
+        SortKey key = SortKey.fromString(sortField);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        String filter = nameFilter == null || nameFilter.isBlank() ? null : nameFilter.trim().toLowerCase(Locale.ROOT);
+        BitSet candidates = filter != null ? snapshot.candidates(filter) : null;
+        int[] order = snapshot.orders.get(key);
+        if (candidates != null && candidates.cardinality() * SPARSE_FILTER_RATIO < order.length) {
+            order = candidates.stream().boxed()
+                    .sorted((a, b) -> Catalog.compare(snapshot.entries[a], snapshot.entries[b], key))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        int start;
+        if (cursor != null && !cursor.isBlank()) {
+            CursorKey after = CursorKey.decode(cursor, key, descending);
+            start = snapshot.positionAfter(order, key, after, descending);
+        } else {
+            start = candidates == null ? Math.max(offset, 0) : skipMatches(snapshot, order, descending, 0,
+                    Math.max(offset, 0), candidates, filter);
+        }
+
+        List<ProcessDTO> content = new ArrayList<>(Math.min(size, order.length));
+        int position = start;
+        int lastOrdinal = -1;
+        for (; position < order.length && content.size() < size; position++) {
+            int ordinal = order[descending ? order.length - 1 - position : position];
+            if (matches(snapshot, ordinal, candidates, filter)) {
+                content.add(snapshot.entries[ordinal]);
+                lastOrdinal = ordinal;
+            }
+        }
+        boolean hasMore = hasMatchFrom(snapshot, order, descending, position, candidates, filter);
+        String next = hasMore && lastOrdinal >= 0
+                ? new CursorKey(key, descending, Catalog.sortValue(snapshot.entries[lastOrdinal], key),
+                        snapshot.entries[lastOrdinal].getId()).encode()
+                : null;
+
+        Integer total = null;
+        if (includeTotal) {
+            total = candidates == null ? order.length : countMatches(snapshot, candidates, filter);
+        }
+        return new Page(content, next, total);
+    }
+
+    private static boolean matches(Catalog snapshot, int ordinal, BitSet candidates, String filter) {
+        return candidates == null || (candidates.get(ordinal) && snapshot.lowerNames[ordinal].contains(filter));
+    }
+
+    private static int skipMatches(Catalog snapshot, int[] order, boolean descending, int from, int toSkip,
+                                   BitSet candidates, String filter) {
+        int position = from;
+        int skipped = 0;
+        while (position < order.length && skipped < toSkip) {
+            int ordinal = order[descending ? order.length - 1 - position : position];
+            if (matches(snapshot, ordinal, candidates, filter)) {
+                skipped++;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean hasMatchFrom(Catalog snapshot, int[] order, boolean descending, int from,
+                                        BitSet candidates, String filter) {
+        for (int position = from; position < order.length; position++) {
+            if (matches(snapshot, order[descending ? order.length - 1 - position : position], candidates, filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countMatches(Catalog snapshot, BitSet candidates, String filter) {
+        int count = 0;
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            if (snapshot.lowerNames[ordinal].contains(filter)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ProcessDTO copyOf(ProcessDTO source) {
+        ProcessDTO copy = new ProcessDTO(source.getId(), source.getName(), source.getVersion());
+        copy.setVersionChangeType(source.getVersionChangeType());
+        copy.setType(source.getType());
+        copy.setRoles(source.getRoles());
+        copy.setMetadata(source.getMetadata());
+        copy.setDeploymentStatus(source.getDeploymentStatus());
+        return copy;
+    }
+
+    // ======= STRUCTURES INTERNES =======
+
+    /**
+     * Instantané immuable du catalogue : ordres de tri précalculés et index n-grammes
+     */
+    private static final class Catalog {
+        final ProcessDTO[] entries;
+        final String[] lowerNames;
+        final Map<SortKey, int[]> orders = new EnumMap<>(SortKey.class);
+        final Map<String, int[]> grams;
+
+        private Catalog(ProcessDTO[] entries) {
+            this.entries = entries;
+            this.lowerNames = new String[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                lowerNames[i] = lowerName(entries[i]);
+            }
+            for (SortKey key : SortKey.values()) {
+                Comparator<Integer> comparator = (a, b) -> compare(entries[a], entries[b], key);
+                orders.put(key, IntStream.range(0, entries.length).boxed().sorted(comparator)
+                        .mapToInt(Integer::intValue).toArray());
+            }
+            this.grams = buildGrams(lowerNames);
+        }
+
+        private Catalog(ProcessDTO[] entries, String[] lowerNames, Map<SortKey, int[]> orders, Map<String, int[]> grams) {
+            this.entries = entries;
+            this.lowerNames = lowerNames;
+            this.orders.putAll(orders);
+            this.grams = grams;
+        }
+
+        static Catalog build(ProcessDTO[] entries) {
+            return new Catalog(entries);
+        }
+
+        /**
+         * Instantané où l'entrée {@code ordinal} vaut {@code entry} ({@code ordinal == entries.length} : ajout)
+         */
+        Catalog with(int ordinal, ProcessDTO entry) {
+            boolean added = ordinal == entries.length;
+            ProcessDTO previous = added ? null : entries[ordinal];
+            ProcessDTO[] newEntries = Arrays.copyOf(entries, added ? entries.length + 1 : entries.length);
+            newEntries[ordinal] = entry;
+            String[] newNames = Arrays.copyOf(lowerNames, newEntries.length);
+            newNames[ordinal] = lowerName(entry);
+
+            Map<SortKey, int[]> newOrders = new EnumMap<>(SortKey.class);
+            for (SortKey key : SortKey.values()) {
+                int[] order = orders.get(key);
+                if (previous != null && sortValue(previous, key).equals(sortValue(entry, key))) {
+                    newOrders.put(key, order);
+                } else {
+                    newOrders.put(key, insert(previous != null ? withoutValue(order, ordinal) : order,
+                            ordinal, newEntries, key));
+                }
+            }
+
+            Map<String, int[]> newGrams = grams;
+            if (previous == null || !newNames[ordinal].equals(lowerNames[ordinal])) {
+                newGrams = new HashMap<>(grams);
+                if (previous != null) {
+                    for (String gram : gramsOf(lowerNames[ordinal])) {
+                        int[] posting = withoutValue(newGrams.get(gram), ordinal);
+                        if (posting.length == 0) {
+                            newGrams.remove(gram);
+                        } else {
+                            newGrams.put(gram, posting);
+                        }
+                    }
+                }
+                for (String gram : gramsOf(newNames[ordinal])) {
+                    int[] posting = newGrams.getOrDefault(gram, new int[0]);
+                    int[] extended = Arrays.copyOf(posting, posting.length + 1);
+                    extended[posting.length] = ordinal;
+                    newGrams.put(gram, extended);
+                }
+            }
+            return new Catalog(newEntries, newNames, newOrders, newGrams);
+        }
+
+        /**
+         * Instantané sans l'entrée {@code ordinal} : la dernière entrée prend sa place
+         */
+        Catalog without(int ordinal) {
+            int last = entries.length - 1;
+            ProcessDTO[] newEntries = Arrays.copyOf(entries, last);
+            String[] newNames = Arrays.copyOf(lowerNames, last);
+            if (ordinal != last) {
+                newEntries[ordinal] = entries[last];
+                newNames[ordinal] = lowerNames[last];
+            }
+
+            Map<SortKey, int[]> newOrders = new EnumMap<>(SortKey.class);
+            for (SortKey key : SortKey.values()) {
+                int[] order = withoutValue(orders.get(key), ordinal);
+                if (ordinal != last) {
+                    replaceValue(order, last, ordinal);
+                }
+                newOrders.put(key, order);
+            }
+
+            Map<String, int[]> newGrams = new HashMap<>(grams);
+            for (String gram : gramsOf(lowerNames[ordinal])) {
+                int[] posting = withoutValue(newGrams.get(gram), ordinal);
+                if (posting.length == 0) {
+                    newGrams.remove(gram);
+                } else {
+                    newGrams.put(gram, posting);
+                }
+            }
+            if (ordinal != last) {
+                for (String gram : gramsOf(lowerNames[last])) {
+                    int[] posting = newGrams.get(gram).clone();
+                    replaceValue(posting, last, ordinal);
+                    newGrams.put(gram, posting);
+                }
+            }
+            return new Catalog(newEntries, newNames, newOrders, newGrams);
+        }
+
+        /**
+         * Insère {@code ordinal} dans un ordre trié, à sa position trouvée par dichotomie
+         */
+        private static int[] insert(int[] order, int ordinal, ProcessDTO[] entries, SortKey key) {
+            int low = 0;
+            int high = order.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(entries[order[mid]], entries[ordinal], key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int[] result = new int[order.length + 1];
+            System.arraycopy(order, 0, result, 0, low);
+            result[low] = ordinal;
+            System.arraycopy(order, low, result, low + 1, order.length - low);
+            return result;
+        }
+
+        private static int[] withoutValue(int[] values, int value) {
+            int index = 0;
+            while (index < values.length && values[index] != value) {
+                index++;
+            }
+            if (index == values.length) {
+                return values.clone();
+            }
+            int[] result = new int[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+            return result;
+        }
+
+        private static void replaceValue(int[] values, int from, int to) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == from) {
+                    values[i] = to;
+                    return;
+                }
+            }
+        }
+
+        private static String lowerName(ProcessDTO process) {
+            String name = process.getName() != null ? process.getName() : process.getId();
+            return name != null ? name.toLowerCase(Locale.ROOT) : "";
+        }
+
+        private static Set<String> gramsOf(String name) {
+            Set<String> result = new HashSet<>();
+            for (int length = 1; length <= MAX_GRAM; length++) {
+                for (int i = 0; i + length <= name.length(); i++) {
+                    result.add(name.substring(i, i + length));
+                }
+            }
+            return result;
+        }
+
+        private static Map<String, int[]> buildGrams(String[] names) {
+            Map<String, List<Integer>> postings = new HashMap<>();
+            for (int ordinal = 0; ordinal < names.length; ordinal++) {
+                String name = names[ordinal];
+                for (int length = 1; length <= MAX_GRAM; length++) {
+                    for (int i = 0; i + length <= name.length(); i++) {
+                        List<Integer> list = postings.computeIfAbsent(name.substring(i, i + length), g -> new ArrayList<>());
+                        if (list.isEmpty() || list.get(list.size() - 1) != ordinal) {
+                            list.add(ordinal);
+                        }
+                    }
+                }
+            }
+            Map<String, int[]> result = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, list) -> result.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+            return result;
+        }
+
+        /**
+         * Ensemble des processus dont le nom contient tous les n-grammes du filtre
+         * (surensemble des résultats, vérifié ensuite par {@code contains})
+         */
+        BitSet candidates(String filter) {
+            BitSet result = null;
+            int length = Math.min(filter.length(), MAX_GRAM);
+            for (int i = 0; i + length <= filter.length(); i++) {
+                int[] posting = grams.get(filter.substring(i, i + length));
+                if (posting == null) {
+                    return new BitSet();
+                }
+                BitSet set = new BitSet(entries.length);
+                for (int ordinal : posting) {
+                    set.set(ordinal);
+                }
+                if (result == null) {
+                    result = set;
+                } else {
+                    result.and(set);
+                }
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+            return result != null ? result : new BitSet();
+        }
+
+        /**
+         * Première position (dans le sens de parcours) strictement après la clé du curseur
+         */
+        int positionAfter(int[] order, SortKey key, CursorKey after, boolean descending) {
+            int low = 0;
+            int high = order.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                ProcessDTO entry = entries[order[descending ? order.length - 1 - mid : mid]];
+                int cmp = compareToKey(entry, key, after);
+                boolean beyond = descending ? cmp < 0 : cmp > 0;
+                if (beyond) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        static int compare(ProcessDTO a, ProcessDTO b, SortKey key) {
+            int cmp = compareValues(sortValue(a, key), sortValue(b, key), key);
+            return cmp != 0 ? cmp : nullSafe(a.getId()).compareTo(nullSafe(b.getId()));
+        }
+
+        static int compareToKey(ProcessDTO entry, SortKey key, CursorKey cursor) {
+            int cmp = compareValues(sortValue(entry, key), cursor.value, key);
+            return cmp != 0 ? cmp : nullSafe(entry.getId()).compareTo(cursor.id);
+        }
+
+        static String sortValue(ProcessDTO process, SortKey key) {
+            switch (key) {
+                case NAME:
+                    return nullSafe(process.getName()).toLowerCase(Locale.ROOT);
+                case VERSION:
+                    return nullSafe(process.getVersion());
+                case TYPE:
+                    return process.getType() != null ? process.getType().getCode() : "";
+                case STATUS:
+                    return process.getDeploymentStatus() != null ? process.getDeploymentStatus().name() : "";
+                case ID:
+                default:
+                    return nullSafe(process.getId());
+            }
+        }
+
+        private static int compareValues(String a, String b, SortKey key) {
+            return key == SortKey.VERSION ? compareVersions(a, b) : a.compareTo(b);
+        }
+
+        /**
+         * Comparaison numérique segment par segment (1.10.0 > 1.9.0)
+         */
+        private static int compareVersions(String a, String b) {
+            String[] left = a.split("\\.");
+            String[] right = b.split("\\.");
+            for (int i = 0; i < Math.max(left.length, right.length); i++) {
+                String l = i < left.length ? left[i] : "0";
+                String r = i < right.length ? right[i] : "0";
+                int cmp;
+                try {
+                    cmp = Long.compare(Long.parseLong(l), Long.parseLong(r));
+                } catch (NumberFormatException e) {
+                    cmp = l.compareTo(r);
+                }
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return a.compareTo(b);
+        }
+
+        private static String nullSafe(String value) {
+            return value != null ? value : "";
+        }
+    }
+
+    /**
+     * Contenu du curseur opaque : clé de tri, direction et dernière clé {@code (valeur, id)} renvoyée
+     */
+    private static final class CursorKey {
+        final SortKey sortKey;
+        final boolean descending;
+        final String value;
+        final String id;
+
+        CursorKey(SortKey sortKey, boolean descending, String value, String id) {
+            this.sortKey = sortKey;
+            this.descending = descending;
+            this.value = value;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = String.join(CURSOR_SEPARATOR, sortKey.name(), descending ? "desc" : "asc", value, id);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CursorKey decode(String cursor, SortKey expectedKey, boolean expectedDescending) {
+            String[] parts;
+            try {
+                parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split(CURSOR_SEPARATOR, -1);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            CursorKey key = new CursorKey(SortKey.fromString(parts[0]), "desc".equals(parts[1]), parts[2], parts[3]);
+            if (key.sortKey != expectedKey || key.descending != expectedDescending) {
+                throw new IllegalArgumentException("Le curseur ne correspond pas au tri demandé");
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package mg.orange.workflow.service.process;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import mg.orange.workflow.model.process.ProcessChangeEventDTO;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.model.process.ProcessStatistics;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Diffusion des changements de processus et des statistiques aux clients SSE.
+ * <p>
+ * Chaque client dispose de sa propre file : les changements d'un même processus y sont fusionnés
+ * jusqu'à l'envoi, et un seul lot est en cours d'écriture à la fois. Un client lent ne ralentit donc
+ * ni les autres ni les émetteurs d'événements ; s'il accumule plus de {@code workflow.events.max-pending}
+ * processus modifiés, ses changements sont abandonnés et il reçoit un événement {@code resync}.
+ * Les statistiques sont comparées au plus une fois par {@code workflow.events.statistics-interval} et
+ * seuls les champs modifiés sont envoyés.
+ */
+@ApplicationScoped
+public class ProcessEventBroadcaster {
+
+    private static final Logger LOG = Logger.getLogger(ProcessEventBroadcaster.class);
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {
+    };
+    private static final Set<String> VOLATILE_FIELDS = Set.of("lastCalculationTime");
+
+    @ConfigProperty(name = "workflow.events.flush-interval", defaultValue = "PT0.25S")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "workflow.events.statistics-interval", defaultValue = "PT2S")
+    Duration statisticsInterval;
+
+    @ConfigProperty(name = "workflow.events.heartbeat-interval", defaultValue = "PT15S")
+    Duration heartbeatInterval;
+
+    @ConfigProperty(name = "workflow.events.max-pending", defaultValue = "500")
+    int maxPending;
+
+    @ConfigProperty(name = "workflow.events.max-clients", defaultValue = "200")
+    int maxClients;
+
+    @Inject
+    ProcessStatisticsAggregator statisticsAggregator;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Dernières statistiques diffusées (thread de diffusion uniquement)
+     */
+    private ProcessStatistics lastStatistics;
+    private Map<String, Object> lastStatisticsFields;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "process-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastStatistics = statisticsAggregator.getSnapshot();
+        lastStatisticsFields = fields(lastStatistics);
+        scheduler.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::publishStatistics, statisticsInterval.toMillis(),
+                statisticsInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        subscribers.forEach(this::close);
+    }
+
+    /**
+     * Abonne un client SSE. Le premier événement envoyé contient l'ensemble des statistiques courantes,
+     * les suivants uniquement les changements.
+     *
+     * @param processId ne transmettre que les changements de ce processus (null pour tous)
+     * @throws EventStreamSaturatedException si le nombre maximal de clients est atteint (réponse 503)
+     */
+    public void subscribe(SseEventSink sink, Sse sse, String processId) {
+        if (subscribers.size() >= maxClients) {
+            throw new EventStreamSaturatedException(maxClients);
+        }
+        Subscriber subscriber = new Subscriber(sink, sse, processId);
+        subscriber.offerStatistics(fields(statisticsAggregator.getSnapshot()));
+        subscribers.add(subscriber);
+        scheduler.execute(() -> flush(subscriber));
+        LOG.debugf("Client du flux d'événements connecté (%d clients)", subscribers.size());
+    }
+
+    /**
+     * Nombre de clients connectés
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    void onLifecycleEvent(@Observes ProcessLifecycleEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    // ======= DIFFUSION (thread process-events) =======
+
+    private void flushAll() {
+        for (Subscriber subscriber : subscribers) {
+            flush(subscriber);
+        }
+    }
+
+    private void flush(Subscriber subscriber) {
+        List<OutboundSseEvent> batch = subscriber.drain();
+        if (batch != null) {
+            send(subscriber, batch);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sink.isClosed()) {
+                close(subscriber);
+            } else if (subscriber.startSending()) {
+                send(subscriber, List.of(subscriber.sse.newEventBuilder().comment("ping").build()));
+            }
+        }
+    }
+
+    private void publishStatistics() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            ProcessStatistics current = statisticsAggregator.getSnapshot();
+            if (current == lastStatistics) {
+                return;
+            }
+            Map<String, Object> fields = fields(current);
+            Map<String, Object> delta = new LinkedHashMap<>();
+            fields.forEach((name, value) -> {
+                if (!VOLATILE_FIELDS.contains(name) && !Objects.equals(value, lastStatisticsFields.get(name))) {
+                    delta.put(name, value);
+                }
+            });
+            lastStatistics = current;
+            lastStatisticsFields = fields;
+            if (!delta.isEmpty()) {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offerStatistics(delta);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Impossible de calculer les variations des statistiques", e);
+        }
+    }
+
+    /**
+     * Écrit un lot d'événements ; le lot suivant n'est préparé qu'une fois celui-ci entièrement écrit
+     */
+    private void send(Subscriber subscriber, List<OutboundSseEvent> batch) {
+        CompletionStage<?> stage = CompletableFuture.completedFuture(null);
+        for (OutboundSseEvent event : batch) {
+            stage = stage.thenCompose(ignored -> subscriber.sink.send(event));
+        }
+        stage.whenComplete((ignored, error) -> {
+            if (error != null || subscriber.sink.isClosed()) {
+                close(subscriber);
+            } else {
+                subscriber.doneSending();
+            }
+        });
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            LOG.debugf("Client du flux d'événements déconnecté (%d clients)", subscribers.size());
+        }
+        try {
+            subscriber.sink.close();
+        } catch (RuntimeException e) {
+            LOG.debug("Fermeture du flux d'événements", e);
+        }
+    }
+
+    private Map<String, Object> fields(ProcessStatistics statistics) {
+        return objectMapper.convertValue(statistics, FIELDS);
+    }
+
+    /**
+     * État d'un client : changements en attente (fusionnés par processus) et lot en cours d'écriture
+     */
+    private final class Subscriber {
+        final SseEventSink sink;
+        final Sse sse;
+        final String processId;
+
+        // protégés par lock (pas de synchronized : les émetteurs peuvent être des threads virtuels)
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, ProcessChangeEventDTO> pendingChanges = new LinkedHashMap<>();
+        private Map<String, Object> pendingStatistics;
+        private boolean overflow;
+        private boolean sending;
+
+        Subscriber(SseEventSink sink, Sse sse, String processId) {
+            this.sink = sink;
+            this.sse = sse;
+            this.processId = processId;
+        }
+
+        void offer(ProcessLifecycleEvent event) {
+            lock.lock();
+            try {
+                if (overflow || processId != null && !processId.equals(event.getProcessId())) {
+                    return;
+                }
+                String key = event.getProcessId() != null ? event.getProcessId() : "";
+                ProcessChangeEventDTO pending = pendingChanges.get(key);
+                if (pending != null) {
+                    pending.merge(ProcessChangeEventDTO.of(event));
+                } else if (pendingChanges.size() >= maxPending) {
+                    overflow = true;
+                    pendingChanges.clear();
+                } else {
+                    pendingChanges.put(key, ProcessChangeEventDTO.of(event));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void offerStatistics(Map<String, Object> delta) {
+            lock.lock();
+            try {
+                if (pendingStatistics == null) {
+                    pendingStatistics = new LinkedHashMap<>(delta);
+                } else {
+                    pendingStatistics.putAll(delta);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean startSending() {
+            lock.lock();
+            try {
+                if (sending) {
+                    return false;
+                }
+                sending = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void doneSending() {
+            lock.lock();
+            try {
+                sending = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Retire les événements en attente et marque le client comme en cours d'écriture ;
+         * null si rien n'est à envoyer ou si le lot précédent n'est pas encore écrit
+         */
+        List<OutboundSseEvent> drain() {
+            lock.lock();
+            try {
+                if (sending || !overflow && pendingChanges.isEmpty() && pendingStatistics == null) {
+                    return null;
+                }
+                List<OutboundSseEvent> batch = new ArrayList<>(pendingChanges.size() + 2);
+                if (overflow) {
+                    batch.add(event(ProcessChangeEventDTO.RESYNC,
+                            Map.of("reason", "Trop de changements en attente, rechargez la liste des processus")));
+                    overflow = false;
+                }
+                for (ProcessChangeEventDTO change : pendingChanges.values()) {
+                    batch.add(event(ProcessChangeEventDTO.LIFECYCLE, change));
+                }
+                if (pendingStatistics != null) {
+                    batch.add(event(ProcessChangeEventDTO.STATISTICS, pendingStatistics));
+                }
+                pendingChanges.clear();
+                pendingStatistics = null;
+                sending = true;
+                return batch;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private OutboundSseEvent event(String name, Object data) {
+            return sse.newEventBuilder()
+                    .name(name)
+                    .id(Long.toString(sequence.incrementAndGet()))
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(data)
+                    .build();
+        }
+    }
+}
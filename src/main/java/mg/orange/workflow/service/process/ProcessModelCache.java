@@ -0,0 +1,266 @@
+package mg.orange.workflow.service.process;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import mg.orange.workflow.model.bpmn.BpmnFlowInfo;
+import mg.orange.workflow.model.bpmn.BpmnNodeInfo;
+import mg.orange.workflow.model.bpmn.BpmnParseResult;
+import mg.orange.workflow.model.process.CacheStatisticsDTO;
+import mg.orange.workflow.model.process.DiagramInfoDTO;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache en mémoire des modèles BPMN analysés, partagé par les endpoints GET d'un processus
+ * (détail, tâches, nœuds, diagramme, groupes assignés).
+ * <p>
+ * Les entrées sont indexées par {@code processId@contentHash} : deux versions au contenu identique
+ * partagent la même entrée, et un nouveau contenu ne peut jamais être servi depuis une entrée périmée.
+ * L'éviction est bornée en taille (W-TinyLFU de Caffeine) et l'invalidation suit les
+ * {@link ProcessLifecycleEvent} qui modifient le contenu (upload, suppression, nouvelle version, activation).
+ * <p>
+ * Les modèles sont mutables : le cache conserve sa propre copie et chaque lecture retourne une copie, pour
+ * qu'un appelant qui modifie le modèle reçu n'altère pas celui servi aux requêtes suivantes.
+ */
+@ApplicationScoped
+public class ProcessModelCache {
+
+    private static final Logger LOG = Logger.getLogger(ProcessModelCache.class);
+
+    /**
+     * Chargement d'un modèle en cas d'absence dans le cache (lecture et analyse du fichier BPMN)
+     */
+    @FunctionalInterface
+    public interface Loader {
+        BpmnParseResult load() throws IOException;
+    }
+
+    @ConfigProperty(name = "workflow.process-cache.max-size", defaultValue = "500")
+    long maxSize;
+
+    private Cache<String, BpmnParseResult> models;
+
+    /**
+     * Empreinte du contenu courant de chaque processus
+     */
+    private final ConcurrentMap<String, String> currentHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Génération par processus, incrémentée à chaque invalidation pour écarter les chargements concurrents périmés
+     */
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        models = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retourne le modèle courant du processus, en le chargeant via {@code loader} s'il est absent
+     */
+    public BpmnParseResult get(String processId, Loader loader) throws IOException {
+        String hash = currentHashes.get(processId);
+        if (hash != null) {
+            BpmnParseResult cached = models.getIfPresent(key(processId, hash));
+            if (cached != null) {
+                hits.increment();
+                return copyOf(cached);
+            }
+        }
+        misses.increment();
+
+        long generation = generation(processId).get();
+        BpmnParseResult loaded = loader.load();
+        if (loaded != null && loaded.getContentHash() != null) {
+            BpmnParseResult stored = copyOf(loaded);
+            // contrôle de génération et écriture atomiques vis-à-vis de invalidate()
+            generations.computeIfPresent(processId, (id, current) -> {
+                if (current.get() == generation) {
+                    store(processId, stored);
+                }
+                return current;
+            });
+        }
+        return loaded;
+    }
+
+    /**
+     * Retourne le modèle d'un contenu précis (version donnée) s'il est en cache
+     */
+    public BpmnParseResult getIfPresent(String processId, String contentHash) {
+        BpmnParseResult cached = models.getIfPresent(key(processId, contentHash));
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copyOf(cached);
+    }
+
+    /**
+     * Enregistre un modèle fraîchement analysé (ex: résultat de l'upload) comme contenu courant
+     */
+    public void put(String processId, BpmnParseResult model) {
+        if (processId == null || model == null || model.getContentHash() == null) {
+            return;
+        }
+        BpmnParseResult stored = copyOf(model);
+        generations.compute(processId, (id, current) -> {
+            store(processId, stored);
+            return current != null ? current : new AtomicLong();
+        });
+    }
+
+    /**
+     * Invalide toutes les entrées d'un processus
+     */
+    public void invalidate(String processId) {
+        if (processId == null) {
+            return;
+        }
+        generations.compute(processId, (id, current) -> {
+            AtomicLong generation = current != null ? current : new AtomicLong();
+            generation.incrementAndGet();
+            currentHashes.remove(processId);
+            return generation;
+        });
+        String prefix = processId + "@";
+        models.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+        LOG.debugf("Cache du modèle invalidé pour le processus %s", processId);
+    }
+
+    /**
+     * Vide entièrement le cache
+     */
+    public void invalidateAll() {
+        for (String processId : generations.keySet()) {
+            generations.computeIfPresent(processId, (id, current) -> {
+                current.incrementAndGet();
+                currentHashes.remove(processId);
+                return current;
+            });
+        }
+        models.invalidateAll();
+    }
+
+    void onLifecycleEvent(@Observes ProcessLifecycleEvent event) {
+        if (event.changesContent()) {
+            invalidate(event.getProcessId());
+        }
+    }
+
+    /**
+     * Métriques du cache (succès, échecs, évictions)
+     */
+    public CacheStatisticsDTO getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStatisticsDTO("process-model", models.estimatedSize(), maxSize,
+                hitCount, missCount, models.stats().evictionCount(),
+                requests == 0 ? 0.0 : (double) hitCount / requests);
+    }
+
+    private AtomicLong generation(String processId) {
+        return generations.computeIfAbsent(processId, id -> new AtomicLong());
+    }
+
+    /**
+     * À appeler sous le verrou de {@code generations} pour le processus
+     */
+    private void store(String processId, BpmnParseResult model) {
+        models.put(key(processId, model.getContentHash()), model);
+        currentHashes.put(processId, model.getContentHash());
+    }
+
+    private static String key(String processId, String contentHash) {
+        return processId + "@" + contentHash;
+    }
+
+    private static BpmnParseResult copyOf(BpmnParseResult source) {
+        BpmnParseResult copy = new BpmnParseResult();
+        copy.setProcessId(source.getProcessId());
+        copy.setProcessName(source.getProcessName());
+        copy.setProcessVersion(source.getProcessVersion());
+        copy.setPackageName(source.getPackageName());
+        copy.setContentHash(source.getContentHash());
+        copy.setSizeBytes(source.getSizeBytes());
+        copy.setErrors(new ArrayList<>(source.getErrors()));
+        copy.setWarnings(new ArrayList<>(source.getWarnings()));
+        List<BpmnNodeInfo> nodes = new ArrayList<>(source.getNodes().size());
+        for (BpmnNodeInfo node : source.getNodes()) {
+            nodes.add(copyOf(node));
+        }
+        copy.setNodes(nodes);
+        List<BpmnFlowInfo> flows = new ArrayList<>(source.getFlows().size());
+        for (BpmnFlowInfo flow : source.getFlows()) {
+            flows.add(new BpmnFlowInfo(flow.getId(), flow.getName(), flow.getSourceRef(), flow.getTargetRef()));
+        }
+        copy.setFlows(flows);
+        copy.setDiagram(source.getDiagram() != null ? copyOf(source.getDiagram()) : null);
+        copy.setElementIds(new HashSet<>(source.getElementIds()));
+        return copy;
+    }
+
+    private static BpmnNodeInfo copyOf(BpmnNodeInfo source) {
+        BpmnNodeInfo copy = new BpmnNodeInfo(source.getId(), source.getName(), source.getType());
+        copy.setTaskName(source.getTaskName());
+        copy.setAttachedToRef(source.getAttachedToRef());
+        copy.setGroups(new ArrayList<>(source.getGroups()));
+        copy.setActors(new ArrayList<>(source.getActors()));
+        copy.setDataInputs(new ArrayList<>(source.getDataInputs()));
+        copy.setIncoming(new ArrayList<>(source.getIncoming()));
+        copy.setOutgoing(new ArrayList<>(source.getOutgoing()));
+        return copy;
+    }
+
+    private static DiagramInfoDTO copyOf(DiagramInfoDTO source) {
+        DiagramInfoDTO copy = new DiagramInfoDTO();
+        if (source.getShapes() != null) {
+            Map<String, DiagramInfoDTO.ShapeInfo> shapes = new LinkedHashMap<>();
+            source.getShapes().forEach((id, shape) -> shapes.put(id, new DiagramInfoDTO.ShapeInfo(
+                    shape.getElementId(), shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight())));
+            copy.setShapes(shapes);
+        }
+        if (source.getEdges() != null) {
+            Map<String, DiagramInfoDTO.EdgeInfo> edges = new LinkedHashMap<>();
+            source.getEdges().forEach((id, edge) -> {
+                DiagramInfoDTO.EdgeInfo edgeCopy = new DiagramInfoDTO.EdgeInfo();
+                edgeCopy.setElementId(edge.getElementId());
+                edgeCopy.setSourceId(edge.getSourceId());
+                edgeCopy.setTargetId(edge.getTargetId());
+                if (edge.getWaypoints() != null) {
+                    List<DiagramInfoDTO.EdgeInfo.Waypoint> waypoints = new ArrayList<>(edge.getWaypoints().size());
+                    for (DiagramInfoDTO.EdgeInfo.Waypoint waypoint : edge.getWaypoints()) {
+                        waypoints.add(new DiagramInfoDTO.EdgeInfo.Waypoint(waypoint.getX(), waypoint.getY()));
+                    }
+                    edgeCopy.setWaypoints(waypoints);
+                }
+                edges.put(id, edgeCopy);
+            });
+            copy.setEdges(edges);
+        }
+        return copy;
+    }
+}
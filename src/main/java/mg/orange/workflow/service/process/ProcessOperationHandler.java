@@ -0,0 +1,22 @@
+package mg.orange.workflow.service.process;
+
+import mg.orange.workflow.model.process.DeploymentStatus;
+
+/**
+ * Opérations unitaires de validation et de suppression d'un processus, fournies par l'implémentation
+ * de la ressource (mêmes traitements que {@code /{processId}/validate} et {@code DELETE /{filename}}).
+ */
+public interface ProcessOperationHandler {
+
+    /**
+     * Valide le BPMN du processus et met à jour son statut
+     *
+     * @return le statut résultant (VALIDE ou INVALIDE)
+     */
+    DeploymentStatus validate(String processId) throws Exception;
+
+    /**
+     * Supprime le processus et son fichier BPMN
+     */
+    void delete(String processId) throws Exception;
+}
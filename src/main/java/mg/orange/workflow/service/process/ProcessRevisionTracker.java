@@ -0,0 +1,128 @@
+package mg.orange.workflow.service.process;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Révision courante de chaque processus et du catalogue, utilisée comme validateur HTTP (ETag, Last-Modified).
+ * <p>
+ * Chaque écriture incrémente la révision du processus concerné et celle du catalogue. Les services n'appellent
+ * pas le tracker : il observe les {@link ProcessLifecycleEvent} qu'ils émettent (upload, versions et activation
+ * du {@code BpmnVersionStore}, déploiements et retraits du {@code DeploymentJobService}, validation), avant les
+ * autres observateurs pour qu'un client prévenu par le flux SSE obtienne déjà le nouvel ETag. Seule une requête
+ * d'écriture réussie sur les ressources de processus ({@code ConditionalGetFeature}) l'appelle directement. L'ETag combine un identifiant de démarrage, l'identifiant du
+ * processus, le numéro de révision et l'empreinte du contenu actif : deux processus n'ont jamais le même
+ * validateur et, après un redémarrage, aucune réponse périmée ne peut être confirmée par un 304.
+ */
+@ApplicationScoped
+public class ProcessRevisionTracker {
+
+    /**
+     * Validateurs d'une ressource à un instant donné
+     */
+    public static final class Revision {
+        private final long number;
+        private final String contentHash;
+        private final Instant lastModified;
+        private final String tag;
+
+        Revision(String bootId, String scope, long number, String contentHash, Instant lastModified) {
+            this.number = number;
+            this.contentHash = contentHash;
+            this.lastModified = lastModified;
+            this.tag = bootId + "." + scope + "." + number
+                    + (contentHash != null ? "." + contentHash.substring(0, Math.min(16, contentHash.length())) : "");
+        }
+
+        /**
+         * Valeur opaque de l'ETag (sans guillemets)
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * Date de la dernière modification, à la seconde (précision de Last-Modified)
+         */
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private static final String CATALOG_SCOPE = "catalog";
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Instant started = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    private final ConcurrentMap<String, Revision> revisions = new ConcurrentHashMap<>();
+    private final AtomicReference<Revision> catalog = new AtomicReference<>(initial(CATALOG_SCOPE));
+
+    /**
+     * Révision courante d'un processus (révision de démarrage s'il n'a pas changé depuis)
+     */
+    public Revision current(String processId) {
+        Revision revision = revisions.get(processId);
+        return revision != null ? revision : initial(processId);
+    }
+
+    /**
+     * Révision du catalogue (liste, comptage, fichiers), modifiée par tout événement
+     */
+    public Revision catalog() {
+        return catalog.get();
+    }
+
+    /**
+     * Nouvelle révision du processus (et du catalogue) après une écriture
+     *
+     * @param processId   processus modifié, ou null si seul le catalogue est concerné (ex: upload)
+     * @param contentHash empreinte du nouveau contenu actif, ou null s'il est inchangé
+     */
+    public void changed(String processId, String contentHash) {
+        if (processId != null) {
+            revisions.compute(processId, (id, previous) -> next(id, previous != null ? previous : initial(id),
+                    contentHash));
+        }
+        catalog.updateAndGet(previous -> next(CATALOG_SCOPE, previous, null));
+    }
+
+    /**
+     * Nouvelle révision d'un processus supprimé : l'empreinte de son contenu n'a plus cours
+     */
+    public void removed(String processId) {
+        revisions.compute(processId, (id, previous) -> {
+            Revision base = previous != null ? previous : initial(id);
+            Revision next = next(id, base, null);
+            return new Revision(bootId, id, next.number, null, next.lastModified);
+        });
+        catalog.updateAndGet(previous -> next(CATALOG_SCOPE, previous, null));
+    }
+
+    void onLifecycleEvent(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) ProcessLifecycleEvent event) {
+        if (event.getType() == ProcessLifecycleEvent.Type.DELETED && event.getProcessId() != null) {
+            removed(event.getProcessId());
+        } else {
+            changed(event.getProcessId(), event.getContentHash());
+        }
+    }
+
+    private Revision initial(String scope) {
+        return new Revision(bootId, scope, 0, null, started);
+    }
+
+    private Revision next(String scope, Revision previous, String contentHash) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        // Last-Modified ne doit jamais reculer, même si l'horloge est ajustée
+        Instant lastModified = now.isAfter(previous.lastModified) ? now : previous.lastModified;
+        return new Revision(bootId, scope, previous.number + 1,
+                contentHash != null ? contentHash : previous.contentHash, lastModified);
+    }
+}
@@ -0,0 +1,324 @@
+package mg.orange.workflow.service.process;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.DeploymentStatus;
+import mg.orange.workflow.model.process.ProcessDTO;
+import mg.orange.workflow.model.process.ProcessLifecycleEvent;
+import mg.orange.workflow.model.process.ProcessStatistics;
+import mg.orange.workflow.model.process.ProcessType;
+import mg.orange.workflow.service.bpmn.BpmnVersionStore;
+import mg.orange.workflow.service.metrics.WorkflowMetrics;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégateur incrémental des {@link ProcessStatistics}.
+ * <p>
+ * Les compteurs sont mis à jour à chaque {@link ProcessLifecycleEvent} (déploiement, retrait, validation,
+ * upload, version) avec des {@link LongAdder} sans verrou et des seaux horaires circulaires pour les
+ * fenêtres de 24h. Les endpoints de statistiques lisent un instantané précalculé : il n'est reconstruit
+ * qu'après un changement ou un changement d'heure, jamais à chaque requête.
+ * <p>
+ * Le temps de traitement moyen et l'utilisation système proviennent des mesures de {@link WorkflowMetrics}
+ * (durées des étapes du pipeline, usage CPU du processus) : l'instantané est donc aussi recalculé lorsqu'il
+ * est plus ancien que {@code workflow.metrics.statistics-refresh}.
+ */
+@ApplicationScoped
+public class ProcessStatisticsAggregator {
+
+    private static final Logger LOG = Logger.getLogger(ProcessStatisticsAggregator.class);
+    private static final double CPU_STEP_PERCENT = 5.0;
+
+    private final Map<DeploymentStatus, LongAdder> statusCounts = new EnumMap<>(DeploymentStatus.class);
+    private final ConcurrentMap<String, LongAdder> typeDistribution = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> taskCounts = new ConcurrentHashMap<>();
+    private final Set<String> processesWithErrors = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Set<String>> versions = new ConcurrentHashMap<>();
+
+    private final LongAdder uniqueVersions = new LongAdder();
+    private final LongAdder deploymentSuccesses = new LongAdder();
+    private final LongAdder deploymentFailures = new LongAdder();
+    private final LongAdder totalTasks = new LongAdder();
+
+    private final HourlyRingCounter activity = new HourlyRingCounter();
+    private final HourlyRingCounter deployments = new HourlyRingCounter();
+    private final HourlyRingCounter invalidations = new HourlyRingCounter();
+    private final HourlyRingCounter modifications = new HourlyRingCounter();
+
+    @Inject
+    WorkflowMetrics metrics;
+
+    @Inject
+    BpmnVersionStore versionStore;
+
+    @ConfigProperty(name = "workflow.metrics.statistics-refresh", defaultValue = "PT5S")
+    Duration statisticsRefresh;
+
+    private final AtomicLong modCount = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public ProcessStatisticsAggregator() {
+        for (DeploymentStatus status : DeploymentStatus.values()) {
+            statusCounts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Réinitialise les compteurs d'état à partir de la liste courante des processus (démarrage de l'application),
+     * comme s'ils avaient été reçus par des événements d'upload : versions distinctes (version courante et
+     * historique du {@link BpmnVersionStore}) et nombre de tâches de chaque processus.
+     * Les fenêtres glissantes de 24h ne sont pas touchées.
+     *
+     * @param taskCounts nombre de tâches par identifiant de processus (processus absents : inconnus)
+     */
+    public void rebuild(Collection<ProcessDTO> processes, Map<String, Integer> taskCounts) {
+        statusCounts.values().forEach(LongAdder::reset);
+        typeDistribution.clear();
+        uniqueVersions.reset();
+        versions.clear();
+        this.taskCounts.clear();
+        totalTasks.reset();
+        processesWithErrors.clear();
+
+        for (ProcessDTO process : processes) {
+            if (process.getDeploymentStatus() != null) {
+                statusCounts.get(process.getDeploymentStatus()).increment();
+                if (process.getDeploymentStatus() == DeploymentStatus.INVALIDE) {
+                    processesWithErrors.add(process.getId());
+                }
+            }
+            typeCounter(process.getType()).increment();
+            addVersion(process.getId(), process.getVersion());
+            if (versionStore != null) {
+                versionStore.getHistory(process.getId(), 0, versionStore.countVersions(process.getId()))
+                        .forEach(version -> addVersion(process.getId(), version.getVersionSemver()));
+            }
+            updateTaskCount(process.getId(), taskCounts.get(process.getId()));
+        }
+        modCount.incrementAndGet();
+        LOG.infof("Statistiques des processus initialisées à partir de %d processus", processes.size());
+    }
+
+    void onLifecycleEvent(@Observes ProcessLifecycleEvent event) {
+        record(event);
+    }
+
+    /**
+     * Applique un événement du cycle de vie aux compteurs
+     */
+    public void record(ProcessLifecycleEvent event) {
+        activity.increment();
+        switch (event.getType()) {
+            case UPLOADED:
+                if (event.getPreviousStatus() == null) {
+                    typeCounter(event.getProcessType()).increment();
+                }
+                addVersion(event.getProcessId(), event.getVersion());
+                modifications.increment();
+                updateTaskCount(event.getProcessId(), event.getTaskCount());
+                break;
+            case DELETED:
+                // l'effacement de l'historique des versions ne connaît pas le type du processus
+                if (event.getProcessType() != null) {
+                    typeCounter(event.getProcessType()).decrement();
+                }
+                removeTaskCount(event.getProcessId());
+                removeVersions(event.getProcessId());
+                processesWithErrors.remove(event.getProcessId());
+                break;
+            case VERSION_CREATED:
+                addVersion(event.getProcessId(), event.getVersion());
+                modifications.increment();
+                break;
+            case VERSION_ACTIVATED:
+            case VERSION_DEACTIVATED:
+                modifications.increment();
+                updateTaskCount(event.getProcessId(), event.getTaskCount());
+                break;
+            case DEPLOYED:
+                deploymentSuccesses.increment();
+                deployments.increment();
+                break;
+            case DEPLOYMENT_FAILED:
+                deploymentFailures.increment();
+                break;
+            case VALIDATED:
+                if (event.getNewStatus() == DeploymentStatus.INVALIDE) {
+                    processesWithErrors.add(event.getProcessId());
+                } else if (event.getNewStatus() != null) {
+                    processesWithErrors.remove(event.getProcessId());
+                }
+                break;
+            default:
+                break;
+        }
+        applyTransition(event.getPreviousStatus(), event.getNewStatus());
+        if (event.getNewStatus() == DeploymentStatus.INVALIDE && event.getPreviousStatus() != DeploymentStatus.INVALIDE) {
+            invalidations.increment();
+        }
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Retourne l'instantané courant des statistiques.
+     * L'objet retourné est partagé entre les appelants et ne doit pas être modifié.
+     */
+    public ProcessStatistics getSnapshot() {
+        Snapshot current = snapshot;
+        long version = modCount.get();
+        long hour = HourlyRingCounter.currentHour();
+        long now = System.nanoTime();
+        if (current == null || current.modCount != version || current.hour != hour) {
+            current = new Snapshot(version, hour, now, compute());
+            snapshot = current;
+        } else if (metrics != null && now - current.computedAt >= refreshNanos()) {
+            // Rafraîchissement des seules mesures : l'instantané précédent est conservé s'il est inchangé,
+            // pour que les abonnés SSE n'y voient pas de variation
+            ProcessStatistics refreshed = compute();
+            current = new Snapshot(version, hour, now,
+                    sameMeasures(refreshed, current.statistics) ? current.statistics : refreshed);
+            snapshot = current;
+        }
+        return current.statistics;
+    }
+
+    private static boolean sameMeasures(ProcessStatistics refreshed, ProcessStatistics previous) {
+        LocalDateTime calculatedAt = refreshed.getLastCalculationTime();
+        refreshed.setLastCalculationTime(previous.getLastCalculationTime());
+        boolean same = refreshed.equals(previous);
+        refreshed.setLastCalculationTime(calculatedAt);
+        return same;
+    }
+
+    /**
+     * Arrondit l'usage CPU au palier de {@link #CPU_STEP_PERCENT} : la valeur brute varie à chaque lecture et
+     * ferait de chaque rafraîchissement un nouvel instantané
+     */
+    private static double roundCpu(double percent) {
+        return Math.round(percent / CPU_STEP_PERCENT) * CPU_STEP_PERCENT;
+    }
+
+    private ProcessStatistics compute() {
+        long deployed = statusCounts.get(DeploymentStatus.DEPLOYE).sum();
+        long valid = statusCounts.get(DeploymentStatus.VALIDE).sum();
+        long invalid = statusCounts.get(DeploymentStatus.INVALIDE).sum();
+        long undeployed = statusCounts.get(DeploymentStatus.NON_DEPLOYE).sum();
+        long total = deployed + valid + invalid + undeployed;
+
+        long successes = deploymentSuccesses.sum();
+        long attempts = successes + deploymentFailures.sum();
+        double successRate = attempts == 0 ? 100.0 : successes * 100.0 / attempts;
+
+        Map<String, Long> types = new LinkedHashMap<>();
+        typeDistribution.forEach((type, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                types.put(type, value);
+            }
+        });
+
+        ProcessStatistics statistics = new ProcessStatistics(
+                deployed, valid, invalid, undeployed, uniqueVersions.sum(),
+                successRate, metrics != null ? metrics.getAverageProcessingSeconds() : 0.0,
+                processesWithErrors.size(), modifications.sumLast24h(),
+                Collections.unmodifiableMap(types), LocalDateTime.now(),
+                activity.sumLast24h(), deployments.sumLast24h(), invalidations.sumLast24h(),
+                Collections.unmodifiableMap(activity.hourlyValues(ZoneId.systemDefault())),
+                metrics != null ? roundCpu(metrics.getCpuUtilizationPercent()) : 0.0,
+                total == 0 ? 0.0 : (double) totalTasks.sum() / total,
+                0, false, 0);
+        statistics.calculateHealthScore();
+        statistics.evaluateAlerts();
+        return statistics;
+    }
+
+    private long refreshNanos() {
+        return statisticsRefresh != null ? statisticsRefresh.toNanos() : TimeUnit.SECONDS.toNanos(5);
+    }
+
+    private void applyTransition(DeploymentStatus previous, DeploymentStatus next) {
+        if (previous == next) {
+            return;
+        }
+        if (previous != null) {
+            statusCounts.get(previous).decrement();
+        }
+        if (next != null) {
+            statusCounts.get(next).increment();
+        }
+    }
+
+    private void updateTaskCount(String processId, Integer taskCount) {
+        if (processId == null || taskCount == null) {
+            return;
+        }
+        Integer previous = taskCounts.put(processId, taskCount);
+        totalTasks.add(taskCount - (previous != null ? previous : 0));
+    }
+
+    private void removeTaskCount(String processId) {
+        Integer previous = processId != null ? taskCounts.remove(processId) : null;
+        if (previous != null) {
+            totalTasks.add(-previous);
+        }
+    }
+
+    /**
+     * Compte une version (processId, version) si elle n'est pas déjà connue ; une version absente compte une fois
+     * par processus
+     */
+    private void addVersion(String processId, String version) {
+        if (processId == null) {
+            return;
+        }
+        if (versions.computeIfAbsent(processId, id -> ConcurrentHashMap.newKeySet()).add(version != null ? version : "")) {
+            uniqueVersions.increment();
+        }
+    }
+
+    private void removeVersions(String processId) {
+        Set<String> removed = processId != null ? versions.remove(processId) : null;
+        if (removed != null) {
+            uniqueVersions.add(-removed.size());
+        }
+    }
+
+    private LongAdder typeCounter(ProcessType type) {
+        String code = (type != null ? type : ProcessType.getDefault()).getCode();
+        return typeDistribution.computeIfAbsent(code, k -> new LongAdder());
+    }
+
+    /**
+     * Instantané immuable associé au numéro de modification et à l'heure de calcul
+     */
+    private static final class Snapshot {
+        final long modCount;
+        final long hour;
+        final long computedAt;
+        final ProcessStatistics statistics;
+
+        Snapshot(long modCount, long hour, long computedAt, ProcessStatistics statistics) {
+            this.modCount = modCount;
+            this.hour = hour;
+            this.computedAt = computedAt;
+            this.statistics = statistics;
+        }
+    }
+}
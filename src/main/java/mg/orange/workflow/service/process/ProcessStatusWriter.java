@@ -0,0 +1,20 @@
+package mg.orange.workflow.service.process;
+
+import mg.orange.workflow.model.process.DeploymentStatus;
+
+import java.util.Map;
+
+/**
+ * Écriture groupée des statuts de déploiement, fournie par l'implémentation de la ressource.
+ */
+public interface ProcessStatusWriter {
+
+    /**
+     * Écrit les statuts VALIDE/INVALIDE calculés en une seule opération (une transaction).
+     * Un processus valide déjà DEPLOYE conserve son statut.
+     *
+     * @param statuses statut calculé par identifiant de processus
+     * @return le statut précédent de chaque processus effectivement modifié
+     */
+    Map<String, DeploymentStatus> writeStatuses(Map<String, DeploymentStatus> statuses) throws Exception;
+}
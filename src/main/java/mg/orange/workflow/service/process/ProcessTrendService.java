@@ -0,0 +1,319 @@
+package mg.orange.workflow.service.process;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import mg.orange.workflow.model.process.ProcessTrendsDTO;
+import mg.orange.workflow.model.process.ProcessTrendsDTO.DailyTrend;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tendances d'activité des instances à partir d'agrégats horaires et journaliers.
+ * <p>
+ * Un job incrémental agrège le journal d'audit ({@code Process_Instance_State_Log}) dans
+ * {@code process_stats_hourly} puis {@code process_stats_daily}, à partir d'un filigrane : chaque passage
+ * ne lit que les lignes postérieures au filigrane moins {@code workflow.trends.late-arrival} (pour les
+ * écritures tardives) et recalcule les tranches concernées, ce qui le rend idempotent. Un verrou
+ * consultatif PostgreSQL évite que deux instances de l'application n'agrègent en même temps.
+ * Les lectures ne portent que sur les agrégats : leur coût ne dépend pas de la taille de l'historique.
+ */
+@ApplicationScoped
+public class ProcessTrendService {
+
+    private static final Logger LOG = Logger.getLogger(ProcessTrendService.class);
+    private static final String ROLLUP_NAME = "process_instance_state";
+    private static final long ROLLUP_LOCK_KEY = 0x5052_4f43_5452_4e44L;
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @ConfigProperty(name = "workflow.trends.rollup-enabled", defaultValue = "true")
+    boolean rollupEnabled;
+
+    @ConfigProperty(name = "workflow.trends.rollup-interval", defaultValue = "PT1M")
+    Duration rollupInterval;
+
+    @ConfigProperty(name = "workflow.trends.late-arrival", defaultValue = "PT1H")
+    Duration lateArrival;
+
+    @ConfigProperty(name = "workflow.trends.backfill-chunk", defaultValue = "P1D")
+    Period backfillChunk;
+
+    @ConfigProperty(name = "workflow.trends.hourly-retention", defaultValue = "P30D")
+    Period hourlyRetention;
+
+    @ConfigProperty(name = "workflow.trends.max-days", defaultValue = "90")
+    int maxDays;
+
+    @Inject
+    DataSource dataSource;
+
+    private ScheduledExecutorService scheduler;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!rollupEnabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "process-trends-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runRollup, 0, rollupInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // ======= LECTURE =======
+
+    /**
+     * Tendances des {@code days} derniers jours (jour courant inclus) et des 24 dernières heures
+     *
+     * @param processId limiter les tendances à un processus (null pour tous)
+     */
+    public ProcessTrendsDTO getTrends(int days, String processId) {
+        int window = Math.max(1, Math.min(days, maxDays));
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(window - 1L);
+        LocalDateTime hourFrom = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(23);
+        try (Connection connection = dataSource.getConnection()) {
+            return new ProcessTrendsDTO(from, to, processId,
+                    dailyTrends(connection, from, to, processId),
+                    hourlyStats(connection, hourFrom, processId),
+                    readWatermark(connection));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible de lire les agrégats de tendances", e);
+        }
+    }
+
+    private List<DailyTrend> dailyTrends(Connection connection, LocalDate from, LocalDate to, String processId)
+            throws SQLException {
+        Map<LocalDate, Map<String, Long>> counts = new TreeMap<>();
+        String sql = "select bucket_date, event_type, sum(event_count) from process_stats_daily"
+                + " where bucket_date >= ?" + (processId != null ? " and process_id = ?" : "")
+                + " group by bucket_date, event_type";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setDate(1, Date.valueOf(from));
+            if (processId != null) {
+                statement.setString(2, processId);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    counts.computeIfAbsent(rows.getDate(1).toLocalDate(), d -> new TreeMap<>())
+                            .put(rows.getString(2), rows.getLong(3));
+                }
+            }
+        }
+        List<DailyTrend> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Map<String, Long> byType = counts.getOrDefault(date, Map.of());
+            days.add(new DailyTrend(date, byType.values().stream().mapToLong(Long::longValue).sum(), byType));
+        }
+        return days;
+    }
+
+    private Map<String, Long> hourlyStats(Connection connection, LocalDateTime from, String processId)
+            throws SQLException {
+        Map<LocalDateTime, Long> counts = new TreeMap<>();
+        String sql = "select bucket_start, sum(event_count) from process_stats_hourly"
+                + " where bucket_start >= ?" + (processId != null ? " and process_id = ?" : "")
+                + " group by bucket_start";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            if (processId != null) {
+                statement.setString(2, processId);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    counts.put(rows.getTimestamp(1).toLocalDateTime(), rows.getLong(2));
+                }
+            }
+        }
+        Map<String, Long> hourly = new LinkedHashMap<>();
+        for (int i = 0; i < 24; i++) {
+            LocalDateTime hour = from.plusHours(i);
+            hourly.put(hour.format(HOUR_FORMAT), counts.getOrDefault(hour, 0L));
+        }
+        return hourly;
+    }
+
+    /**
+     * Instant avant lequel les lignes de {@code Process_Instance_State_Log} peuvent être purgées sans fausser
+     * les agrégats (filigrane moins la marge des écritures tardives) ; null si l'agrégation est désactivée.
+     * Tant qu'aucun agrégat n'a été calculé, rien ne peut être purgé.
+     */
+    public LocalDateTime getAuditPurgeLimit() {
+        if (!rollupEnabled) {
+            return null;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            LocalDateTime watermark = readWatermark(connection);
+            return watermark != null ? watermark.minus(lateArrival) : LocalDateTime.MIN;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible de lire le filigrane des agrégats de tendances", e);
+        }
+    }
+
+    // ======= AGRÉGATION INCRÉMENTALE =======
+
+    private void runRollup() {
+        try {
+            rollup();
+        } catch (Exception e) {
+            LOG.warn("Échec de l'agrégation des tendances des processus", e);
+        }
+    }
+
+    /**
+     * Avance les agrégats jusqu'à maintenant, par tranches d'au plus {@code workflow.trends.backfill-chunk}
+     * (une transaction par tranche : un premier passage sur un long historique progresse même s'il est interrompu)
+     *
+     * @return nombre de tranches agrégées (0 si une autre instance agrège déjà)
+     */
+    public int rollup() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = now.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        int chunks = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                while (true) {
+                    if (!tryLock(connection)) {
+                        connection.rollback();
+                        LOG.debug("Agrégation des tendances déjà en cours sur une autre instance");
+                        break;
+                    }
+                    LocalDateTime watermark = readWatermark(connection);
+                    LocalDateTime from = watermark != null ? watermark.minus(lateArrival) : firstEventDate(connection);
+                    if (from == null) {
+                        connection.rollback();
+                        break;
+                    }
+                    from = from.truncatedTo(ChronoUnit.HOURS);
+                    LocalDateTime to = from.plus(backfillChunk);
+                    if (!to.isBefore(end)) {
+                        to = end;
+                    }
+                    rollupRange(connection, from, to);
+                    LocalDateTime reached = to.isAfter(now) ? now : to;
+                    writeWatermark(connection, reached);
+                    connection.commit();
+                    chunks++;
+                    if (to.equals(end)) {
+                        break;
+                    }
+                }
+                if (chunks > 0) {
+                    purgeHourly(connection, now.minus(hourlyRetention));
+                    connection.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        if (chunks > 1) {
+            LOG.infof("Agrégats de tendances rattrapés en %d tranches", chunks);
+        }
+        return chunks;
+    }
+
+    /**
+     * Recalcule les tranches horaires de [from, to) puis les jours qu'elles touchent
+     */
+    private void rollupRange(Connection connection, LocalDateTime from, LocalDateTime to) throws SQLException {
+        execute(connection, "delete from process_stats_hourly where bucket_start >= ? and bucket_start < ?",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        execute(connection, "insert into process_stats_hourly (bucket_start, process_id, event_type, event_count)"
+                        + " select date_trunc('hour', event_date), coalesce(process_id, ''), event_type, count(*)"
+                        + " from Process_Instance_State_Log where event_date >= ? and event_date < ?"
+                        + " group by 1, 2, 3",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        LocalDate firstDay = from.toLocalDate();
+        LocalDate lastDay = to.minusNanos(1).toLocalDate();
+        execute(connection, "delete from process_stats_daily where bucket_date >= ? and bucket_date <= ?",
+                Date.valueOf(firstDay), Date.valueOf(lastDay));
+        execute(connection, "insert into process_stats_daily (bucket_date, process_id, event_type, event_count)"
+                        + " select cast(bucket_start as date), process_id, event_type, sum(event_count)"
+                        + " from process_stats_hourly where bucket_start >= ? and bucket_start < ?"
+                        + " group by 1, 2, 3",
+                Timestamp.valueOf(firstDay.atStartOfDay()), Timestamp.valueOf(lastDay.plusDays(1).atStartOfDay()));
+    }
+
+    private void purgeHourly(Connection connection, LocalDateTime before) throws SQLException {
+        execute(connection, "delete from process_stats_hourly where bucket_start < ?",
+                Timestamp.valueOf(before.truncatedTo(ChronoUnit.DAYS)));
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_try_advisory_xact_lock(?)")) {
+            statement.setLong(1, ROLLUP_LOCK_KEY);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() && rows.getBoolean(1);
+            }
+        }
+    }
+
+    private static LocalDateTime readWatermark(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select rolled_up_to from process_stats_rollup_watermark where rollup_name = ?")) {
+            statement.setString(1, ROLLUP_NAME);
+            try (ResultSet rows = statement.executeQuery()) {
+                Timestamp value = rows.next() ? rows.getTimestamp(1) : null;
+                return value != null ? value.toLocalDateTime() : null;
+            }
+        }
+    }
+
+    private static void writeWatermark(Connection connection, LocalDateTime value) throws SQLException {
+        execute(connection, "update process_stats_rollup_watermark set rolled_up_to = ?, updated_at = ?"
+                + " where rollup_name = ?", Timestamp.valueOf(value), Timestamp.valueOf(LocalDateTime.now()), ROLLUP_NAME);
+    }
+
+    private static LocalDateTime firstEventDate(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select min(event_date) from Process_Instance_State_Log");
+             ResultSet rows = statement.executeQuery()) {
+            Timestamp value = rows.next() ? rows.getTimestamp(1) : null;
+            return value != null ? value.toLocalDateTime() : null;
+        }
+    }
+
+    private static void execute(Connection connection, String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+}
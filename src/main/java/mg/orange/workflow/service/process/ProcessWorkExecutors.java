@@ -0,0 +1,101 @@
+package mg.orange.workflow.service.process;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Exécuteurs dédiés des endpoints non bloquants.
+ * <p>
+ * Le travail CPU (analyse XML, diff, sérialisation) et le travail bloquant (JDBC, appels Kogito) ont
+ * chacun leur pool borné : une rafale d'uploads ne peut pas affamer les lectures en base et aucun des
+ * deux n'occupe les threads HTTP. Les lectures de fichiers passent par le système de fichiers asynchrone
+ * de Vert.x et ne mobilisent aucun thread pendant l'attente. Avec {@code workflow.virtual-threads.enabled}
+ * (Java 21), le travail bloquant s'exécute sur des threads virtuels.
+ */
+@ApplicationScoped
+public class ProcessWorkExecutors {
+
+    @ConfigProperty(name = "workflow.reactive.parsing-threads", defaultValue = "0")
+    int parsingThreads;
+
+    @ConfigProperty(name = "workflow.reactive.blocking-threads", defaultValue = "32")
+    int blockingThreads;
+
+    @ConfigProperty(name = "workflow.reactive.queue-size", defaultValue = "1000")
+    int queueSize;
+
+    @ConfigProperty(name = "workflow.virtual-threads.enabled", defaultValue = "false")
+    boolean virtualThreads;
+
+    @Inject
+    Vertx vertx;
+
+    private ExecutorService parsingExecutor;
+    private ExecutorService blockingExecutor;
+
+    @PostConstruct
+    void init() {
+        int parsing = parsingThreads > 0 ? parsingThreads : Runtime.getRuntime().availableProcessors();
+        parsingExecutor = newPool("process-parsing-", parsing);
+        // en mode threads virtuels, la concurrence du travail bloquant n'est plus bornée que par les
+        // ressources qu'il attend (pool JDBC, Kogito)
+        blockingExecutor = VirtualThreads.use(virtualThreads)
+                ? VirtualThreads.newExecutor("process-blocking-")
+                : newPool("process-blocking-", blockingThreads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parsingExecutor.shutdown();
+        blockingExecutor.shutdown();
+    }
+
+    /**
+     * Exécute un travail CPU (analyse BPMN, diff, construction de DTO) sur le pool d'analyse
+     */
+    public <T> Uni<T> parsing(Supplier<T> work) {
+        return Uni.createFrom().item(work).runSubscriptionOn(parsingExecutor);
+    }
+
+    /**
+     * Exécute un travail bloquant (JDBC, appels synchrones) sur le pool bloquant
+     */
+    public <T> Uni<T> blocking(Supplier<T> work) {
+        return Uni.createFrom().item(work).runSubscriptionOn(blockingExecutor);
+    }
+
+    /**
+     * Lit un fichier sans bloquer de thread (système de fichiers asynchrone de Vert.x)
+     */
+    public Uni<byte[]> readFile(Path path) {
+        return vertx.fileSystem().readFile(path.toString()).map(buffer -> buffer.getBytes());
+    }
+
+    /**
+     * Pool borné : au-delà de {@code workflow.reactive.queue-size} travaux en attente, la soumission est
+     * refusée ({@link RejectedExecutionException}) plutôt que de laisser la latence croître sans limite
+     */
+    private ExecutorService newPool(String prefix, int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package mg.orange.workflow.service.process;
+
+import org.jboss.logging.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Accès aux threads virtuels (Java 21) depuis un code compilé pour Java 17.
+ * <p>
+ * Les API sont résolues par réflexion une seule fois ; sur un JDK antérieur, {@link #isAvailable()}
+ * retourne false et les appelants conservent leurs pools de threads classiques.
+ */
+final class VirtualThreads {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreads.class);
+    private static final AtomicBoolean UNAVAILABLE_LOGGED = new AtomicBoolean();
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            // JDK sans threads virtuels
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    static boolean isAvailable() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Indique si les threads virtuels doivent être utilisés : demandés par
+     * {@code workflow.virtual-threads.enabled} et disponibles (sinon un avertissement est journalisé une fois)
+     */
+    static boolean use(boolean requested) {
+        if (requested && !isAvailable() && UNAVAILABLE_LOGGED.compareAndSet(false, true)) {
+            LOG.warnf("workflow.virtual-threads.enabled ignoré : Java 21 est requis (JDK courant: %d)",
+                    Runtime.version().feature());
+        }
+        return requested && isAvailable();
+    }
+
+    /**
+     * Exécuteur démarrant un thread virtuel par tâche, nommé {@code prefix} suivi d'un compteur
+     *
+     * @throws IllegalStateException si le JDK ne supporte pas les threads virtuels
+     */
+    static ExecutorService newExecutor(String prefix) {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Les threads virtuels nécessitent Java 21 (JDK courant: "
+                    + Runtime.version().feature() + ")");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, FACTORY.invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible de créer un exécuteur de threads virtuels", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- Pre-aggregated process instance activity (Process_Instance_State_Log) for /api/processes/statistics/trends.
+-- Buckets are recomputed idempotently by the rollup job; the trends endpoints only read these tables.
+
+create table process_stats_hourly (
+    bucket_start timestamp(6) not null,
+    process_id varchar(255) not null,
+    event_type varchar(255) not null,
+    event_count bigint not null,
+    primary key (bucket_start, process_id, event_type)
+);
+
+create table process_stats_daily (
+    bucket_date date not null,
+    process_id varchar(255) not null,
+    event_type varchar(255) not null,
+    event_count bigint not null,
+    primary key (bucket_date, process_id, event_type)
+);
+
+create index ix_psd_process on process_stats_daily (process_id, bucket_date);
+
+-- rolled_up_to: every audit row strictly before this instant is included in the rollups
+create table process_stats_rollup_watermark (
+    rollup_name varchar(64) not null,
+    rolled_up_to timestamp(6),
+    updated_at timestamp(6) not null,
+    primary key (rollup_name)
+);
+
+insert into process_stats_rollup_watermark (rollup_name, rolled_up_to, updated_at)
+values ('process_instance_state', null, current_timestamp);
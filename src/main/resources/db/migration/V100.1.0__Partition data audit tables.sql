@@ -0,0 +1,68 @@
+-- Monthly range partitioning (on event_date) of the data-audit tables that no foreign key references.
+-- Existing rows stay in the former table, renamed <table>_legacy and attached as the range partition of everything
+-- before the current month: its CHECK constraint matches that range, so attaching it does not scan it. Rows of the
+-- current month (or later) move to their monthly partition first; rows without event_date move to an unconstrained
+-- DEFAULT partition, which also receives rows of a month without a partition.
+-- Indexes are declared on the parent only and built on the new, small partitions; the legacy partition attaches the
+-- single-column index it already has (ix_*) instead of building a second copy of it.
+-- The current month and the next two get their partition here; AuditRetentionService keeps that lead
+-- (workflow.audit.partitions-ahead) and detaches/drops partitions once past their retention.
+-- Process_Instance_State_Log, Task_Instance_Assignment_Log and Task_Instance_Deadline_Log are referenced by foreign
+-- keys and are not partitioned: their retention is applied with batched deletes.
+
+create or replace function workflow_partition_audit_table(tbl text, index_columns text[]) returns void as $$
+declare
+    cutoff date := date_trunc('month', current_date)::date;
+    legacy text := tbl || '_legacy';
+    col text;
+    part text;
+    existing text;
+    month date;
+begin
+    execute format('alter table %I rename to %I', tbl, legacy);
+    execute format('create table %I (like %I including defaults including constraints) partition by range (event_date)',
+                   tbl, legacy);
+    execute format('create table %I partition of %I default', tbl || '_default', tbl);
+    foreach month in array array[cutoff, (cutoff + interval '1 month')::date, (cutoff + interval '2 month')::date] loop
+        execute format('create table %I partition of %I for values from (%L) to (%L)',
+                       tbl || '_p' || to_char(month, 'YYYYMM'), tbl, month, (month + interval '1 month')::date);
+    end loop;
+    execute format('insert into %I select * from %I where event_date is null or event_date >= %L', tbl, legacy, cutoff);
+    execute format('delete from %I where event_date is null or event_date >= %L', legacy, cutoff);
+    execute format('alter table %I add constraint %I check (event_date is not null and event_date < %L)',
+                   legacy, legacy || '_range', cutoff);
+    execute format('alter table %I attach partition %I for values from (minvalue) to (%L)', tbl, legacy, cutoff);
+    -- the primary key must include the partition key: ids stay unique through their sequence, indexed for lookups
+    foreach col in array array['id'] || index_columns loop
+        execute format('create index %I on only %I (%I)', tbl || '_' || col, tbl, col);
+        for part in select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                    where i.inhparent = tbl::regclass and c.relname <> legacy loop
+            execute format('create index %I on %I (%I)', part || '_' || col, part, col);
+            execute format('alter index %I attach partition %I', tbl || '_' || col, part || '_' || col);
+        end loop;
+        -- existing plain index on the same column of the legacy table; without one (id is covered by the unique
+        -- primary key) the parent index stays invalid until the legacy partition is detached, which the planner
+        -- does not need since each partition is indexed
+        select i.indexrelid::regclass::text into existing
+        from pg_index i
+        join pg_attribute a on a.attrelid = i.indrelid and a.attnum = i.indkey[0]
+        where i.indrelid = legacy::regclass and i.indnatts = 1 and not i.indisunique
+          and i.indpred is null and i.indexprs is null and a.attname = col
+        limit 1;
+        if existing is not null then
+            execute format('alter index %I attach partition %s', tbl || '_' || col, existing);
+        end if;
+    end loop;
+end;
+$$ language plpgsql;
+
+select workflow_partition_audit_table('job_execution_log', array['process_instance_id', 'job_id', 'status']);
+select workflow_partition_audit_table('process_instance_error_log', array['process_instance_id', 'business_key', 'event_date']);
+select workflow_partition_audit_table('process_instance_node_log', array['process_instance_id', 'business_key', 'event_date']);
+select workflow_partition_audit_table('process_instance_variable_log', array['process_instance_id', 'business_key', 'variable_id', 'event_date']);
+select workflow_partition_audit_table('task_instance_attachment_log', array['user_task_instance_id', 'process_instance_id', 'business_key', 'event_date']);
+select workflow_partition_audit_table('task_instance_comment_log', array['user_task_instance_id', 'process_instance_id', 'business_key', 'event_date']);
+select workflow_partition_audit_table('task_instance_state_log', array['user_task_instance_id', 'process_instance_id', 'business_key', 'state', 'event_date']);
+select workflow_partition_audit_table('task_instance_variable_log', array['user_task_instance_id', 'process_instance_id', 'business_key', 'event_date']);
+
+drop function workflow_partition_audit_table(text, text[]);
@@ -0,0 +1,26 @@
+-- BPMN version history (BpmnVersionStore): one row per version, stored as a snapshot/delta chain.
+-- A SNAPSHOT row holds the gzipped full BPMN; a DELTA row holds the serialized XmlDelta against its base_id row.
+-- Only metadata is read at startup; contents are loaded on demand, walking back to the nearest snapshot.
+
+create table bpmn_version_history (
+    id bigint generated always as identity,
+    process_id varchar(255) not null,
+    version_semver varchar(255) not null,
+    change_type varchar(32) not null,
+    created_by varchar(255),
+    change_comment text,
+    created_at timestamp(6) not null,
+    content_hash varchar(64),
+    size_bytes bigint not null,
+    active boolean not null default false,
+    kind varchar(8) not null,
+    base_id bigint,
+    content bytea not null,
+    primary key (id),
+    constraint uk_bpmn_version_history unique (process_id, version_semver),
+    constraint fk_bpmn_version_history_base foreign key (base_id) references bpmn_version_history (id),
+    constraint ck_bpmn_version_history_kind check ((kind = 'SNAPSHOT' and base_id is null)
+        or (kind = 'DELTA' and base_id is not null))
+);
+
+create index ix_bpmn_version_history_base on bpmn_version_history (base_id);